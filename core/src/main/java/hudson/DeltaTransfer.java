@@ -0,0 +1,367 @@
+package hudson;
+
+import hudson.FilePath.TransferStatistics;
+import hudson.util.FileVisitor;
+import hudson.util.IOUtils;
+import jenkins.util.SystemProperties;
+
+import javax.annotation.CheckForNull;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format and algorithm behind {@link FilePath#syncRecursiveTo}.
+ *
+ * <p>
+ * The transfer takes three steps:
+ * <ol>
+ * <li>The source side lists the files to copy, with their sizes and timestamps ({@link #scanner}).
+ * <li>The target side compares that with what it has ({@link #signatures}). Files of the same size and timestamp
+ *     are assumed to be unchanged. For other files that exist, it computes a digest of each fixed-size block.
+ * <li>The source side streams the files that are missing or changed ({@link #write}), sending only the blocks
+ *     whose digest differs, and the target side rebuilds them next to the existing file and swaps them in ({@link #read}).
+ * </ol>
+ * Blocks are compared at the same offsets only: unlike rsync there is no rolling checksum, so content
+ * inserted in the middle of a file causes the rest of it to be sent. This is fine for the typical trees
+ * being copied (dependency caches, build outputs), where files are either unchanged, replaced, or appended to.
+ *
+ * <p>
+ * All file system access goes through an {@link Access}, so that the {@link FilePath} security checks apply.
+ */
+final class DeltaTransfer {
+
+    private DeltaTransfer() {}
+
+    /**
+     * File system checks of the calling {@link FilePath}.
+     */
+    interface Access {
+        File reading(File f);
+        File writing(File f);
+        File mkdirs(File dir) throws IOException;
+        void symlink(File link, String target) throws IOException, InterruptedException;
+        void chmod(File f, int mode) throws IOException;
+    }
+
+    /**
+     * A file or symlink on the source side.
+     */
+    static final class Entry implements Serializable {
+        final String path;
+        final long size;
+        final long lastModified;
+        final int mode;
+        /**
+         * Non-null for symlinks.
+         */
+        final @CheckForNull String symlinkTarget;
+
+        Entry(String path, long size, long lastModified, int mode, @CheckForNull String symlinkTarget) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mode = mode;
+            this.symlinkTarget = symlinkTarget;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * What the target side has for an {@link Entry}.
+     */
+    static final class Signature implements Serializable {
+        static final Signature UNCHANGED = new Signature(0, null);
+
+        final int blockSize;
+        /**
+         * Concatenated digests of the blocks of the existing file, or null if it is {@link #UNCHANGED}.
+         */
+        final @CheckForNull byte[] digests;
+
+        Signature(int blockSize, @CheckForNull byte[] digests) {
+            this.blockSize = blockSize;
+            this.digests = digests;
+        }
+
+        boolean isUnchanged() {
+            return digests == null;
+        }
+
+        int blocks() {
+            return digests == null ? 0 : digests.length / DIGEST_LENGTH;
+        }
+
+        boolean matches(int block, byte[] digest) {
+            return block < blocks() && Arrays.equals(digest, Arrays.copyOfRange(digests, block * DIGEST_LENGTH, (block + 1) * DIGEST_LENGTH));
+        }
+
+        private Object readResolve() {
+            return digests == null ? UNCHANGED : this;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Lists the files under the base directory.
+     */
+    static FileVisitor scanner(final List<Entry> entries) {
+        return new FileVisitor() {
+            @Override
+            public void visit(File f, String relativePath) throws IOException {
+                if (f.isFile()) {
+                    entries.add(new Entry(relativePath, f.length(), f.lastModified(), IOUtils.mode(f), null));
+                }
+            }
+
+            @Override
+            public boolean understandsSymlink() {
+                return true;
+            }
+
+            @Override
+            public void visitSymlink(File link, String target, String relativePath) {
+                entries.add(new Entry(relativePath, 0, 0, -1, target));
+            }
+        };
+    }
+
+    /**
+     * Computes what the target directory already has of the given entries.
+     *
+     * @return
+     *      signatures of the entries that exist in the target directory. Missing entries are not in the map.
+     */
+    static Map<String, Signature> signatures(File base, List<Entry> entries, Access access) throws IOException {
+        Map<String, Signature> r = new HashMap<>();
+        byte[] buf = new byte[MAX_BLOCK_SIZE];
+        for (Entry e : entries) {
+            File f = resolve(base, e.path);
+            if (e.symlinkTarget != null) {
+                String existing = Util.resolveSymlink(f);
+                if (e.symlinkTarget.equals(existing)) {
+                    r.put(e.path, Signature.UNCHANGED);
+                }
+                continue;
+            }
+            if (!f.isFile() || Files.isSymbolicLink(f.toPath())) {
+                continue;
+            }
+            long size = f.length();
+            if (size == e.size && f.lastModified() == e.lastModified) {
+                r.put(e.path, Signature.UNCHANGED);
+                continue;
+            }
+            int blockSize = blockSizeFor(Math.max(size, e.size));
+            long blocks = (size + blockSize - 1) / blockSize;
+            byte[] digests = new byte[(int) blocks * DIGEST_LENGTH];
+            try (InputStream in = new FileInputStream(access.reading(f))) {
+                for (int i = 0; i < blocks; i++) {
+                    int len = readBlock(in, buf, (int) Math.min(blockSize, size - (long) i * blockSize));
+                    System.arraycopy(digest(buf, len), 0, digests, i * DIGEST_LENGTH, DIGEST_LENGTH);
+                }
+            }
+            r.put(e.path, new Signature(blockSize, digests));
+        }
+        return r;
+    }
+
+    /**
+     * Writes the entries that the target does not have to the stream.
+     */
+    static TransferStatistics write(File base, List<Entry> entries, Map<String, Signature> signatures, OutputStream os, Access access) throws IOException {
+        TransferStatistics stats = new TransferStatistics(true);
+        byte[] buf = new byte[MAX_BLOCK_SIZE];
+        try (DataOutputStream out = new DataOutputStream(os)) {
+            for (Entry e : entries) {
+                Signature sig = signatures.get(e.path);
+                stats.files++;
+                stats.bytes += e.size;
+                if (sig != null && sig.isUnchanged()) {
+                    stats.unchangedFiles++;
+                    continue;
+                }
+                if (e.symlinkTarget != null) {
+                    out.writeByte(OP_SYMLINK);
+                    out.writeUTF(e.path);
+                    out.writeUTF(e.symlinkTarget);
+                    continue;
+                }
+                int blockSize = sig != null ? sig.blockSize : blockSizeFor(e.size);
+                out.writeByte(OP_FILE);
+                out.writeUTF(e.path);
+                out.writeLong(e.size);
+                out.writeLong(e.lastModified);
+                out.writeInt(e.mode);
+                out.writeInt(blockSize);
+                File f = resolve(base, e.path);
+                try (InputStream in = new FileInputStream(access.reading(f))) {
+                    for (long offset = 0; offset < e.size; offset += blockSize) {
+                        int len = (int) Math.min(blockSize, e.size - offset);
+                        if (readBlock(in, buf, len) < len) {
+                            throw new IOException(f + " was truncated while being copied");
+                        }
+                        if (sig != null && sig.matches((int) (offset / blockSize), digest(buf, len))) {
+                            out.writeByte(BLOCK_SAME);
+                            stats.reusedBlocks++;
+                        } else {
+                            out.writeByte(BLOCK_DATA);
+                            out.write(buf, 0, len);
+                            stats.sentBytes += len;
+                        }
+                    }
+                }
+            }
+            out.writeByte(OP_END);
+        }
+        return stats;
+    }
+
+    /**
+     * Applies the stream produced by {@link #write} to the target directory.
+     */
+    static void read(File base, InputStream is, Access access) throws IOException, InterruptedException {
+        byte[] buf = new byte[MAX_BLOCK_SIZE];
+        DataInputStream in = new DataInputStream(is);
+        while (true) {
+            int op = in.readUnsignedByte();
+            if (op == OP_END) {
+                return;
+            }
+            String path = in.readUTF();
+            File f = resolve(base, path);
+            File parent = f.getParentFile();
+            if (parent != null) {
+                access.mkdirs(parent);
+            }
+            access.writing(f);
+            if (op == OP_SYMLINK) {
+                access.symlink(f, in.readUTF());
+                continue;
+            }
+            if (op != OP_FILE) {
+                throw new IOException("Unexpected operation " + op + " for " + path);
+            }
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            int mode = in.readInt();
+            int blockSize = in.readInt();
+            if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+                throw new IOException("Invalid block size " + blockSize + " for " + path);
+            }
+            File tmp = new File(parent, "." + f.getName() + ".sync");
+            RandomAccessFile existing = null;
+            try (OutputStream out = new FileOutputStream(access.writing(tmp))) {
+                for (long offset = 0; offset < size; offset += blockSize) {
+                    int len = (int) Math.min(blockSize, size - offset);
+                    int kind = in.readUnsignedByte();
+                    if (kind == BLOCK_DATA) {
+                        in.readFully(buf, 0, len);
+                    } else if (kind == BLOCK_SAME) {
+                        if (existing == null) {
+                            existing = new RandomAccessFile(access.reading(f), "r");
+                        }
+                        existing.seek(offset);
+                        existing.readFully(buf, 0, len);
+                    } else {
+                        throw new IOException("Unexpected block type " + kind + " for " + path);
+                    }
+                    out.write(buf, 0, len);
+                }
+            } catch (IOException x) {
+                Files.deleteIfExists(tmp.toPath());
+                throw x;
+            } finally {
+                if (existing != null) {
+                    existing.close();
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException x) {
+                Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            f.setLastModified(lastModified);
+            if (mode > 0 && !Functions.isWindows()) {
+                access.chmod(f, mode & 0777);
+            }
+        }
+    }
+
+    private static File resolve(File base, String path) throws IOException {
+        File f = new File(base, path);
+        if (!f.toPath().normalize().startsWith(base.toPath())) {
+            throw new IOException("Illegal file name that breaks out of " + base + ": " + path);
+        }
+        return f;
+    }
+
+    /**
+     * Picks blocks big enough that a file has at most {@link #MAX_BLOCKS} of them.
+     */
+    static int blockSizeFor(long size) {
+        int blockSize = BLOCK_SIZE;
+        while (blockSize < MAX_BLOCK_SIZE && size / blockSize >= MAX_BLOCKS) {
+            blockSize <<= 1;
+        }
+        return blockSize;
+    }
+
+    private static int readBlock(InputStream in, byte[] buf, int len) throws IOException {
+        int n = 0;
+        while (n < len) {
+            int r = in.read(buf, n, len - n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+        }
+        return n;
+    }
+
+    private static byte[] digest(byte[] buf, int len) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(buf, 0, len);
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final int OP_END = 0;
+    private static final int OP_FILE = 1;
+    private static final int OP_SYMLINK = 2;
+
+    private static final int BLOCK_DATA = 0;
+    private static final int BLOCK_SAME = 1;
+
+    private static final int MAX_BLOCKS = 16384;
+    private static final int MAX_BLOCK_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * Smallest block size, in bytes. Smaller blocks send less data for scattered changes but make the signatures bigger.
+     */
+    private static /* not final */ int BLOCK_SIZE = Math.min(MAX_BLOCK_SIZE,
+            Integer.highestOneBit(Math.max(1024, SystemProperties.getInteger(DeltaTransfer.class.getName() + ".blockSize", 128 * 1024))));
+}
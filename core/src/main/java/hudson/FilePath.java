@@ -80,12 +80,15 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.LinkOption;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
@@ -117,6 +120,7 @@ import jenkins.SoloFilePathFilter;
 import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
 import jenkins.util.ContextResettingExecutorService;
+import jenkins.util.SystemProperties;
 import jenkins.util.VirtualFile;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
@@ -2405,6 +2409,408 @@ public final class FilePath implements SerializableOnlyOverRemoting {
         }
     }
 
+    /**
+     * Copies files according to a specified scanner to a target node, like {@link #copyRecursiveTo(DirScanner, FilePath, String, TarCompression)},
+     * but only transfers what the target does not have yet.
+     *
+     * <p>
+     * Files that exist in the target directory with the same size and timestamp are skipped. Files that exist but differ
+     * are compared block by block, and only the blocks that changed are sent. This is much cheaper than a full copy
+     * when repeatedly copying large trees that change little, such as dependency caches. Files that only exist in
+     * the target directory are left alone.
+     *
+     * <p>
+     * When both directories are on the same machine, when the target directory has none of the files, or when the
+     * other side cannot take part in the comparison, this falls back to a plain copy,
+     * as reported by {@link TransferStatistics#isIncremental}.
+     *
+     * @param scanner a way of enumerating some files (must be serializable for possible delivery to remote side)
+     * @param target the destination basedir
+     * @param description a description of the fileset, for logging purposes
+     * @param compression compression to use
+     * @return what was transferred
+     * @since TODO
+     */
+    @Nonnull
+    public TransferStatistics syncRecursiveTo(final DirScanner scanner, final FilePath target, final String description, @Nonnull TarCompression compression) throws IOException, InterruptedException {
+        if (this.channel == target.channel || !DELTA_TRANSFER) {
+            return TransferStatistics.full(copyRecursiveTo(scanner, target, description, compression));
+        }
+
+        List<DeltaTransfer.Entry> entries = act(new DeltaScan(scanner));
+        Map<String, DeltaTransfer.Signature> signatures;
+        try {
+            signatures = target.act(new DeltaSignatures(entries));
+        } catch (IOException e) {
+            if (!isUnsupported(e)) {
+                throw e;
+            }
+            LOGGER.log(Level.FINE, "Falling back to a full copy of " + description + " to " + target, e);
+            signatures = null;
+        }
+        if (signatures == null || signatures.isEmpty()) {
+            // nothing to compare with, so a tar stream is just as small
+            return TransferStatistics.full(copyRecursiveTo(scanner, target, description, compression));
+        }
+
+        if (this.channel == null) {
+            // local -> remote copy
+            final Pipe pipe = Pipe.createLocalToRemote();
+
+            Future<Void> future = target.actAsync(new ReadDelta(pipe, compression));
+            Future<TransferStatistics> future2 = actAsync(new WriteDelta(entries, signatures, pipe, compression));
+            try {
+                // JENKINS-9540 in case the reading side failed, report that error first
+                future.get();
+                return future2.get();
+            } catch (ExecutionException e) {
+                throw ioWithCause(e);
+            }
+        } else {
+            // remote -> local copy
+            final Pipe pipe = Pipe.createRemoteToLocal();
+
+            Future<TransferStatistics> future = actAsync(new WriteDelta(entries, signatures, pipe, compression));
+            try {
+                target.act(new ReadDelta(pipe, compression));
+            } catch (IOException e) {
+                try {
+                    future.get(3, TimeUnit.SECONDS);
+                    throw e;    // the remote side completed successfully, so the error must be local
+                } catch (ExecutionException x) {
+                    // report both errors
+                    e.addSuppressed(x);
+                    throw e;
+                } catch (TimeoutException ignored) {
+                    // remote is hanging, just throw the original exception
+                    throw e;
+                }
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw ioWithCause(e);
+            }
+        }
+    }
+
+    /**
+     * Whether the failure means that the other side does not have the classes needed for a delta transfer.
+     */
+    private static boolean isUnsupported(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof LinkageError || t instanceof ClassNotFoundException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * What {@link #syncRecursiveTo} transferred.
+     * @since TODO
+     */
+    public static final class TransferStatistics implements Serializable {
+        private final boolean incremental;
+        int files;
+        int unchangedFiles;
+        long bytes;
+        long sentBytes;
+        int reusedBlocks;
+
+        TransferStatistics(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        static TransferStatistics full(int files) {
+            TransferStatistics s = new TransferStatistics(false);
+            s.files = files;
+            s.bytes = -1;
+            s.sentBytes = -1;
+            return s;
+        }
+
+        /**
+         * False if all files were copied in full, in which case only {@link #getFiles} is known.
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * Number of files and symlinks matched by the scanner.
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        /**
+         * Number of files the target already had, which were not transferred at all.
+         */
+        public int getUnchangedFiles() {
+            return unchangedFiles;
+        }
+
+        /**
+         * Total size of the files matched by the scanner, or -1 if unknown.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Size of the file contents actually sent, before compression, or -1 if unknown.
+         */
+        public long getSentBytes() {
+            return sentBytes;
+        }
+
+        /**
+         * Number of blocks of changed files that the target already had.
+         */
+        public int getReusedBlocks() {
+            return reusedBlocks;
+        }
+
+        @Override
+        public String toString() {
+            if (!incremental) {
+                return files + " files copied in full";
+            }
+            return files + " files (" + unchangedFiles + " unchanged), sent " + sentBytes + " of " + bytes + " bytes, reused " + reusedBlocks + " blocks";
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * {@link DeltaTransfer.Access} going through the checks of this {@link FilePath}.
+     */
+    private class DeltaAccess implements DeltaTransfer.Access {
+        @Override
+        public File reading(File f) {
+            return FilePath.this.reading(f);
+        }
+
+        @Override
+        public File writing(File f) {
+            return FilePath.this.writing(f);
+        }
+
+        @Override
+        public File mkdirs(File dir) throws IOException {
+            return mkdirsE(dir);
+        }
+
+        @Override
+        public void symlink(File link, String target) throws IOException, InterruptedException {
+            symlinking(link);
+            Util.createSymlink(link.getParentFile(), target, link.getName(), TaskListener.NULL);
+        }
+
+        @Override
+        public void chmod(File f, int mode) throws IOException {
+            _chmod(f, mode);
+        }
+    }
+
+    private class DeltaScan extends SecureFileCallable<List<DeltaTransfer.Entry>> {
+        private final DirScanner scanner;
+        DeltaScan(DirScanner scanner) {
+            this.scanner = scanner;
+        }
+        private static final long serialVersionUID = 1L;
+        @Override
+        public List<DeltaTransfer.Entry> invoke(File f, VirtualChannel channel) throws IOException {
+            List<DeltaTransfer.Entry> entries = new ArrayList<>();
+            if (f.exists()) {
+                scanner.scan(f, reading(DeltaTransfer.scanner(entries)));
+            }
+            return entries;
+        }
+    }
+    private class DeltaSignatures extends SecureFileCallable<Map<String, DeltaTransfer.Signature>> {
+        private final List<DeltaTransfer.Entry> entries;
+        DeltaSignatures(List<DeltaTransfer.Entry> entries) {
+            this.entries = entries;
+        }
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Map<String, DeltaTransfer.Signature> invoke(File f, VirtualChannel channel) throws IOException {
+            if (!f.isDirectory()) {
+                return Collections.emptyMap();
+            }
+            return DeltaTransfer.signatures(f, entries, new DeltaAccess());
+        }
+    }
+    private class WriteDelta extends SecureFileCallable<TransferStatistics> {
+        private final List<DeltaTransfer.Entry> entries;
+        private final Map<String, DeltaTransfer.Signature> signatures;
+        private final Pipe pipe;
+        private final TarCompression compression;
+        WriteDelta(List<DeltaTransfer.Entry> entries, Map<String, DeltaTransfer.Signature> signatures, Pipe pipe, @Nonnull TarCompression compression) {
+            this.entries = entries;
+            this.signatures = signatures;
+            this.pipe = pipe;
+            this.compression = compression;
+        }
+        private static final long serialVersionUID = 1L;
+        @Override
+        public TransferStatistics invoke(File f, VirtualChannel channel) throws IOException {
+            return DeltaTransfer.write(f, entries, signatures, compression.compress(pipe.getOut()), new DeltaAccess());
+        }
+    }
+    private class ReadDelta extends SecureFileCallable<Void> {
+        private final Pipe pipe;
+        private final TarCompression compression;
+        ReadDelta(Pipe pipe, @Nonnull TarCompression compression) {
+            this.pipe = pipe;
+            this.compression = compression;
+        }
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Void invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            try (InputStream in = pipe.getIn()) {
+                DeltaTransfer.read(mkdirsE(f), compression.extract(in), new DeltaAccess());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * How {@link #cloneRecursiveTo(FilePath, CloneMode)} shares file contents between the source and the copy.
+     * @since TODO
+     */
+    public enum CloneMode {
+        /**
+         * Plain copies.
+         */
+        COPY,
+        /**
+         * Copy-on-write clones on file systems that support them ({@code cp --reflink} on Linux, e.g. on btrfs or XFS),
+         * plain copies otherwise. Safe whatever either side does with the files later.
+         */
+        REFLINK,
+        /**
+         * Hard links to the source files where possible. Only safe if neither tree modifies files in place,
+         * since the contents are actually shared.
+         */
+        HARDLINK
+    }
+
+    /**
+     * Clones this directory recursively into the specified target directory, using the cheapest
+     * mechanism available when both are on the same machine. Symbolic links are recreated as such.
+     * When the target is on another machine, this is the same as {@link #copyRecursiveTo(FilePath)}.
+     *
+     * @return
+     *      the number of files cloned.
+     * @since TODO
+     */
+    public int cloneRecursiveTo(@Nonnull FilePath target, @Nonnull CloneMode mode) throws IOException, InterruptedException {
+        if (this.channel != target.channel) {
+            return copyRecursiveTo(target);
+        }
+        return act(new CloneRecursiveLocal(target, mode));
+    }
+
+    private class CloneRecursiveLocal extends SecureFileCallable<Integer> {
+        private final FilePath target;
+        private final CloneMode mode;
+        CloneRecursiveLocal(FilePath target, CloneMode mode) {
+            this.target = target;
+            this.mode = mode;
+        }
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Integer invoke(File base, VirtualChannel channel) throws IOException, InterruptedException {
+            if (!base.isDirectory()) {
+                return 0;
+            }
+            final Path src = fileToPath(base);
+            final Path dest = fileToPath(mkdirsE(new File(target.remote)));
+
+            if (mode == CloneMode.REFLINK && FilePathFilter.current() == null && cpReflink(base, dest.toFile())) {
+                return countFiles(src);
+            }
+
+            final AtomicInteger count = new AtomicInteger();
+            Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    mkdirsE(dest.resolve(src.relativize(dir)).toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Path to = dest.resolve(src.relativize(file));
+                    reading(file.toFile());
+                    if (attrs.isSymbolicLink()) {
+                        symlinking(to.toFile());
+                        Files.deleteIfExists(to);
+                        Files.createSymbolicLink(to, Files.readSymbolicLink(file));
+                    } else {
+                        writing(to.toFile());
+                        if (mode != CloneMode.HARDLINK || !tryLink(file, to)) {
+                            Files.copy(file, to, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+                        }
+                    }
+                    count.incrementAndGet();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return count.get();
+        }
+
+        private boolean tryLink(Path file, Path to) {
+            try {
+                Files.deleteIfExists(to);
+                Files.createLink(to, file);
+                return true;
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.log(Level.FINE, "Unable to hard link " + file + ", copying instead", e);
+                return false;
+            }
+        }
+
+        /**
+         * Lets {@code cp} clone the whole tree in one go; it falls back to copying by itself if the file system
+         * does not support reflinks.
+         */
+        private boolean cpReflink(File base, File dest) throws InterruptedException {
+            if (Functions.isWindows() || !"Linux".equals(System.getProperty("os.name"))) {
+                return false;
+            }
+            try {
+                Process p = new ProcessBuilder("cp", "-a", "--reflink=auto", base.getPath() + "/.", dest.getPath())
+                        .redirectErrorStream(true).start();
+                p.getOutputStream().close();
+                String output = org.apache.commons.io.IOUtils.toString(p.getInputStream(), java.nio.charset.Charset.defaultCharset());
+                int exit = p.waitFor();
+                if (exit != 0) {
+                    LOGGER.log(Level.FINE, "cp --reflink failed with {0}: {1}", new Object[] {exit, output});
+                }
+                return exit == 0;
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Unable to run cp --reflink", e);
+                return false;
+            }
+        }
+
+        private int countFiles(Path root) throws IOException {
+            final AtomicInteger count = new AtomicInteger();
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    count.incrementAndGet();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return count.get();
+        }
+    }
+
     private IOException ioWithCause(ExecutionException e) {
         Throwable cause = e.getCause();
         if (cause == null) cause = e;
@@ -3047,6 +3453,11 @@ public final class FilePath implements SerializableOnlyOverRemoting {
 
     private static final Logger LOGGER = Logger.getLogger(FilePath.class.getName());
 
+    /**
+     * Set to false to make {@link #syncRecursiveTo} always copy files in full.
+     */
+    private static /* not final */ boolean DELTA_TRANSFER = SystemProperties.getBoolean(FilePath.class.getName() + ".deltaTransfer", true);
+
     /**
      * Adapts {@link FileCallable} to {@link Callable}.
      */
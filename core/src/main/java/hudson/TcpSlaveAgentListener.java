@@ -25,13 +25,15 @@ package hudson;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.ByteArrayInputStream;
-import java.io.SequenceInputStream;
+import java.io.Closeable;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.security.interfaces.RSAPublicKey;
 import javax.annotation.Nullable;
 
 import hudson.model.AperiodicWork;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.VersionNumber;
 import jenkins.model.Jenkins;
 import jenkins.model.identity.InstanceIdentityProvider;
@@ -42,7 +44,6 @@ import hudson.slaves.OfflineCause;
 import java.io.DataOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.SocketAddress;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Base64;
@@ -58,11 +59,24 @@ import java.net.BindException;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.apache.commons.io.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.StringUtils;
@@ -90,8 +104,26 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 public final class TcpSlaveAgentListener extends Thread {
 
     private final ServerSocketChannel serverSocket;
+    private final Selector selector;
     private volatile boolean shuttingDown;
 
+    /**
+     * Runs the {@link AgentProtocol}s once the protocol header of a connection has been received.
+     */
+    private final ThreadPoolExecutor handlers;
+
+    /**
+     * Connections handed to {@link #handlers} and not yet done.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Connections whose protocol header is still being received. Only used by the acceptor thread.
+     */
+    private int pending;
+
+    private final HandshakeStatistics statistics = new HandshakeStatistics();
+
     public final int configuredPort;
 
     /**
@@ -107,6 +139,11 @@ public final class TcpSlaveAgentListener extends Thread {
             throw (BindException)new BindException("Failed to listen on port "+port+" because it's already in use.").initCause(e);
         }
         this.configuredPort = port;
+        serverSocket.configureBlocking(false);
+        selector = Selector.open();
+        handlers = new ThreadPoolExecutor(HANDSHAKE_THREADS, HANDSHAKE_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "TCP agent connection handler"));
+        handlers.allowCoreThreadTimeOut(true);
         setUncaughtExceptionHandler((t, e) -> {
             LOGGER.log(Level.SEVERE, "Uncaught exception in TcpSlaveAgentListener " + t + ", attempting to reschedule thread", e);
             shutdown();
@@ -178,106 +215,302 @@ public final class TcpSlaveAgentListener extends Thread {
         return RemotingVersionInfo.getMinimumSupportedVersion();
     }
 
+    /**
+     * Statistics about the connections received.
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public HandshakeStatistics getHandshakeStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Accepts connections and receives their protocol header without blocking, so that a reconnection storm
+     * or slow clients do not tie up a thread per connection. Only connections whose header is complete are
+     * handed to the bounded {@link #handlers} pool. When too many connections are in progress, new ones are left
+     * in the backlog of the server socket until some are done.
+     * If accepting a connection fails, new ones are held off for a second; if the selector itself fails,
+     * the listener is restarted by the {@link TcpSlaveAgentListenerRescheduler}.
+     */
     @Override
     public void run() {
         try {
-            // the loop eventually terminates when the socket is closed.
+            SelectionKey acceptKey = serverSocket.register(selector, SelectionKey.OP_ACCEPT);
+            List<PendingConnection> ready = new ArrayList<>();
+            boolean saturated = false;
+            long nextExpiry = System.nanoTime();
+            long acceptAgainAt = nextExpiry;
             while (!shuttingDown) {
-                Socket s = serverSocket.accept().socket();
-
-                // this prevents a connection from silently terminated by the router in between or the other peer
-                // and that goes without unnoticed. However, the time out is often very long (for example 2 hours
-                // by default in Linux) that this alone is enough to prevent that.
-                s.setKeepAlive(true);
-                // we take care of buffering on our own
-                s.setTcpNoDelay(true);
-
-                new ConnectionHandler(s, new ConnectionHandlerFailureCallback(this) {
-                    @Override
-                    public void run(Throwable cause) {
-                        LOGGER.log(Level.WARNING, "Connection handler failed, restarting listener", cause);
-                        shutdown();
-                        TcpSlaveAgentListenerRescheduler.schedule(getParentThread(), cause);
+                boolean full = pending + inFlight.get() >= MAX_HANDSHAKES;
+                if (full != saturated) {
+                    saturated = full;
+                    LOGGER.log(full ? Level.INFO : Level.FINE, full ? "{0} agent connections in progress, holding off new ones" : "Accepting agent connections again",
+                            pending + inFlight.get());
+                }
+                int interest = full || System.nanoTime() - acceptAgainAt < 0 ? 0 : SelectionKey.OP_ACCEPT;
+                if (acceptKey.interestOps() != interest) {
+                    acceptKey.interestOps(interest);
+                }
+                selector.select(TimeUnit.SECONDS.toMillis(1));
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
                     }
-                }).start();
+                    if (key == acceptKey) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            // for example out of file descriptors; give the connections in progress a chance to finish
+                            LOGGER.log(Level.WARNING, "Failed to accept a TCP connection, pausing for a second", e);
+                            acceptAgainAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+                        }
+                    } else if (key.isReadable()) {
+                        PendingConnection c = (PendingConnection) key.attachment();
+                        try {
+                            if (c.read()) {
+                                key.cancel();
+                                ready.add(c);
+                            }
+                        } catch (IOException e) {
+                            LOGGER.log(Level.INFO, "Connection #{0} failed: {1}", new Object[] {c.id, e});
+                            c.close(key);
+                        }
+                    }
+                }
+                long now = System.nanoTime();
+                if (now - nextExpiry >= 0) {
+                    expire(now);
+                    nextExpiry = now + TimeUnit.SECONDS.toNanos(1);
+                }
+                if (!ready.isEmpty()) {
+                    // deregisters the cancelled keys, so that the channels can be put back in blocking mode
+                    selector.selectNow();
+                    for (PendingConnection c : ready) {
+                        dispatch(c);
+                    }
+                    ready.clear();
+                }
             }
-        } catch (IOException e) {
+        } catch (IOException | ClosedSelectorException e) {
             if(!shuttingDown) {
-                LOGGER.log(Level.SEVERE,"Failed to accept TCP connections", e);
+                LOGGER.log(Level.SEVERE, "Failed to accept TCP connections, restarting listener", e);
+                shutdown();
+                TcpSlaveAgentListenerRescheduler.schedule(this, e);
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof PendingConnection) {
+                    ((PendingConnection) key.attachment()).close(key);
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close the selector", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverSocket.accept();
+        if (channel == null) {
+            return;
+        }
+        Socket s = channel.socket();
+        int id;
+        synchronized (TcpSlaveAgentListener.class) {
+            id = iotaGen++;
+        }
+        try {
+            // this prevents a connection from silently terminated by the router in between or the other peer
+            // and that goes without unnoticed. However, the time out is often very long (for example 2 hours
+            // by default in Linux) that this alone is enough to prevent that.
+            s.setKeepAlive(true);
+            // we take care of buffering on our own
+            s.setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new PendingConnection(channel, id));
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+        pending++;
+        statistics.accepted.incrementAndGet();
+        LOGGER.log(Level.FINE, "Accepted connection #{0} from {1}", new Object[] {id, s.getRemoteSocketAddress()});
+    }
+
+    /**
+     * Drops the connections that did not send their protocol header in time.
+     */
+    private void expire(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof PendingConnection && key.isValid()) {
+                PendingConnection c = (PendingConnection) attachment;
+                if (now - c.acceptedAt > TimeUnit.MILLISECONDS.toNanos(HANDSHAKE_TIMEOUT_MILLIS)) {
+                    LOGGER.log(Level.INFO, "Connection #{0} from {1} did not send a protocol header within {2}ms",
+                            new Object[] {c.id, c.channel.socket().getRemoteSocketAddress(), HANDSHAKE_TIMEOUT_MILLIS});
+                    statistics.timedOut.incrementAndGet();
+                    c.close(key);
+                }
             }
         }
     }
 
+    private void dispatch(PendingConnection c) {
+        pending--;
+        try {
+            c.channel.configureBlocking(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.INFO, "Connection #{0} failed: {1}", new Object[] {c.id, e});
+            closeQuietly(c.channel);
+            return;
+        }
+        inFlight.incrementAndGet();
+        try {
+            handlers.execute(new ConnectionHandler(c.channel.socket(), c.id, c.header(), c.acceptedAt));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            inFlight.decrementAndGet();
+            closeQuietly(c.channel);
+        }
+    }
+
+    private static void closeQuietly(Closeable c) {
+        try {
+            c.close();
+        } catch (IOException e) {
+            // try to clean up the socket
+        }
+    }
+
     /**
      * Initiates the shuts down of the listener.
      */
     public void shutdown() {
         shuttingDown = true;
-        try {
-            SocketAddress localAddress = serverSocket.getLocalAddress();
-            if (localAddress instanceof InetSocketAddress) {
-                InetSocketAddress address = (InetSocketAddress) localAddress;
-                Socket client = new Socket(address.getHostName(), address.getPort());
-                client.setSoTimeout(1000); // waking the acceptor loop should be quick
-                new PingAgentProtocol().connect(client);
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.FINE, "Failed to send Ping to wake acceptor loop", e);
-        }
+        selector.wakeup();
         try {
             serverSocket.close();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Failed to close down TCP port",e);
         }
+        handlers.shutdown();
+    }
+
+    /**
+     * A connection whose protocol header is being received.
+     * The header is read exactly, so that whatever the client sends next is left for the {@link AgentProtocol}.
+     */
+    private final class PendingConnection {
+        private final SocketChannel channel;
+        private final int id;
+        private final long acceptedAt = System.nanoTime();
+        /**
+         * Starts with the length of the protocol name, which {@link DataInputStream#readUTF} expects first.
+         */
+        private ByteBuffer buf = ByteBuffer.allocate(2);
+
+        PendingConnection(SocketChannel channel, int id) {
+            this.channel = channel;
+            this.id = id;
+        }
+
+        /**
+         * Reads what is available.
+         *
+         * @return whether the header is complete
+         */
+        boolean read() throws IOException {
+            while (true) {
+                if (channel.read(buf) < 0) {
+                    throw new EOFException("Connection closed before sending a protocol header");
+                }
+                if (buf.hasRemaining()) {
+                    return false;
+                }
+                byte[] b = buf.array();
+                int length = buf.position();
+                if (length == 2 && b[0] == 'G' && b[1] == 'E') {
+                    // maybe an HTTP client, see respondHello
+                    grow(HTTP_HEAD);
+                    continue;
+                }
+                if (length == HTTP_HEAD && isHttp()) {
+                    return true;
+                }
+                int utfLength = ((b[0] & 0xff) << 8) | (b[1] & 0xff);
+                if (length < 2 + utfLength) {
+                    grow(2 + utfLength);
+                    continue;
+                }
+                return true;
+            }
+        }
+
+        private void grow(int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+
+        private boolean isHttp() {
+            return new String(buf.array(), 0, 4, StandardCharsets.US_ASCII).equals("GET ");
+        }
+
+        byte[] header() {
+            return Arrays.copyOf(buf.array(), buf.position());
+        }
+
+        void close(SelectionKey key) {
+            key.cancel();
+            pending--;
+            closeQuietly(channel);
+        }
     }
 
-    private final class ConnectionHandler extends Thread {
+    private final class ConnectionHandler implements Runnable {
         private final Socket s;
         /**
          * Unique number to identify this connection. Used in the log.
          */
         private final int id;
+        /**
+         * The protocol header, already read from the socket.
+         */
+        private final byte[] head;
+        private final long acceptedAt;
 
-        public ConnectionHandler(Socket s, ConnectionHandlerFailureCallback parentTerminator) {
+        ConnectionHandler(Socket s, int id, byte[] head, long acceptedAt) {
             this.s = s;
-            synchronized(getClass()) {
-                id = iotaGen++;
-            }
-            setName("TCP agent connection handler #"+id+" with "+s.getRemoteSocketAddress());
-            setUncaughtExceptionHandler((t, e) -> {
-                LOGGER.log(Level.SEVERE, "Uncaught exception in TcpSlaveAgentListener ConnectionHandler " + t, e);
-                try {
-                    s.close();
-                    parentTerminator.run(e);
-                } catch (IOException e1) {
-                    LOGGER.log(Level.WARNING, "Could not close socket after unexpected thread death", e1);
-                }
-            });
+            this.id = id;
+            this.head = head;
+            this.acceptedAt = acceptedAt;
         }
 
         @Override
         public void run() {
+            Thread t = Thread.currentThread();
+            String oldName = t.getName();
+            t.setName("TCP agent connection handler #"+id+" with "+s.getRemoteSocketAddress());
             try {
-                LOGGER.log(Level.FINE, "Accepted connection #{0} from {1}", new Object[] {id, s.getRemoteSocketAddress()});
-
-                DataInputStream in = new DataInputStream(s.getInputStream());
                 PrintWriter out = new PrintWriter(
                         new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)),
                         true); // DEPRECATED: newer protocol shouldn't use PrintWriter but should use DataOutputStream
 
-                // peek the first few bytes to determine what to do with this client
-                byte[] head = new byte[10];
-                in.readFully(head);
-
-                String header = new String(head, Charsets.US_ASCII);
+                String header = new String(head, 0, Math.min(head.length, HTTP_HEAD), StandardCharsets.US_ASCII);
                 if (header.startsWith("GET ")) {
                     // this looks like an HTTP client
                     respondHello(header,s);
+                    statistics.completed(acceptedAt);
                     return;
                 }
 
-                // otherwise assume this is AgentProtocol and start from the beginning
-                String s = new DataInputStream(new SequenceInputStream(new ByteArrayInputStream(head),in)).readUTF();
+                String s = new DataInputStream(new ByteArrayInputStream(head)).readUTF();
 
                 if(s.startsWith("Protocol:")) {
                     String protocol = s.substring(9);
@@ -286,6 +519,7 @@ public final class TcpSlaveAgentListener extends Thread {
                         if (Jenkins.get().getAgentProtocols().contains(protocol)) {
                             LOGGER.log(p instanceof PingAgentProtocol ? Level.FINE : Level.INFO, "Accepted {0} connection #{1} from {2}", new Object[] {protocol, id, this.s.getRemoteSocketAddress()});
                             p.handle(this.s);
+                            statistics.completed(acceptedAt);
                         } else {
                             error(out, "Disabled protocol:" + s);
                         }
@@ -296,22 +530,24 @@ public final class TcpSlaveAgentListener extends Thread {
                 }
             } catch (InterruptedException e) {
                 LOGGER.log(Level.WARNING,"Connection #"+id+" aborted",e);
-                try {
-                    s.close();
-                } catch (IOException ex) {
-                    // try to clean up the socket
-                }
+                closeQuietly(s);
             } catch (IOException e) {
                 if (e instanceof EOFException) {
                     LOGGER.log(Level.INFO, "Connection #{0} failed: {1}", new Object[] {id, e});
                 } else {
                     LOGGER.log(Level.WARNING, "Connection #" + id + " failed", e);
                 }
-                try {
-                    s.close();
-                } catch (IOException ex) {
-                    // try to clean up the socket
-                }
+                closeQuietly(s);
+            } catch (RuntimeException | Error e) {
+                LOGGER.log(Level.SEVERE, "Uncaught exception in TcpSlaveAgentListener ConnectionHandler " + t + ", restarting listener", e);
+                closeQuietly(s);
+                shutdown();
+                TcpSlaveAgentListenerRescheduler.schedule(TcpSlaveAgentListener.this, e);
+            } finally {
+                t.setName(oldName);
+                inFlight.decrementAndGet();
+                // may be holding off new connections
+                selector.wakeup();
             }
         }
 
@@ -353,25 +589,89 @@ public final class TcpSlaveAgentListener extends Thread {
         }
 
         private void error(PrintWriter out, String msg) throws IOException {
+            statistics.rejected.incrementAndGet();
             out.println(msg);
             LOGGER.log(Level.WARNING, "Connection #{0} is aborted: {1}", new Object[]{id, msg});
             s.close();
         }
     }
 
-    // This is essentially just to be able to pass the parent thread into the callback, as it can't access it otherwise
-    private abstract class ConnectionHandlerFailureCallback {
-        private Thread parentThread;
+    /**
+     * Counts of the connections received, and how long it took to get them going.
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public static final class HandshakeStatistics {
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        /**
+         * Ring buffer of the latest handshake times, in milliseconds.
+         */
+        private final long[] latencies = new long[256];
+        private int count;
+        private int next;
+
+        void completed(long acceptedAt) {
+            completed.incrementAndGet();
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acceptedAt);
+            synchronized (this) {
+                latencies[next] = latency;
+                next = (next + 1) % latencies.length;
+                count = Math.min(count + 1, latencies.length);
+            }
+        }
+
+        /**
+         * Connections accepted.
+         */
+        public long getAccepted() {
+            return accepted.get();
+        }
+
+        /**
+         * Connections handed to their {@link AgentProtocol} successfully.
+         */
+        public long getCompleted() {
+            return completed.get();
+        }
 
-        public ConnectionHandlerFailureCallback(Thread parentThread) {
-            this.parentThread = parentThread;
+        /**
+         * Connections dropped for not sending a protocol header in time.
+         */
+        public long getTimedOut() {
+            return timedOut.get();
         }
 
-        public Thread getParentThread() {
-            return parentThread;
+        /**
+         * Connections refused for asking for an unknown or disabled protocol.
+         */
+        public long getRejected() {
+            return rejected.get();
         }
 
-        public abstract void run(Throwable cause);
+        /**
+         * Time from accepting a connection until its {@link AgentProtocol} returned, in milliseconds,
+         * over the latest completed connections.
+         *
+         * @param percentile
+         *      between 0 (exclusive) and 1 (inclusive).
+         */
+        public synchronized long getLatency(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return "accepted=" + getAccepted() + " completed=" + getCompleted() + " timedOut=" + getTimedOut() + " rejected=" + getRejected()
+                    + " p50=" + getLatency(0.5) + "ms p99=" + getLatency(0.99) + "ms";
+        }
     }
 
     /**
@@ -537,6 +837,28 @@ public final class TcpSlaveAgentListener extends Thread {
 
     private static int iotaGen=1;
 
+    /**
+     * Number of bytes read to recognize an HTTP client.
+     */
+    private static final int HTTP_HEAD = 10;
+
+    /**
+     * Number of threads running {@link AgentProtocol#handle}.
+     */
+    private static /* not final */ int HANDSHAKE_THREADS = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".handshakeThreads",
+            Math.max(8, 4 * Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Number of connections that may be in progress, either receiving their protocol header or waiting for
+     * or running their {@link AgentProtocol#handle}, before new connections are held off.
+     */
+    private static /* not final */ int MAX_HANDSHAKES = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".maxHandshakes", 500);
+
+    /**
+     * Time for a client to send its protocol header, in milliseconds.
+     */
+    private static /* not final */ long HANDSHAKE_TIMEOUT_MILLIS = SystemProperties.getLong(TcpSlaveAgentListener.class.getName() + ".handshakeTimeoutMillis", TimeUnit.SECONDS.toMillis(30));
+
     private static final Logger LOGGER = Logger.getLogger(TcpSlaveAgentListener.class.getName());
 
     /**
@@ -1860,6 +1860,11 @@ public abstract class AbstractProject<P extends AbstractProject<P,R>,R extends A
         FilePath ws = b!=null ? b.getWorkspace() : null;
         if (ws!=null && getScm().processWorkspaceBeforeDeletion(this, ws, b.getBuiltOn())) {
             ws.deleteRecursive();
+            Node node = b.getBuiltOn();
+            if (node != null) {
+                // otherwise the next build would start from the template again
+                WorkspaceTemplates.delete(this, node);
+            }
             for (WorkspaceListener wl : WorkspaceListener.all()) {
                 wl.afterDelete(this);
             }
@@ -0,0 +1,167 @@
+package hudson.model;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.annotation.CheckForNull;
+import javax.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves local files with support for HTTP {@code Range} requests (RFC 7233), so that clients can resume
+ * interrupted downloads, and conditional requests. The contents are sent with {@link FileChannel#transferTo}.
+ *
+ * <p>
+ * Only a single range is honored. Requests for several ranges get the whole file, which the specification allows.
+ * The only validator is the timestamp, so an {@code If-Range} with an entity tag also gets the whole file.
+ */
+final class ByteRanges {
+
+    private ByteRanges() {}
+
+    /**
+     * Serves the file, or the requested range of it.
+     *
+     * @param contentType
+     *      Content type of the response.
+     */
+    static void serve(StaplerRequest req, StaplerResponse rsp, File f, String contentType) throws IOException {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            serve(req, rsp, channel, f.lastModified(), channel.size(), contentType);
+        }
+    }
+
+    /**
+     * Serves the file open in the given channel, or the requested range of it.
+     *
+     * @param lastModified
+     *      Timestamp of the file, for conditional requests.
+     * @param length
+     *      Size of the file.
+     * @param contentType
+     *      Content type of the response.
+     */
+    static void serve(StaplerRequest req, StaplerResponse rsp, FileChannel channel, long lastModified, long length, String contentType) throws IOException {
+        if (req.checkIfModified(lastModified, rsp)) {
+            return;
+        }
+        rsp.setHeader("Accept-Ranges", "bytes");
+        rsp.setContentType(contentType);
+
+        long[] range = isRangeApplicable(req, lastModified) ? parse(req.getHeader("Range"), length) : null;
+        if (range == UNSATISFIABLE) {
+            rsp.setHeader("Content-Range", "bytes */" + length);
+            rsp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        long start = 0;
+        long count = length;
+        if (range != null) {
+            start = range[0];
+            count = range[1] - range[0] + 1;
+            rsp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            rsp.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+        }
+        rsp.setHeader("Content-Length", Long.toString(count));
+        if ("HEAD".equals(req.getMethod())) {
+            return;
+        }
+        OutputStream out = rsp.getOutputStream();
+        transfer(channel, start, count, Channels.newChannel(out));
+        out.flush();
+    }
+
+    /**
+     * Copies part of the file with {@link FileChannel#transferTo}, which lets the JDK skip the intermediate
+     * copies through a heap buffer where the target allows it.
+     */
+    static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long n = channel.transferTo(position, count, target);
+            if (n <= 0) {
+                throw new EOFException("File was truncated while being served, at " + position);
+            }
+            position += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * A range may only be served if the client's copy is still current, as far as {@code If-Range} tells.
+     */
+    private static boolean isRangeApplicable(StaplerRequest req, long lastModified) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        long date;
+        try {
+            date = req.getDateHeader("If-Range");
+        } catch (IllegalArgumentException e) {
+            return false; // an entity tag, which we do not generate
+        }
+        // HTTP dates have a one second resolution
+        return lastModified / 1000 == date / 1000;
+    }
+
+    /**
+     * Returned by {@link #parse} when the requested range lies beyond the end of the file.
+     */
+    static final long[] UNSATISFIABLE = new long[0];
+
+    /**
+     * Parses a {@code Range} header.
+     *
+     * @return
+     *      the first and last (inclusive) offsets of the requested range, {@link #UNSATISFIABLE},
+     *      or null if the whole file should be served.
+     */
+    static @CheckForNull long[] parse(@CheckForNull String header, long length) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        if (spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return null; // syntactically invalid, ignore it
+                }
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length || length == 0) {
+                return UNSATISFIABLE;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
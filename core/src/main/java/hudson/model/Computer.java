@@ -55,17 +55,15 @@ import hudson.slaves.RetentionStrategy;
 import hudson.slaves.WorkspaceList;
 import hudson.slaves.OfflineCause;
 import hudson.slaves.OfflineCause.ByCLI;
-import hudson.util.DaemonThreadFactory;
 import hudson.util.EditDistance;
-import hudson.util.ExceptionCatchingThreadFactory;
 import hudson.util.RemotingDiagnostics;
 import hudson.util.RemotingDiagnostics.HeapDump;
 import hudson.util.RunList;
 import hudson.util.Futures;
 import hudson.util.IOUtils;
-import hudson.util.NamingThreadFactory;
 import jenkins.model.Jenkins;
 import jenkins.util.ContextResettingExecutorService;
+import jenkins.util.InstrumentedThreadPoolExecutor;
 import jenkins.util.SystemProperties;
 import jenkins.security.MasterToSlaveCallable;
 import jenkins.security.ImpersonatingExecutorService;
@@ -104,7 +102,6 @@ import java.io.StringWriter;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.LogRecord;
@@ -900,6 +897,8 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
             // if the number is increased, add new ones
             addNewExecutorIfNecessary();
         }
+
+        LoadStatistics.executorsChanged(this);
     }
 
     private void addNewExecutorIfNecessary() {
@@ -1090,6 +1089,7 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
                     executors.remove(e);
                     oneOffExecutors.remove(e);
                     addNewExecutorIfNecessary();
+                    LoadStatistics.executorsChanged(Computer.this);
                     if (!isAlive()) {
                         AbstractCIBase ciBase = Jenkins.getInstanceOrNull();
                         if (ciBase != null) { // TODO confirm safe to assume non-null and use getInstance()
@@ -1101,7 +1101,7 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
         };
         if (!Queue.tryWithLock(task)) {
             // JENKINS-28840 if we couldn't get the lock push the operation to a separate thread to avoid deadlocks
-            threadPoolForRemoting.submit(Queue.wrapWithLock(task));
+            threadPoolForListeners.submit(Queue.wrapWithLock(task));
         }
     }
 
@@ -1356,12 +1356,55 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
         private static final long serialVersionUID = 1L;
     }
 
+    private static final InstrumentedThreadPoolExecutor remotingPool = InstrumentedThreadPoolExecutor.configure(
+            "Computer.threadPoolForRemoting", Computer.class.getName() + ".threadPoolForRemoting",
+            // classic remoting channels keep a thread each for as long as they are open, so this cannot be bounded by default
+            Integer.MAX_VALUE, 0);
+
+    private static final InstrumentedThreadPoolExecutor launchingPool = InstrumentedThreadPoolExecutor.configure(
+            "Computer.threadPoolForLaunching", Computer.class.getName() + ".threadPoolForLaunching",
+            Math.max(32, 4 * Runtime.getRuntime().availableProcessors()), Integer.MAX_VALUE);
+
+    private static final InstrumentedThreadPoolExecutor listenersPool = InstrumentedThreadPoolExecutor.configure(
+            "Computer.threadPoolForListeners", Computer.class.getName() + ".threadPoolForListeners",
+            Math.max(4, Runtime.getRuntime().availableProcessors()), Integer.MAX_VALUE);
+
+    /**
+     * Runs remoting channels and their I/O, and other work related to agents which is not covered by
+     * {@link #threadPoolForLaunching} or {@link #threadPoolForListeners}.
+     */
     public static final ExecutorService threadPoolForRemoting = new ContextResettingExecutorService(
-        new ImpersonatingExecutorService(
-            Executors.newCachedThreadPool(
-                new ExceptionCatchingThreadFactory(
-                    new NamingThreadFactory(
-                        new DaemonThreadFactory(), "Computer.threadPoolForRemoting"))), ACL.SYSTEM));
+        new ImpersonatingExecutorService(remotingPool, ACL.SYSTEM));
+
+    /**
+     * Runs the connection and disconnection of agents, so that a storm of them queues up instead of
+     * taking up an unbounded number of threads.
+     * Tasks should not wait for other tasks submitted here, since these may be queued behind them.
+     *
+     * @since TODO
+     */
+    public static final ExecutorService threadPoolForLaunching = new ContextResettingExecutorService(
+        new ImpersonatingExecutorService(launchingPool, ACL.SYSTEM));
+
+    /**
+     * Runs short asynchronous callbacks, for example from {@link hudson.model.queue.QueueListener}s
+     * and {@link hudson.slaves.NodeProvisioner}.
+     *
+     * @since TODO
+     */
+    public static final ExecutorService threadPoolForListeners = new ContextResettingExecutorService(
+        new ImpersonatingExecutorService(listenersPool, ACL.SYSTEM));
+
+    /**
+     * The pools behind {@link #threadPoolForRemoting}, {@link #threadPoolForLaunching} and {@link #threadPoolForListeners},
+     * for their statistics.
+     *
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public static List<InstrumentedThreadPoolExecutor> getThreadPools() {
+        return Arrays.asList(remotingPool, launchingPool, listenersPool);
+    }
 
 //
 //
@@ -24,13 +24,16 @@
 package hudson.model;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
 import hudson.FilePath;
 import hudson.Util;
+import hudson.model.listeners.ItemListener;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.text.Collator;
 import java.util.ArrayList;
@@ -40,16 +43,20 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import javax.annotation.CheckForNull;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
 import jenkins.model.Jenkins;
@@ -90,6 +97,16 @@ public final class DirectoryBrowserSupport implements HttpResponse {
     private final boolean serveDirIndex;
     private String indexFileName = "index.html";
 
+    /**
+     * Whether zip bundles of the files of completed builds are kept in {@link ZipBundleCache}, rather than generated on every download.
+     */
+    static /* not final */ boolean CACHE_ZIPS = SystemProperties.getBoolean(DirectoryBrowserSupport.class.getName() + ".cacheZips");
+
+    /**
+     * Minimum size of local files to be served from a {@link FileChannel} when no range is requested.
+     */
+    private static /* not final */ long LOCAL_FILE_THRESHOLD = SystemProperties.getLong(DirectoryBrowserSupport.class.getName() + ".localFileThreshold", 1024L * 1024);
+
     @Restricted(NoExternalUse.class)
     public static final String CSP_PROPERTY_NAME = DirectoryBrowserSupport.class.getName() + ".CSP";
 
@@ -251,6 +268,16 @@ public final class DirectoryBrowserSupport implements HttpResponse {
 
         if(baseFile.isDirectory()) {
             if(zip) {
+                String cacheKey = zipCacheKey(root, baseFile, rest);
+                if (cacheKey != null) {
+                    VirtualFile dir = baseFile;
+                    ZipBundleCache.get().serve((Run<?, ?>) owner, cacheKey, req, rsp, out -> {
+                        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+                            writeZip(zos, root, dir, "");
+                        }
+                    });
+                    return;
+                }
                 rsp.setContentType("application/zip");
                 zip(rsp, root, baseFile, rest);
                 return;
@@ -287,11 +314,12 @@ public final class DirectoryBrowserSupport implements HttpResponse {
             } else
             if(serveDirIndex) {
                 // serve directory index
-                glob = baseFile.run(new BuildChildPaths(baseFile, req.getLocale()));
+                // readability and symlink escapes are checked along with the listing, where the files are
+                glob = baseFile.run(new BuildChildPaths(baseFile, req.getLocale(), ALLOW_SYMLINK_ESCAPE));
             }
 
             if(glob!=null) {
-                List<List<Path>> filteredGlob = keepReadabilityOnlyOnDescendants(baseFile, patternUsed, glob);
+                List<List<Path>> filteredGlob = patternUsed ? keepReadabilityOnlyOnDescendants(baseFile, true, glob) : glob;
                 
                 // serve glob
                 req.setAttribute("it", this);
@@ -346,13 +374,14 @@ public final class DirectoryBrowserSupport implements HttpResponse {
         if(LOGGER.isLoggable(Level.FINE))
             LOGGER.fine("Serving "+baseFile+" with lastModified=" + lastModified + ", length=" + length);
 
-        InputStream in = baseFile.open();
         if (view) {
             // for binary files, provide the file name for download
             rsp.setHeader("Content-Disposition", "inline; filename=" + baseFile.getName());
 
-            // pseudo file name to let the Stapler set text/plain
-            rsp.serveFile(req, in, lastModified, -1, length, "plain.txt");
+            if (!serveLocalFile(req, rsp, baseFile, lastModified, length, "text/plain")) {
+                // pseudo file name to let the Stapler set text/plain
+                rsp.serveFile(req, baseFile.open(), lastModified, -1, length, "plain.txt");
+            }
         } else {
             if (resourceToken != null) {
                 // redirect to second domain
@@ -368,11 +397,37 @@ public final class DirectoryBrowserSupport implements HttpResponse {
                         }
                     }
                 }
-                rsp.serveFile(req, in, lastModified, -1, length, baseFile.getName());
+                String contentType = req.getServletContext().getMimeType(baseFile.getName());
+                if (!serveLocalFile(req, rsp, baseFile, lastModified, length, contentType != null ? contentType : "application/octet-stream")) {
+                    rsp.serveFile(req, baseFile.open(), lastModified, -1, length, baseFile.getName());
+                }
             }
         }
     }
 
+    /**
+     * Serves a file of the controller's file system straight from a {@link FileChannel}, honoring byte ranges.
+     * Small files without a {@code Range} header are left to Stapler, which may compress text on the fly.
+     *
+     * @return
+     *      false if the file should be streamed with {@link StaplerResponse#serveFile} instead, e.g. because it is on an agent.
+     */
+    private static boolean serveLocalFile(StaplerRequest req, StaplerResponse rsp, VirtualFile f, long lastModified, long length, String contentType) throws IOException {
+        if (length < LOCAL_FILE_THRESHOLD && req.getHeader("Range") == null) {
+            return false;
+        }
+        FileChannel channel = f.openLocalChannel();
+        if (channel == null) {
+            return false;
+        }
+        try {
+            ByteRanges.serve(req, rsp, channel, lastModified, length, contentType);
+        } finally {
+            channel.close();
+        }
+        return true;
+    }
+
     private List<List<Path>> keepReadabilityOnlyOnDescendants(VirtualFile root, boolean patternUsed, List<List<Path>> pathFragmentsList){
         Stream<List<Path>> pathFragmentsStream = pathFragmentsList.stream().map((List<Path> pathFragments) -> {
             List<Path> mappedFragments = new ArrayList<>(pathFragments.size());
@@ -459,22 +514,82 @@ public final class DirectoryBrowserSupport implements HttpResponse {
     private static void zip(StaplerResponse rsp, VirtualFile root, VirtualFile dir, String glob) throws IOException, InterruptedException {
         OutputStream outputStream = rsp.getOutputStream();
         try (ZipOutputStream zos = new ZipOutputStream(outputStream)) {
-            zos.setEncoding(System.getProperty("file.encoding")); // TODO JENKINS-20663 make this overridable via query parameter
-            // TODO consider using run(Callable) here
+            writeZip(zos, root, dir, glob);
+        }
+    }
 
-            if (glob.isEmpty()) {
-                if (!root.supportsQuickRecursiveListing()) {
-                    // avoid slow listing when the Glob can do a quicker job
-                    glob = "**";
-                }
+    private static void writeZip(ZipOutputStream zos, VirtualFile root, VirtualFile dir, String glob) throws IOException {
+        zos.setEncoding(System.getProperty("file.encoding")); // TODO JENKINS-20663 make this overridable via query parameter
+        // TODO consider using run(Callable) here
+
+        if (glob.isEmpty()) {
+            if (!root.supportsQuickRecursiveListing()) {
+                // avoid slow listing when the Glob can do a quicker job
+                glob = "**";
             }
-            
-            if (glob.isEmpty()) {
-                Map<String, VirtualFile> nameToVirtualFiles = collectRecursivelyAllLegalChildren(dir);
-                sendZipUsingMap(zos, dir, nameToVirtualFiles);
-            } else {
-                Collection<String> listOfFile = dir.list(glob, null, /* TODO what is the user expectation? */true);
-                sendZipUsingListOfNames(zos, dir, listOfFile);
+        }
+
+        if (glob.isEmpty()) {
+            Map<String, VirtualFile> nameToVirtualFiles = collectRecursivelyAllLegalChildren(dir);
+            sendZipUsingMap(zos, dir, nameToVirtualFiles);
+        } else {
+            Collection<String> listOfFile = dir.list(glob, null, /* TODO what is the user expectation? */true);
+            sendZipUsingListOfNames(zos, dir, listOfFile);
+        }
+    }
+
+    /**
+     * Identifies the cached zip bundle of a whole directory of a completed build.
+     * Unlike a bundle streamed as it is generated, a cached one has a known length and can be downloaded in parts.
+     * Bundles of the files matching a pattern are not cached, as there are too many possible ones.
+     *
+     * @return
+     *      null if this bundle is not cached.
+     */
+    private @CheckForNull String zipCacheKey(VirtualFile root, VirtualFile dir, String glob) throws IOException {
+        if (!CACHE_ZIPS || !glob.isEmpty() || !(owner instanceof Run)) {
+            return null;
+        }
+        Run<?, ?> run = (Run<?, ?>) owner;
+        if (run.isBuilding()) {
+            // files may still be added
+            return null;
+        }
+        return root.toURI() + "\n" + dir.toURI() + "\n" + System.getProperty("file.encoding");
+    }
+
+    /**
+     * Deletes the cached zip bundles of the given build.
+     */
+    static void purgeZipCache(Run<?, ?> run) throws IOException {
+        ZipBundleCache.get().purge(run);
+    }
+
+    /**
+     * Deletes the cached zip bundles of jobs which are deleted or renamed, since their builds go away without
+     * {@link Run#deleteArtifacts} being called.
+     */
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class ZipCachePurger extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            purge(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            purge(oldFullName);
+        }
+
+        private static void purge(String fullName) {
+            if (!CACHE_ZIPS) {
+                return;
+            }
+            try {
+                ZipBundleCache.get().purge(fullName);
+            } catch (IOException x) {
+                LOGGER.log(Level.WARNING, "Failed to delete the cached zip bundles of " + fullName, x);
             }
         }
     }
@@ -506,15 +621,41 @@ public final class DirectoryBrowserSupport implements HttpResponse {
         ZipEntry e = new ZipEntry(relativePath.replace('\\', '/'));
 
         e.setTime(vf.lastModified());
+        boolean compressed = isCompressed(relativePath);
+        if (compressed) {
+            // deflating these again costs CPU time and saves nothing
+            if (zos.isSeekable()) {
+                e.setMethod(ZipEntry.STORED);
+            } else {
+                // STORED needs the size and CRC up front, which we do not know without reading the file twice
+                zos.setLevel(Deflater.NO_COMPRESSION);
+            }
+        }
         zos.putNextEntry(e);
         try (InputStream in = vf.open()) {
             IOUtils.copy(in, zos);
         }
         finally {
             zos.closeEntry();
+            if (compressed) {
+                zos.setLevel(Deflater.DEFAULT_COMPRESSION);
+            }
         }
     }
 
+    /**
+     * Whether the file name suggests contents that are already compressed.
+     */
+    static boolean isCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "zip", "jar", "war", "ear", "hpi", "jpi", "apk", "aar", "nupkg", "whl", "egg",
+            "gz", "tgz", "bz2", "tbz2", "xz", "txz", "lz", "lzma", "zst", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "mkv", "webm", "pdf", "docx", "xlsx", "pptx"));
+
     private static Map<String, VirtualFile> collectRecursivelyAllLegalChildren(VirtualFile dir) throws IOException {
         Map<String, VirtualFile> nameToFiles = new LinkedHashMap<>();
         collectRecursivelyAllLegalChildren(dir, "", nameToFiles);
@@ -650,14 +791,14 @@ public final class DirectoryBrowserSupport implements HttpResponse {
 
 
 
-    private static final class FileComparator implements Comparator<VirtualFile> {
+    private static final class FileComparator implements Comparator<VirtualFile.FileAttributes> {
         private Collator collator;
 
         FileComparator(Locale locale) {
             this.collator = Collator.getInstance(locale);
         }
 
-        public int compare(VirtualFile lhs, VirtualFile rhs) {
+        public int compare(VirtualFile.FileAttributes lhs, VirtualFile.FileAttributes rhs) {
             // directories first, files next
             int r = dirRank(lhs)-dirRank(rhs);
             if(r!=0) return r;
@@ -665,51 +806,56 @@ public final class DirectoryBrowserSupport implements HttpResponse {
             return this.collator.compare(lhs.getName(), rhs.getName());
         }
 
-        private int dirRank(VirtualFile f) {
-            try {
+        private int dirRank(VirtualFile.FileAttributes f) {
             if(f.isDirectory())     return 0;
             else                    return 1;
-            } catch (IOException ex) {
-                return 0;
-            }
         }
     }
 
     private static final class BuildChildPaths extends MasterToSlaveCallable<List<List<Path>>,IOException> {
         private final VirtualFile cur;
         private final Locale locale;
-        BuildChildPaths(VirtualFile cur, Locale locale) {
+        private final boolean allowSymlinkEscape;
+        BuildChildPaths(VirtualFile cur, Locale locale, boolean allowSymlinkEscape) {
             this.cur = cur;
             this.locale = locale;
+            this.allowSymlinkEscape = allowSymlinkEscape;
         }
         @Override public List<List<Path>> call() throws IOException {
-            return buildChildPaths(cur, locale);
+            return buildChildPaths(cur, locale, allowSymlinkEscape);
         }
     }
     /**
      * Builds a list of list of {@link Path}. The inner
      * list of {@link Path} represents one child item to be shown
      * (this mechanism is used to skip empty intermediate directory.)
+     * Items that are not readable, or that escape {@code cur} through a symlink, are shown as not readable
+     * and their intermediate directories are not followed.
      */
-    private static List<List<Path>> buildChildPaths(VirtualFile cur, Locale locale) throws IOException {
+    private static List<List<Path>> buildChildPaths(VirtualFile cur, Locale locale, boolean allowSymlinkEscape) throws IOException {
             List<List<Path>> r = new ArrayList<>();
 
-            VirtualFile[] files = cur.list();
-                Arrays.sort(files,new FileComparator(locale));
+            List<VirtualFile.FileAttributes> files = cur.listWithAttributes();
+                files.sort(new FileComparator(locale));
     
-                for( VirtualFile f : files ) {
-                    Path p = new Path(Util.rawEncode(f.getName()), f.getName(), f.isDirectory(), f.length(), f.canRead(), f.lastModified());
-                    if(!f.isDirectory()) {
+                for( VirtualFile.FileAttributes f : files ) {
+                    Path p = new Path(Util.rawEncode(f.getName()), f.getName(), f.isDirectory(), f.getLength(), f.isReadable(), f.getLastModified());
+                    if (f.isReadable() && !allowSymlinkEscape && !f.isDescendant()) {
+                        p = Path.createNotReadableVersionOf(p);
+                    }
+                    if(!f.isDirectory() || !p.isReadable()) {
                         r.add(Collections.singletonList(p));
                     } else {
                         // find all empty intermediate directory
                         List<Path> l = new ArrayList<>();
                         l.add(p);
                         String relPath = Util.rawEncode(f.getName());
+                        String titlePath = f.getName();
+                        VirtualFile dir = cur.child(f.getName());
                         while(true) {
                             // files that don't start with '.' qualify for 'meaningful files', nor SCM related files
-                            List<VirtualFile> sub = new ArrayList<>();
-                            for (VirtualFile vf : f.list()) {
+                            List<VirtualFile.FileAttributes> sub = new ArrayList<>();
+                            for (VirtualFile.FileAttributes vf : dir.listWithAttributes()) {
                                 String name = vf.getName();
                                 if (!name.startsWith(".") && !name.equals("CVS") && !name.equals(".svn")) {
                                     sub.add(vf);
@@ -718,8 +864,19 @@ public final class DirectoryBrowserSupport implements HttpResponse {
                             if (sub.size() !=1 || !sub.get(0).isDirectory())
                                 break;
                             f = sub.get(0);
+                            dir = dir.child(f.getName());
                             relPath += '/'+Util.rawEncode(f.getName());
-                            l.add(new Path(relPath,f.getName(),true, f.length(), f.canRead(), f.lastModified()));
+                            titlePath += '/'+f.getName();
+                            Path q = new Path(relPath,f.getName(),true, f.getLength(), f.isReadable(), f.getLastModified());
+                            if (!f.isReadable()) {
+                                l.add(q);
+                                break;
+                            }
+                            if (!allowSymlinkEscape && cur.supportIsDescendant() && !cur.isDescendant(titlePath)) {
+                                l.add(Path.createNotReadableVersionOf(q));
+                                break;
+                            }
+                            l.add(q);
                         }
                         r.add(l);
                     }
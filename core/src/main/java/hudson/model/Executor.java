@@ -824,6 +824,7 @@ public class Executor extends Thread implements ModelObject {
         } finally {
             lock.writeLock().unlock();
         }
+        LoadStatistics.executorsChanged(owner);
     }
 
 
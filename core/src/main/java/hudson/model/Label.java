@@ -127,6 +127,12 @@ public abstract class Label extends Actionable implements Comparable<Label>, Mod
                 final Label l = item.getAssignedLabelFor(subTask);
                 return l != null && Label.this.matches(l.name);
             }
+
+            @Override
+            boolean isTrackingNodeChanges() {
+                // nodes report state changes to the atoms they are assigned, but not to label expressions
+                return Label.this instanceof LabelAtom;
+            }
         };
         this.nodeProvisioner = new NodeProvisioner(this, loadStatistics);
     }
@@ -464,6 +470,7 @@ public abstract class Label extends Actionable implements Comparable<Label>, Mod
         nodes = null;
         clouds = null;
         tiedJobsCount = -1;
+        loadStatistics.nodesChanged();
     }
 
     /**
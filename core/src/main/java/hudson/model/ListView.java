@@ -41,6 +41,8 @@ import hudson.views.ViewJobFilter;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -53,6 +55,7 @@ import jenkins.model.Jenkins;
 import jenkins.model.ParameterizedJobMixIn;
 
 import net.sf.json.JSONObject;
+import org.acegisecurity.AccessDeniedException;
 import org.jenkinsci.Symbol;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -98,6 +101,18 @@ public class ListView extends View implements DirectlyModifiableView {
      */
     private transient Pattern includePattern;
 
+    /**
+     * Names of the items matching {@link #includePattern}, relative to the owner, computed when first needed
+     * and then kept up to date by {@link Listener} as items are created, copied, moved and deleted.
+     */
+    private transient volatile Set<String> includedNames;
+
+    /**
+     * Incremented on every change of {@link #includedNames}, so that a computation racing with a change is discarded.
+     */
+    @GuardedBy("this")
+    private transient int includedNamesChanges;
+
     /**
      * Filter by enabled/disabled status of jobs.
      * Null for no filter, true for enabled-only, false for disabled-only.
@@ -207,35 +222,43 @@ public class ListView extends View implements DirectlyModifiableView {
         List<TopLevelItem> items = new ArrayList<>();
 
         synchronized (this) {
-            names = new TreeSet<>(jobNames);
+            names = new TreeSet<>(CaseInsensitiveComparator.INSTANCE);
+            names.addAll(jobNames);
         }
+        names.addAll(getIncludedNames());
 
         ItemGroup<? extends TopLevelItem> parent = getOwner().getItemGroup();
-        List<TopLevelItem> parentItems = new ArrayList<>(parent.getItems());
-        includeItems(parent, parentItems, names);
+        Jenkins j = Jenkins.get();
 
         Boolean statusFilter = this.statusFilter; // capture the value to isolate us from concurrent update
-        Iterable<? extends TopLevelItem> candidates;
-        if (recurse) {
-            candidates = parent.getAllItems(TopLevelItem.class);
-        } else {
-            candidates = parent.getItems();
-        }
-        for (TopLevelItem item : candidates) {
-            if (!names.contains(item.getRelativeNameFrom(getOwner().getItemGroup()))) continue;
+        // only look up the names we know about, rather than going through every item of the owner
+        for (String name : names) {
+            if (!recurse && name.indexOf('/') >= 0) continue;
+            TopLevelItem item;
+            try {
+                item = j.getItem(name, parent, TopLevelItem.class);
+            } catch (AccessDeniedException e) {
+                continue; // discoverable but not readable, which getAllItems() would have left out as well
+            }
+            // the path lookup falls back to full names, so make sure this is really one of ours
+            if (item == null || !name.equalsIgnoreCase(item.getRelativeNameFrom(parent))) continue;
             // Add if no status filter or filter matches enabled/disabled status:
             if(statusFilter == null || !(item instanceof ParameterizedJobMixIn.ParameterizedJob) // TODO or better to call the more generic Job.isBuildable?
                               || ((ParameterizedJobMixIn.ParameterizedJob)item).isDisabled() ^ statusFilter)
                 items.add(item);
         }
+        // same order as the items of the owner, depth first when recursing
+        items.sort(Items.BY_FULL_NAME);
 
         // check the filters
-        Iterable<ViewJobFilter> jobFilters = getJobFilters();
-        List<TopLevelItem> allItems = new ArrayList<>(parentItems);
-        if (recurse) allItems = expand(allItems, new ArrayList<>());
-    	for (ViewJobFilter jobFilter: jobFilters) {
-    		items = jobFilter.filter(items, allItems, this);
-    	}
+        List<ViewJobFilter> jobFilters = getJobFilters();
+        if (!jobFilters.isEmpty()) {
+            List<TopLevelItem> allItems = new ArrayList<>(parent.getItems());
+            if (recurse) allItems = expand(allItems, new ArrayList<>());
+            for (ViewJobFilter jobFilter: jobFilters) {
+                items = jobFilter.filter(items, allItems, this);
+            }
+        }
         // for sanity, trim off duplicates
         items = new ArrayList<>(new LinkedHashSet<>(items));
         
@@ -267,7 +290,94 @@ public class ListView extends View implements DirectlyModifiableView {
       return getItems().contains(item);
     }
     
-    private void includeItems(ItemGroup<? extends TopLevelItem> root, Collection<? extends Item> parentItems, SortedSet<String> names) {
+    /**
+     * Names of the items matching {@link #includeRegex}, whether the current user can see them or not.
+     */
+    private Set<String> getIncludedNames() {
+        if (includePattern == null) {
+            return Collections.emptySet();
+        }
+        Set<String> names = includedNames;
+        if (names != null) {
+            return names;
+        }
+        int changes;
+        synchronized (this) {
+            changes = includedNamesChanges;
+        }
+        names = new ConcurrentSkipListSet<>(CaseInsensitiveComparator.INSTANCE);
+        try (ACLContext acl = ACL.as(ACL.SYSTEM)) {
+            ItemGroup<? extends TopLevelItem> root = getOwner().getItemGroup();
+            includeItems(root, root.getItems(), names);
+        }
+        synchronized (this) {
+            if (changes == includedNamesChanges) {
+                includedNames = names;
+            }
+        }
+        return names;
+    }
+
+    private synchronized void invalidateIncludedNames() {
+        includedNamesChanges++;
+        includedNames = null;
+    }
+
+    /**
+     * Updates {@link #includedNames} for an item which was just created or copied.
+     */
+    private synchronized void itemCreated(Item item) {
+        includedNamesChanges++;
+        Set<String> names = includedNames;
+        Pattern includePattern = this.includePattern;
+        if (names == null || includePattern == null) {
+            return;
+        }
+        if (item instanceof ItemGroup && !((ItemGroup<?>) item).getItems().isEmpty()) {
+            // its items were not announced one by one
+            includedNames = null;
+            return;
+        }
+        if (item instanceof TopLevelItem && isInScope(item)) {
+            String itemName = item.getRelativeNameFrom(getOwner().getItemGroup());
+            if (includePattern.matcher(itemName).matches()) {
+                names.add(itemName);
+            }
+        }
+    }
+
+    /**
+     * Updates {@link #includedNames} for an item which was just deleted.
+     */
+    private synchronized void itemDeleted(Item item) {
+        includedNamesChanges++;
+        Set<String> names = includedNames;
+        if (names == null) {
+            return;
+        }
+        if (item instanceof ItemGroup) {
+            includedNames = null;
+        } else {
+            names.remove(item.getRelativeNameFrom(getOwner().getItemGroup()));
+        }
+    }
+
+    /**
+     * Whether {@link #includeItems} would look at an item.
+     */
+    private boolean isInScope(Item item) {
+        ItemGroup<? extends TopLevelItem> root = getOwner().getItemGroup();
+        ItemGroup<?> g = item.getParent();
+        while (g != root) {
+            if (!recurse || !(g instanceof Item)) {
+                return false;
+            }
+            g = ((Item) g).getParent();
+        }
+        return true;
+    }
+
+    private void includeItems(ItemGroup<? extends TopLevelItem> root, Collection<? extends Item> parentItems, Set<String> names) {
         if (includePattern != null) {
             for (Item item : parentItems) {
                 if (recurse && item instanceof ItemGroup) {
@@ -331,6 +441,7 @@ public class ListView extends View implements DirectlyModifiableView {
     @DataBoundSetter
     public void setRecurse(boolean recurse) {
         this.recurse = recurse;
+        invalidateIncludedNames();
     }
 
     /**
@@ -442,6 +553,7 @@ public class ListView extends View implements DirectlyModifiableView {
         JSONObject json = req.getSubmittedForm();
         synchronized (this) {
             recurse = json.optBoolean("recurse", true);
+            invalidateIncludedNames();
             jobNames.clear();
             Iterable<? extends TopLevelItem> items;
             if (recurse) {
@@ -481,6 +593,7 @@ public class ListView extends View implements DirectlyModifiableView {
             this.includePattern = null;
         else
             this.includePattern = Pattern.compile(includeRegex);
+        invalidateIncludedNames();
     }
 
     @DataBoundSetter
@@ -528,6 +641,38 @@ public class ListView extends View implements DirectlyModifiableView {
     @Restricted(NoExternalUse.class)
     @Extension
     public static final class Listener extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            try (ACLContext acl = ACL.as(ACL.SYSTEM)) {
+                forEachListView(Jenkins.get(), lv -> lv.itemCreated(item));
+            }
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            onCreated(item);
+        }
+
+        private void forEachListView(Jenkins jenkins, Consumer<ListView> action) {
+            forEachListView((ViewGroup) jenkins, action);
+            for (Item g : jenkins.allItems()) {
+                if (g instanceof ViewGroup) {
+                    forEachListView((ViewGroup) g, action);
+                }
+            }
+        }
+
+        private void forEachListView(ViewGroup vg, Consumer<ListView> action) {
+            for (View v : vg.getViews()) {
+                if (v instanceof ListView) {
+                    action.accept((ListView) v);
+                }
+                if (v instanceof ViewGroup) {
+                    forEachListView((ViewGroup) v, action);
+                }
+            }
+        }
+
         @Override
         public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
             try (ACLContext acl = ACL.as(ACL.SYSTEM)) {
@@ -555,6 +700,7 @@ public class ListView extends View implements DirectlyModifiableView {
         }
 
         private void renameViewItem(String oldFullName, String newFullName, ViewGroup vg, ListView lv) {
+            lv.invalidateIncludedNames();
             boolean needsSave;
             synchronized (lv) {
                 Set<String> oldJobNames = new HashSet<>(lv.jobNames);
@@ -600,6 +746,7 @@ public class ListView extends View implements DirectlyModifiableView {
         }
 
         private void deleteViewItem(Item item, ViewGroup vg, ListView lv) {
+            lv.itemDeleted(item);
             boolean needsSave;
             synchronized (lv) {
                 needsSave = lv.jobNames.remove(item.getRelativeNameFrom(vg.getItemGroup()));
@@ -28,6 +28,8 @@ import jenkins.util.SystemProperties;
 import hudson.model.MultiStageTimeSeries.TimeScale;
 import hudson.model.MultiStageTimeSeries.TrendChart;
 import hudson.model.queue.SubTask;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.OfflineCause;
 import hudson.util.ColorPalette;
 import hudson.util.NoOverlapCategoryAxis;
 import jenkins.model.Jenkins;
@@ -42,6 +44,8 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.renderer.category.LineAndShapeRenderer;
 import org.jfree.data.category.CategoryDataset;
 import org.jfree.ui.RectangleInsets;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.export.ExportedBean;
 import org.kohsuke.stapler.export.Exported;
@@ -52,8 +56,10 @@ import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.List;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
 
 /**
  * Utilization statistics for a node or a set of nodes.
@@ -348,13 +354,7 @@ public abstract class LoadStatistics {
      * @since 1.607
      */
     protected LoadStatisticsSnapshot computeSnapshot(Iterable<Queue.BuildableItem> queue) {
-        final LoadStatisticsSnapshot.Builder builder = LoadStatisticsSnapshot.builder();
-        final Iterable<Node> nodes = getNodes();
-        if (nodes != null) {
-            for (Node node : nodes) {
-                builder.with(node);
-            }
-        }
+        final LoadStatisticsSnapshot executors = computeExecutorCounts();
         int q = 0;
         if (queue != null) {
             for (Queue.BuildableItem item : queue) {
@@ -365,9 +365,103 @@ public abstract class LoadStatistics {
                 }
             }
         }
-        return builder.withQueueLength(q).build();
+        return new LoadStatisticsSnapshot(
+                executors.definedExecutors, executors.onlineExecutors, executors.connectingExecutors,
+                executors.busyExecutors, executors.idleExecutors, executors.availableExecutors,
+                q);
     }
 
+    /**
+     * Counts the executors of {@link #getNodes()}, reusing the previous count if no executor, computer or
+     * node that may affect it changed state since.
+     *
+     * @return a snapshot whose queue length is not meaningful.
+     */
+    private LoadStatisticsSnapshot computeExecutorCounts() {
+        final boolean tracked = isTrackingNodeChanges();
+        final long version = tracked ? nodesVersion.get() : ALL_NODES_VERSION.get();
+        final long now = System.currentTimeMillis();
+        ExecutorCounts cached = executorCounts;
+        if (cached != null && cached.tracked == tracked && cached.version == version && now - cached.timestamp < MAX_EXECUTOR_COUNTS_AGE) {
+            return cached.counts;
+        }
+
+        final LoadStatisticsSnapshot.Builder builder = LoadStatisticsSnapshot.builder();
+        final Iterable<Node> nodes = getNodes();
+        if (nodes != null) {
+            for (Node node : nodes) {
+                builder.with(node);
+            }
+        }
+        LoadStatisticsSnapshot counts = builder.build();
+        // the version was read before counting, so a change that happened meanwhile invalidates this right away
+        executorCounts = new ExecutorCounts(tracked, version, now, counts);
+        return counts;
+    }
+
+    /**
+     * Whether the changes to the executors of {@link #getNodes()} are reported to this object specifically,
+     * through {@link #nodesChanged()}. Otherwise any change to any executor invalidates the cached counts.
+     */
+    /*package*/ boolean isTrackingNodeChanges() {
+        return false;
+    }
+
+    /**
+     * Invalidates the executor counts of this object, as one of its nodes changed state or the set of nodes changed.
+     */
+    /*package*/ void nodesChanged() {
+        nodesVersion.incrementAndGet();
+    }
+
+    /**
+     * Called when the executors of a computer may have changed state: a task was assigned or completed, the
+     * computer connected or disconnected, etc.
+     */
+    /*package*/ static void executorsChanged(@CheckForNull Computer c) {
+        ALL_NODES_VERSION.incrementAndGet();
+        Node n = c == null ? null : c.getNode();
+        if (n != null) {
+            for (Label l : n.getAssignedLabels()) {
+                l.loadStatistics.nodesChanged();
+            }
+        }
+    }
+
+    /**
+     * Bumped whenever the executors of any computer may have changed state.
+     */
+    private static final AtomicLong ALL_NODES_VERSION = new AtomicLong();
+
+    /**
+     * Bumped whenever the executors of one of {@link #getNodes()} may have changed state,
+     * or the nodes themselves changed. Only used if {@link #isTrackingNodeChanges()}.
+     */
+    private final AtomicLong nodesVersion = new AtomicLong();
+
+    private volatile ExecutorCounts executorCounts;
+
+    private static final class ExecutorCounts {
+        private final boolean tracked;
+        private final long version;
+        private final long timestamp;
+        private final LoadStatisticsSnapshot counts;
+
+        ExecutorCounts(boolean tracked, long version, long timestamp, LoadStatisticsSnapshot counts) {
+            this.tracked = tracked;
+            this.version = version;
+            this.timestamp = timestamp;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * Maximum age in milliseconds of the executor counts computed by {@link #computeSnapshot(Iterable)}.
+     * Changes that are not reported as events, like a {@link hudson.slaves.RetentionStrategy} that stops
+     * {@linkplain Computer#isAcceptingTasks() accepting tasks}, are picked up after at most this long.
+     */
+    private static /* not final */ long MAX_EXECUTOR_COUNTS_AGE = SystemProperties.getLong(LoadStatistics.class.getName() + ".maxExecutorCountsAge", TimeUnit.MINUTES.toMillis(1));
+
     /**
      * With 0.90 decay ratio for every 10sec, half reduction is about 1 min.
      * 
@@ -416,6 +510,49 @@ public abstract class LoadStatistics {
         }
     }
 
+    /**
+     * Invalidates the cached executor counts when computers change state.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class ExecutorCountsInvalidator extends ComputerListener {
+        @Override
+        public void preLaunch(Computer c, TaskListener taskListener) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onLaunchFailure(Computer c, TaskListener taskListener) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onOnline(Computer c, TaskListener listener) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onOffline(@Nonnull Computer c, @CheckForNull OfflineCause cause) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onTemporarilyOnline(Computer c) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onTemporarilyOffline(Computer c, OfflineCause cause) {
+            executorsChanged(c);
+        }
+
+        @Override
+        public void onConfigurationChange() {
+            // labels are reset separately by Jenkins.trimLabels()
+            executorsChanged(null);
+        }
+    }
+
     /**
      * Holds a snapshot of the current statistics.
      * @since 1.607
@@ -0,0 +1,219 @@
+package hudson.model;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.scm.ChangeLogSet;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.XStream2;
+import jenkins.model.Jenkins;
+import jenkins.scm.RunWithSCM;
+import jenkins.util.Timer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers, for each job, who committed to it and when last, so that {@link View.People} and
+ * {@link View.AsynchPeople} do not have to load every build and its changelog.
+ *
+ * <p>
+ * The index is updated as builds complete, and built once from the existing builds in the background
+ * when there is no saved index yet. Until then, people are still computed from the builds.
+ * Entries are not removed when builds are deleted, only when their job is.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+@Extension
+public class PeopleIndex {
+
+    private static final XStream2 XSTREAM = new XStream2();
+    static final String INDEX_FILE = "peopleIndex.xml";
+    private static final Logger LOGGER = Logger.getLogger(PeopleIndex.class.getName());
+
+    /**
+     * Full name of the job, to user ID, to timestamp of the latest build with a change by that user.
+     */
+    private Map<String, Map<String, Long>> changes = new ConcurrentHashMap<>();
+
+    private transient volatile boolean ready;
+    private transient boolean saveScheduled;
+
+    /**
+     * The index, if it is complete.
+     */
+    static @CheckForNull PeopleIndex getIfReady() {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return null;
+        }
+        ExtensionList<PeopleIndex> all = ExtensionList.lookup(PeopleIndex.class);
+        PeopleIndex index = all.isEmpty() ? null : all.get(0);
+        return index != null && index.ready ? index : null;
+    }
+
+    public PeopleIndex() {
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public void init() {
+        XmlFile config = getXmlConfigFile();
+        try {
+            config.unmarshal(this);
+            ready = true;
+            return;
+        } catch (NoSuchFileException e) {
+            LOGGER.log(Level.FINE, "People index does not exist yet");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + config + ", rebuilding it", e);
+            changes = new ConcurrentHashMap<>();
+        }
+        new NamingThreadFactory(new DaemonThreadFactory(), "People index rebuild").newThread(this::rebuild).start();
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        int count = 0;
+        try (ACLContext ctx = ACL.as(ACL.SYSTEM)) {
+            for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+                for (Run<?, ?> r : job.getBuilds()) {
+                    record(r);
+                }
+                count++;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to build the people index; people will be computed from builds", e);
+            return;
+        }
+        ready = true;
+        LOGGER.log(Level.INFO, "Built the people index from {0} jobs in {1}ms",
+                new Object[] {count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+        scheduleSave();
+    }
+
+    /**
+     * Adds the authors of the changes in a build.
+     */
+    void record(@Nonnull Run<?, ?> r) {
+        if (!(r instanceof RunWithSCM)) {
+            return;
+        }
+        Map<String, Long> users = null;
+        for (ChangeLogSet<? extends ChangeLogSet.Entry> c : ((RunWithSCM<?, ?>) r).getChangeSets()) {
+            for (ChangeLogSet.Entry entry : c) {
+                User author = entry.getAuthor();
+                if (author == null) {
+                    continue;
+                }
+                if (users == null) {
+                    users = changes.computeIfAbsent(r.getParent().getFullName(), k -> new ConcurrentHashMap<>());
+                }
+                users.merge(author.getId(), r.getTimeInMillis(), Math::max);
+            }
+        }
+        if (users != null && ready) {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Who committed to a job, and when last.
+     *
+     * @return timestamps of the latest build with a change, by user ID
+     */
+    @Nonnull Map<String, Long> getLastChanges(@Nonnull Job<?, ?> job) {
+        Map<String, Long> users = changes.get(job.getFullName());
+        return users == null ? Collections.<String, Long>emptyMap() : Collections.unmodifiableMap(users);
+    }
+
+    static @Nonnull Calendar toCalendar(long timestamp) {
+        Calendar c = new GregorianCalendar();
+        c.setTimeInMillis(timestamp);
+        return c;
+    }
+
+    void move(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        Map<String, Long> users = changes.remove(oldFullName);
+        if (users != null) {
+            changes.put(newFullName, users);
+            scheduleSave();
+        }
+    }
+
+    void remove(@Nonnull String fullName) {
+        if (changes.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + '/'))) {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Saves a little later, so that a burst of builds leads to one write.
+     */
+    private synchronized void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        Timer.get().schedule(() -> {
+            synchronized (this) {
+                saveScheduled = false;
+            }
+            try {
+                save();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error saving the people index", e);
+            }
+        }, 10, TimeUnit.SECONDS);
+    }
+
+    synchronized void save() throws IOException {
+        getXmlConfigFile().write(this);
+    }
+
+    private XmlFile getXmlConfigFile() {
+        return new XmlFile(XSTREAM, new File(Jenkins.get().getRootDir(), INDEX_FILE));
+    }
+
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> r, @Nonnull TaskListener listener) {
+            ExtensionList.lookupSingleton(PeopleIndex.class).record(r);
+        }
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (item instanceof Job) {
+                ExtensionList.lookupSingleton(PeopleIndex.class).move(oldFullName, newFullName);
+            }
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            ExtensionList.lookupSingleton(PeopleIndex.class).remove(item.getFullName());
+        }
+    }
+}
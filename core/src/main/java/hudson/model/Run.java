@@ -1576,6 +1576,7 @@ public abstract class Run <JobT extends Job<JobT,RunT>,RunT extends Run<JobT,Run
         } catch (InterruptedException x) {
             throw new IOException(x);
         }
+        DirectoryBrowserSupport.purgeZipCache(this);
     }
 
     /**
@@ -40,6 +40,7 @@ import jenkins.model.lazy.AbstractLazyLoadRunMap;
 import static jenkins.model.lazy.AbstractLazyLoadRunMap.Direction.*;
 import jenkins.model.lazy.BuildReference;
 import jenkins.model.lazy.LazyBuildMixIn;
+import javax.annotation.CheckForNull;
 import org.apache.commons.collections.comparators.ReverseComparator;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -149,6 +150,17 @@ public final class RunMap<R extends Run<?,R>> extends AbstractLazyLoadRunMap<R>
         return search(Integer.MIN_VALUE, ASC);
     }
 
+    /**
+     * Finds the newest build started before the given time.
+     * As builds with bigger numbers start later, this loads only a few builds,
+     * and {@link #descendingFrom} can then list the older ones from there.
+     *
+     * @since TODO
+     */
+    public @CheckForNull R newestBefore(long timestamp) {
+        return searchNewest(r -> r.getTimeInMillis() < timestamp);
+    }
+
     /**
      * @deprecated  as of 1.485
      *      Use {@link ReverseComparator}
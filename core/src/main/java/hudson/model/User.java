@@ -37,6 +37,8 @@ import hudson.init.InitMilestone;
 import hudson.init.Initializer;
 import hudson.model.Descriptor.FormException;
 import hudson.model.listeners.SaveableListener;
+import hudson.search.SubstringIndex;
+import hudson.search.UserSearchProperty;
 import hudson.security.ACL;
 import hudson.security.AccessControlled;
 import hudson.security.SecurityRealm;
@@ -52,6 +54,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -294,6 +297,7 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
     public void setFullName(String name) {
         if (Util.fixEmptyAndTrim(name) == null) name = id;
         this.fullName = name;
+        AllUsers.updateFullName(this);
     }
 
     @Exported
@@ -610,6 +614,17 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
         return users;
     }
 
+    /**
+     * Gets the users whose full name contains the given token, as {@link jenkins.model.Jenkins#getSearchIndex} suggests them.
+     *
+     * @param caseInsensitive as per {@link UserSearchProperty#isCaseInsensitive}
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public static @Nonnull List<User> suggest(@Nonnull String token, boolean caseInsensitive) {
+        return AllUsers.suggest(token, caseInsensitive);
+    }
+
     /**
      * To be called from {@link Jenkins#reload} only.
      */
@@ -775,6 +790,7 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
         }
         XmlFile xmlFile = new XmlFile(XSTREAM, constructUserConfigFile());
         xmlFile.write(this);
+        AllUsers.updateFullName(this);
         SaveableListener.fireOnChange(this, xmlFile);
     }
 
@@ -1036,11 +1052,27 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
 
         private final ConcurrentMap<String, User> byName = new ConcurrentHashMap<>();
 
+        /**
+         * IDs of the users in {@link #byName}, keyed by {@link User#getFullName}, so that {@link FullNameIdResolver}
+         * does not have to compare the full name of every user.
+         */
+        private final ConcurrentMap<String, Set<String>> byFullName = new ConcurrentHashMap<>();
+
+        /**
+         * The full name under which each user is in {@link #byFullName}, keyed like {@link #byName}.
+         */
+        private final Map<String, String> indexedFullNames = new HashMap<>();
+
+        /**
+         * Keys of {@link #byName} by substrings of {@link User#getFullName}, for search suggestions.
+         */
+        private final SubstringIndex<String> fullNameSubstrings = new SubstringIndex<>();
+
         @Initializer(after = InitMilestone.JOB_LOADED)
         public static void scanAll() {
             for (String userId : UserIdMapper.getInstance().getConvertedUserIds()) {
                 User user = new User(userId, userId);
-                getInstance().byName.putIfAbsent(idStrategy().keyFor(userId), user);
+                put(userId, user);
             }
         }
 
@@ -1055,17 +1087,29 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
         }
 
         private static void reload() {
-            getInstance().byName.clear();
+            clear();
             UserDetailsCache.get().invalidateAll();
             scanAll();
         }
 
         private static void clear() {
-            getInstance().byName.clear();
+            AllUsers all = getInstance();
+            synchronized (all.indexedFullNames) {
+                all.byName.clear();
+                all.byFullName.clear();
+                all.indexedFullNames.clear();
+                all.fullNameSubstrings.clear();
+            }
         }
 
         private static void remove(String id) {
-            getInstance().byName.remove(idStrategy().keyFor(id));
+            AllUsers all = getInstance();
+            String key = idStrategy().keyFor(id);
+            synchronized (all.indexedFullNames) {
+                all.byName.remove(key);
+                all.unindex(key, all.indexedFullNames.remove(key));
+                all.fullNameSubstrings.remove(key);
+            }
         }
 
         private static User get(String id) {
@@ -1073,7 +1117,76 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
         }
 
         private static void put(String id, User user) {
-            getInstance().byName.putIfAbsent(idStrategy().keyFor(id), user);
+            User existing = getInstance().byName.putIfAbsent(idStrategy().keyFor(id), user);
+            updateFullName(existing != null ? existing : user);
+        }
+
+        /**
+         * Updates the full name under which the given user can be resolved, if it is a known user.
+         */
+        private static void updateFullName(User user) {
+            AllUsers all = getInstance();
+            String key = idStrategy().keyFor(user.getId());
+            String fullName = user.getFullName();
+            synchronized (all.indexedFullNames) {
+                if (all.byName.get(key) != user) {
+                    return;
+                }
+                String old = all.indexedFullNames.put(key, fullName);
+                if (!Objects.equals(old, fullName)) {
+                    all.unindex(key, old);
+                    all.fullNameSubstrings.put(key, fullName);
+                    if (fullName != null) {
+                        all.byFullName.computeIfAbsent(fullName, k -> ConcurrentHashMap.newKeySet()).add(key);
+                    }
+                }
+            }
+        }
+
+        private void unindex(String key, @CheckForNull String fullName) {
+            if (fullName != null) {
+                byFullName.computeIfPresent(fullName, (k, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+
+        /**
+         * Finds the user with the given full name, or, if there are several, the first one in the order of {@link User#getAll}.
+         */
+        private static @CheckForNull User getByFullName(String fullName) {
+            AllUsers all = getInstance();
+            Set<String> keys = all.byFullName.get(fullName);
+            if (keys == null) {
+                return null;
+            }
+            IdStrategy strategy = idStrategy();
+            User found = null;
+            for (String key : keys) {
+                User user = all.byName.get(key);
+                if (user != null && fullName.equals(user.getFullName()) && (found == null || strategy.compare(user.getId(), found.getId()) < 0)) {
+                    found = user;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Finds the users whose full name contains the given token, sorted like {@link User#getAll}.
+         */
+        private static List<User> suggest(String token, boolean caseInsensitive) {
+            AllUsers all = getInstance();
+            List<User> users = new ArrayList<>();
+            for (String key : all.fullNameSubstrings.find(token, caseInsensitive)) {
+                User user = all.byName.get(key);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+            IdStrategy strategy = idStrategy();
+            users.sort((o1, o2) -> strategy.compare(o1.getId(), o2.getId()));
+            return users;
         }
 
         private static Collection<User> values() {
@@ -1173,10 +1286,8 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
 
         @Override
         public String resolveCanonicalId(String idOrFullName, Map<String, ?> context) {
-            for (User user : getAll()) {
-                if (idOrFullName.equals(user.getFullName())) return user.getId();
-            }
-            return null;
+            User user = AllUsers.getByFullName(idOrFullName);
+            return user != null ? user.getId() : null;
         }
 
         @Override
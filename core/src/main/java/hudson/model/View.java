@@ -741,8 +741,15 @@ public abstract class View extends AbstractModelObject implements AccessControll
 
         private Map<User,UserInfo> getUserInfo(Collection<? extends Item> items) {
             Map<User,UserInfo> users = new HashMap<>();
+            PeopleIndex index = PeopleIndex.getIfReady();
             for (Item item : items) {
                 for (Job<?, ?> job : item.getAllJobs()) {
+                    if (index != null) {
+                        for (Map.Entry<String, Long> e : index.getLastChanges(job).entrySet()) {
+                            addChange(users, User.getById(e.getKey(), true), job, PeopleIndex.toCalendar(e.getValue()));
+                        }
+                        continue;
+                    }
                     RunList<? extends Run<?, ?>> runs = job.getBuilds();
                     for (Run<?, ?> r : runs) {
                         if (r instanceof RunWithSCM) {
@@ -750,15 +757,7 @@ public abstract class View extends AbstractModelObject implements AccessControll
 
                             for (ChangeLogSet<? extends Entry> c : runWithSCM.getChangeSets()) {
                                 for (Entry entry : c) {
-                                    User user = entry.getAuthor();
-
-                                    UserInfo info = users.get(user);
-                                    if (info == null)
-                                        users.put(user, new UserInfo(user, job, r.getTimestamp()));
-                                    else if (info.getLastChange().before(r.getTimestamp())) {
-                                        info.project = job;
-                                        info.lastChange = r.getTimestamp();
-                                    }
+                                    addChange(users, entry.getAuthor(), job, r.getTimestamp());
                                 }
                             }
                         }
@@ -768,6 +767,16 @@ public abstract class View extends AbstractModelObject implements AccessControll
             return users;
         }
 
+        private static void addChange(Map<User,UserInfo> users, User user, Job<?,?> job, Calendar timestamp) {
+            UserInfo info = users.get(user);
+            if (info == null)
+                users.put(user, new UserInfo(user, job, timestamp));
+            else if (info.getLastChange().before(timestamp)) {
+                info.project = job;
+                info.lastChange = timestamp;
+            }
+        }
+
         private List<UserInfo> toList(Map<User,UserInfo> users) {
             ArrayList<UserInfo> list = new ArrayList<>(users.values());
             Collections.sort(list);
@@ -783,8 +792,15 @@ public abstract class View extends AbstractModelObject implements AccessControll
          */
         @Deprecated
         public static boolean isApplicable(Collection<? extends Item> items) {
+            PeopleIndex index = PeopleIndex.getIfReady();
             for (Item item : items) {
                 for (Job job : item.getAllJobs()) {
+                    if (index != null) {
+                        if (!index.getLastChanges(job).isEmpty()) {
+                            return true;
+                        }
+                        continue;
+                    }
                     RunList<? extends Run<?, ?>> runs = job.getBuilds();
 
                     for (Run<?,?> r : runs) {
@@ -839,8 +855,18 @@ public abstract class View extends AbstractModelObject implements AccessControll
 
         @Override protected void compute() throws Exception {
             int itemCount = 0;
+            PeopleIndex index = PeopleIndex.getIfReady();
             for (Item item : items) {
                 for (Job<?,?> job : item.getAllJobs()) {
+                    if (index != null) {
+                        for (Map.Entry<String, Long> e : index.getLastChanges(job).entrySet()) {
+                            if (canceled()) {
+                                return;
+                            }
+                            addChange(User.getById(e.getKey(), true), job, PeopleIndex.toCalendar(e.getValue()));
+                        }
+                        continue;
+                    }
                     RunList<? extends Run<?, ?>> builds = job.getBuilds();
                     int buildCount = 0;
                     for (Run<?, ?> r : builds) {
@@ -854,22 +880,7 @@ public abstract class View extends AbstractModelObject implements AccessControll
                         RunWithSCM<?, ?> runWithSCM = (RunWithSCM<?, ?>) r;
                         for (ChangeLogSet<? extends ChangeLogSet.Entry> c : runWithSCM.getChangeSets()) {
                             for (ChangeLogSet.Entry entry : c) {
-                                User user = entry.getAuthor();
-                                UserInfo info = users.get(user);
-                                if (info == null) {
-                                    UserInfo userInfo = new UserInfo(user, job, r.getTimestamp());
-                                    userInfo.avatar = UserAvatarResolver.resolveOrNull(user, iconSize);
-                                    synchronized (this) {
-                                        users.put(user, userInfo);
-                                        modified.add(user);
-                                    }
-                                } else if (info.getLastChange().before(r.getTimestamp())) {
-                                    synchronized (this) {
-                                        info.project = job;
-                                        info.lastChange = r.getTimestamp();
-                                        modified.add(user);
-                                    }
-                                }
+                                addChange(entry.getAuthor(), job, r.getTimestamp());
                             }
                         }
                         // TODO consider also adding the user of the UserCause when applicable
@@ -905,6 +916,24 @@ public abstract class View extends AbstractModelObject implements AccessControll
             }
         }
 
+        private void addChange(User user, Job<?,?> job, Calendar timestamp) {
+            UserInfo info = users.get(user);
+            if (info == null) {
+                UserInfo userInfo = new UserInfo(user, job, timestamp);
+                userInfo.avatar = UserAvatarResolver.resolveOrNull(user, iconSize);
+                synchronized (this) {
+                    users.put(user, userInfo);
+                    modified.add(user);
+                }
+            } else if (info.getLastChange().before(timestamp)) {
+                synchronized (this) {
+                    info.project = job;
+                    info.lastChange = timestamp;
+                    modified.add(user);
+                }
+            }
+        }
+
         @Override protected synchronized JSON data() {
             JSONArray r = new JSONArray();
             for (User u : modified) {
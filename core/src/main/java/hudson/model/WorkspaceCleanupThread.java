@@ -91,12 +91,18 @@ public class WorkspaceCleanupThread extends AsyncPeriodicWork {
                     try {
                         ws.deleteRecursive();
                         WorkspaceList.tempDir(ws).deleteRecursive();
+                        WorkspaceList.templateDir(ws).deleteRecursive();
                     } catch (IOException | InterruptedException x) {
                         Functions.printStackTrace(x, listener.error("Failed to delete " + ws + " on " + node.getDisplayName()));
                     }
                 }
             }
         }
+        if (WorkspaceTemplates.ENABLED) {
+            for (Node node : nodes) {
+                WorkspaceTemplates.evict(node, j.allItems(TopLevelItem.class), listener);
+            }
+        }
     }
 
     private boolean shouldBeDeleted(@Nonnull TopLevelItem item, FilePath dir, @Nonnull Node n) throws IOException, InterruptedException {
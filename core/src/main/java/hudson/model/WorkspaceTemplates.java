@@ -0,0 +1,402 @@
+package hudson.model;
+
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.FilePath.CloneMode;
+import hudson.Functions;
+import hudson.model.listeners.RunListener;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.WorkspaceList;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a template of the workspace of each job on the agents it is built on, so that new workspaces
+ * start from the state of the last successful build instead of from an empty directory.
+ *
+ * <p>
+ * The template lives next to the workspace (see {@link WorkspaceList#templateDir}) and is refreshed from
+ * the workspace in the background after a successful build, at most every {@link #REFRESH_INTERVAL}. A workspace that does not
+ * exist yet, for example a new {@code @2} slot for a concurrent build or a workspace that was cleaned up,
+ * is cloned from the template before the SCM checkout, which then only has to bring it up to date.
+ * While the agent has idle executors, the {@link Warmer} also creates missing workspaces ahead of time.
+ * Cloning uses {@link FilePath#cloneRecursiveTo}, so on file systems with copy-on-write support the
+ * clones share their blocks with the template.
+ *
+ * <p>
+ * Templates are deleted along with their workspace by {@link WorkspaceCleanupThread}, which also
+ * evicts the least recently refreshed ones beyond {@link #MAX_TEMPLATES_PER_NODE}, and when the workspace
+ * is wiped out from the job page.
+ *
+ * <p>
+ * This is disabled unless the {@code hudson.model.WorkspaceTemplates.enabled} system property is set.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+public final class WorkspaceTemplates {
+
+    private WorkspaceTemplates() {}
+
+    /**
+     * The template of the given job on the given node, or null if the job has no template there.
+     */
+    static @CheckForNull FilePath templateFor(@Nonnull AbstractProject<?, ?> project, @Nonnull Node node) {
+        if (!(project instanceof TopLevelItem) || project.getCustomWorkspace() != null) {
+            // custom workspaces may be shared between jobs and are not allocated from the WorkspaceList
+            return null;
+        }
+        FilePath ws = node.getWorkspaceFor((TopLevelItem) project);
+        return ws == null ? null : WorkspaceList.templateDir(ws);
+    }
+
+    /**
+     * Clones the template into the workspace if the latter does not exist yet.
+     *
+     * @return whether the workspace was populated.
+     */
+    static boolean populate(@Nonnull FilePath template, @Nonnull FilePath workspace) throws IOException, InterruptedException {
+        if (workspace.exists() || !template.isDirectory()) {
+            return false;
+        }
+        FilePath staging = workspace.sibling(workspace.getName() + ".prewarm");
+        staging.deleteRecursive();
+        try {
+            template.cloneRecursiveTo(staging, MODE);
+            // only expose the workspace once complete, so an interrupted clone is never mistaken for a checkout
+            staging.renameTo(workspace);
+        } catch (IOException | InterruptedException | RuntimeException x) {
+            discard(staging, x);
+            throw x;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the template with a copy of the given workspace.
+     */
+    static void refresh(@Nonnull FilePath workspace, @Nonnull FilePath template) throws IOException, InterruptedException {
+        FilePath staging = template.sibling(template.getName() + ".new");
+        staging.deleteRecursive();
+        try {
+            workspace.cloneRecursiveTo(staging, MODE);
+            template.deleteRecursive();
+            staging.renameTo(template);
+        } catch (IOException | InterruptedException | RuntimeException x) {
+            discard(staging, x);
+            throw x;
+        }
+        // the age of the template is what the eviction goes by
+        template.touch(System.currentTimeMillis());
+    }
+
+    /**
+     * Deletes a partial clone, so that it does not take up space until the next attempt.
+     */
+    private static void discard(@Nonnull FilePath staging, @Nonnull Exception cause) {
+        try {
+            staging.deleteRecursive();
+        } catch (IOException | InterruptedException | RuntimeException x) {
+            cause.addSuppressed(x);
+        }
+    }
+
+    /**
+     * Deletes the template of the given job on the given node, if any.
+     */
+    static void delete(@Nonnull AbstractProject<?, ?> project, @Nonnull Node node) throws IOException, InterruptedException {
+        FilePath template = templateFor(project, node);
+        if (template != null) {
+            template.deleteRecursive();
+        }
+    }
+
+    /**
+     * Deletes the least recently refreshed templates on the node beyond {@link #MAX_TEMPLATES_PER_NODE}.
+     */
+    static void evict(@Nonnull Node node, @Nonnull Iterable<? extends TopLevelItem> items, @Nonnull TaskListener listener) throws InterruptedException {
+        final class Candidate {
+            final FilePath dir;
+            final long lastModified;
+            Candidate(FilePath dir, long lastModified) {
+                this.dir = dir;
+                this.lastModified = lastModified;
+            }
+        }
+        VirtualChannel channel = node.getChannel();
+        if (channel == null) {
+            return;
+        }
+        List<String> paths = new ArrayList<>();
+        for (TopLevelItem item : items) {
+            if (item instanceof AbstractProject) {
+                FilePath template = templateFor((AbstractProject<?, ?>) item, node);
+                if (template != null) {
+                    paths.add(template.getRemote());
+                }
+            }
+        }
+        // one round trip per node rather than a couple per job
+        Map<String, Long> ages;
+        try {
+            ages = channel.call(new LastModified(paths));
+        } catch (IOException x) {
+            Functions.printStackTrace(x, listener.error("Failed to list workspace templates on " + node.getDisplayName()));
+            return;
+        }
+        List<Candidate> templates = new ArrayList<>();
+        for (Map.Entry<String, Long> e : ages.entrySet()) {
+            templates.add(new Candidate(new FilePath(channel, e.getKey()), e.getValue()));
+        }
+        if (templates.size() <= MAX_TEMPLATES_PER_NODE) {
+            return;
+        }
+        Collections.sort(templates, new Comparator<Candidate>() {
+            @Override
+            public int compare(Candidate a, Candidate b) {
+                return Long.compare(b.lastModified, a.lastModified);
+            }
+        });
+        for (Candidate c : templates.subList(MAX_TEMPLATES_PER_NODE, templates.size())) {
+            listener.getLogger().println("Deleting workspace template " + c.dir + " on " + node.getDisplayName());
+            try {
+                c.dir.deleteRecursive();
+            } catch (IOException x) {
+                Functions.printStackTrace(x, listener.error("Failed to delete " + c.dir + " on " + node.getDisplayName()));
+            }
+        }
+    }
+
+    /**
+     * Looks up when each of the given directories was last modified, leaving out the ones which do not exist.
+     */
+    private static final class LastModified extends MasterToSlaveCallable<Map<String, Long>, IOException> {
+        private static final long serialVersionUID = 1L;
+        private final List<String> paths;
+
+        LastModified(List<String> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        public Map<String, Long> call() throws IOException {
+            Map<String, Long> r = new HashMap<>();
+            for (String path : paths) {
+                File dir = new File(path);
+                if (dir.isDirectory()) {
+                    r.put(path, dir.lastModified());
+                }
+            }
+            return r;
+        }
+    }
+
+    /**
+     * Populates new workspaces from the template before they are used.
+     */
+    @Extension
+    public static final class Seeder extends WorkspaceListener {
+        @Override
+        public void beforeUse(AbstractBuild b, FilePath workspace, BuildListener listener) {
+            if (!ENABLED) {
+                return;
+            }
+            Node node = b.getBuiltOn();
+            if (node == null) {
+                return;
+            }
+            FilePath template = templateFor(b.getProject(), node);
+            if (template == null) {
+                return;
+            }
+            try {
+                long start = System.nanoTime();
+                if (populate(template, workspace)) {
+                    listener.getLogger().println("Populated " + workspace + " from " + template + " in "
+                            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+                }
+            } catch (IOException | InterruptedException x) {
+                // not fatal: the checkout will simply start from scratch
+                LOGGER.log(Level.WARNING, "Failed to populate " + workspace + " from " + template, x);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the template after a successful build.
+     * The clone may take a while for large workspaces, so it is done on {@link #REFRESHER} rather than
+     * holding up the completion of the build.
+     */
+    @Extension
+    public static final class Refresher extends RunListener<Run<?, ?>> {
+        /**
+         * Templates being refreshed, so that builds completing together in {@code @2} workspaces do not clone over each other.
+         */
+        private final Set<FilePath> refreshing = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onCompleted(Run<?, ?> r, @Nonnull TaskListener listener) {
+            if (!ENABLED || !(r instanceof AbstractBuild) || r.getResult() != Result.SUCCESS) {
+                return;
+            }
+            AbstractBuild<?, ?> b = (AbstractBuild<?, ?>) r;
+            Node node = b.getBuiltOn();
+            FilePath workspace = b.getWorkspace();
+            if (node == null || workspace == null) {
+                return;
+            }
+            FilePath template = templateFor(b.getProject(), node);
+            Computer c = node.toComputer();
+            if (template == null || c == null || !refreshing.add(template)) {
+                return;
+            }
+            try {
+                REFRESHER.execute(() -> {
+                    WorkspaceList.Lease lease = null;
+                    try {
+                        if (template.isDirectory() && template.lastModified() + REFRESH_INTERVAL > System.currentTimeMillis()) {
+                            return;
+                        }
+                        // not a quick lease, so that the next build takes another workspace rather than waiting for the clone;
+                        // and if that build already has this one, do not compete with it
+                        lease = c.getWorkspaceList().tryAcquire(workspace, false);
+                        if (lease == null) {
+                            return;
+                        }
+                        refresh(workspace, template);
+                        LOGGER.log(Level.FINE, "Refreshed {0} from {1}", new Object[] {template, b});
+                    } catch (IOException | InterruptedException x) {
+                        LOGGER.log(Level.WARNING, "Failed to refresh " + template + " from " + workspace, x);
+                    } finally {
+                        if (lease != null) {
+                            lease.release();
+                        }
+                        refreshing.remove(template);
+                    }
+                });
+            } catch (RejectedExecutionException x) {
+                // the next successful build will try again
+                refreshing.remove(template);
+            }
+        }
+    }
+
+    /**
+     * Creates missing workspaces from their templates while agents have idle executors,
+     * so that the next build of the job does not even have to wait for the clone.
+     */
+    @Extension @Symbol("workspaceWarmer")
+    public static final class Warmer extends AsyncPeriodicWork {
+        public Warmer() {
+            super("Workspace warmer");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return WARMER_PERIOD;
+        }
+
+        @Override
+        protected Level getNormalLoggingLevel() {
+            return Level.FINE;
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException, InterruptedException {
+            if (!ENABLED) {
+                return;
+            }
+            for (AbstractProject<?, ?> p : Jenkins.get().allItems(AbstractProject.class)) {
+                Node node = p.getLastBuiltOn();
+                if (node == null || p.isBuilding()) {
+                    continue;
+                }
+                Computer c = node.toComputer();
+                if (c == null || c.isOffline() || c.countIdle() == 0) {
+                    continue;
+                }
+                FilePath template = templateFor(p, node);
+                if (template == null) {
+                    continue;
+                }
+                FilePath workspace = node.getWorkspaceFor((TopLevelItem) p);
+                WorkspaceList.Lease lease = workspace == null ? null : c.getWorkspaceList().tryAcquire(workspace, true);
+                if (lease == null) {
+                    continue;
+                }
+                try {
+                    if (populate(template, workspace)) {
+                        listener.getLogger().println("Populated " + workspace + " on " + node.getDisplayName() + " from " + template);
+                    }
+                } catch (IOException x) {
+                    Functions.printStackTrace(x, listener.error("Failed to populate " + workspace + " on " + node.getDisplayName()));
+                } finally {
+                    lease.release();
+                }
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(WorkspaceTemplates.class.getName());
+
+    /**
+     * Runs the template refreshes, a couple at a time so that a burst of completed builds does not saturate the disks.
+     */
+    private static final ThreadPoolExecutor REFRESHER = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(100),
+            new NamingThreadFactory(new DaemonThreadFactory(), "Workspace template refresher"));
+
+    static {
+        REFRESHER.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Whether workspace templates are kept and used.
+     */
+    static /* not final */ boolean ENABLED = SystemProperties.getBoolean(WorkspaceTemplates.class.getName() + ".enabled");
+
+    /**
+     * How templates are cloned: {@code REFLINK} (default), {@code HARDLINK} or {@code COPY}.
+     * Only use {@code HARDLINK} if builds never modify checked out files in place.
+     */
+    private static /* not final */ CloneMode MODE = CloneMode.valueOf(SystemProperties.getString(WorkspaceTemplates.class.getName() + ".mode", CloneMode.REFLINK.name()));
+
+    /**
+     * Minimum age, in milliseconds, of a template before a successful build refreshes it.
+     */
+    private static /* not final */ long REFRESH_INTERVAL = SystemProperties.getLong(WorkspaceTemplates.class.getName() + ".refreshInterval", TimeUnit.HOURS.toMillis(24));
+
+    /**
+     * Maximum number of templates kept on each node.
+     */
+    static /* not final */ int MAX_TEMPLATES_PER_NODE = SystemProperties.getInteger(WorkspaceTemplates.class.getName() + ".maxTemplatesPerNode", 20);
+
+    /**
+     * How often the {@link Warmer} runs, in milliseconds.
+     */
+    private static /* not final */ long WARMER_PERIOD = SystemProperties.getLong(WorkspaceTemplates.class.getName() + ".warmerPeriod", TimeUnit.MINUTES.toMillis(5));
+}
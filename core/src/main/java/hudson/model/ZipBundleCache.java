@@ -0,0 +1,358 @@
+package hudson.model;
+
+import hudson.Util;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Zip bundles of whole directories of completed builds, kept in {@code $JENKINS_HOME/zipCache} so that they are
+ * generated once rather than on every download, and can be downloaded in parts.
+ *
+ * <p>
+ * The bundles take up at most {@link #MAX_SIZE} bytes in total; the least recently downloaded ones are deleted first.
+ * The first request for a bundle streams it while it is written to the cache, and concurrent requests for the same
+ * bundle wait for that rather than generating it again.
+ *
+ * @see DirectoryBrowserSupport#CACHE_ZIPS
+ */
+final class ZipBundleCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ZipBundleCache.class.getName());
+
+    /**
+     * Maximum total size of the cached bundles, in bytes.
+     */
+    static /* not final */ long MAX_SIZE = SystemProperties.getLong(DirectoryBrowserSupport.class.getName() + ".zipCacheSize", 1024L * 1024 * 1024);
+
+    private static volatile ZipBundleCache instance;
+
+    private final File dir;
+
+    /**
+     * Size of each cached bundle by file name, least recently downloaded first, or null until the directory is listed.
+     * Guarded by {@code this}.
+     */
+    private LinkedHashMap<String, Long> sizes;
+
+    /**
+     * Total of {@link #sizes}. Guarded by {@code this}.
+     */
+    private long total;
+
+    /**
+     * Bundles being generated. Guarded by {@code this}.
+     */
+    private final Map<String, CompletableFuture<File>> inFlight = new HashMap<>();
+
+    /**
+     * Full name of the job of each bundle generated or downloaded since startup, so that they can be deleted
+     * along with the job. Bundles left over from before cannot be mistaken for those of another job, since
+     * their name identifies the build, but they are only deleted once they are the least recently used.
+     * Guarded by {@code this}.
+     */
+    private final Map<String, String> jobs = new HashMap<>();
+
+    private ZipBundleCache(File dir) {
+        this.dir = dir;
+    }
+
+    static @Nonnull ZipBundleCache get() {
+        File dir = new File(Jenkins.get().getRootDir(), "zipCache");
+        ZipBundleCache cache = instance;
+        if (cache == null || !cache.dir.equals(dir)) {
+            synchronized (ZipBundleCache.class) {
+                cache = instance;
+                if (cache == null || !cache.dir.equals(dir)) {
+                    instance = cache = new ZipBundleCache(dir);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Writes a bundle.
+     */
+    interface Generator {
+        void write(@Nonnull OutputStream out) throws IOException;
+    }
+
+    /**
+     * Name of the file caching a bundle of the given build.
+     */
+    private static String nameOf(Run<?, ?> run, String key) {
+        return prefixOf(run) + Util.getDigestOf(key) + ".zip";
+    }
+
+    /**
+     * Identifies the build, and not only where it is kept, as a job deleted or renamed without going through
+     * {@link Run#deleteArtifacts} may be replaced by another one with builds of the same numbers.
+     */
+    private static String prefixOf(Run<?, ?> run) {
+        return Util.getDigestOf(run.getExternalizableId() + '\n' + run.getTimeInMillis()) + '-';
+    }
+
+    /**
+     * Serves a bundle of the given build, or the requested range of it, generating it first if needed.
+     *
+     * @param key
+     *      identifies the bundle among those of the build.
+     */
+    void serve(@Nonnull Run<?, ?> run, @Nonnull String key, @Nonnull StaplerRequest req, @Nonnull StaplerResponse rsp, @Nonnull Generator generator) throws IOException {
+        String name = nameOf(run, key);
+        CompletableFuture<File> pending;
+        boolean generating = false;
+        synchronized (this) {
+            load();
+            jobs.put(name, run.getParent().getFullName());
+            File cached = new File(dir, name);
+            if (sizes.get(name) != null) {
+                pending = CompletableFuture.completedFuture(cached);
+            } else {
+                pending = inFlight.get(name);
+                if (pending == null) {
+                    pending = new CompletableFuture<>();
+                    inFlight.put(name, pending);
+                    generating = true;
+                }
+            }
+        }
+        if (generating) {
+            generate(name, rsp, generator, pending);
+            return;
+        }
+        File cached;
+        try {
+            cached = pending.get();
+        } catch (InterruptedException | ExecutionException x) {
+            // let the request that generated it report the failure, and do without the cache
+            LOGGER.log(Level.FINE, "Failed to wait for " + name, x);
+            stream(rsp, generator);
+            return;
+        }
+        try {
+            ByteRanges.serve(req, rsp, cached, "application/zip");
+        } catch (NoSuchFileException x) {
+            // evicted in the meantime
+            stream(rsp, generator);
+        }
+    }
+
+    private void generate(String name, StaplerResponse rsp, Generator generator, CompletableFuture<File> pending) throws IOException {
+        File cached = new File(dir, name);
+        File tmp = null;
+        try {
+            Files.createDirectories(dir.toPath());
+            tmp = File.createTempFile(name, ".tmp", dir);
+            rsp.setContentType("application/zip");
+            try (Tee out = new Tee(new FileOutputStream(tmp), rsp.getOutputStream())) {
+                generator.write(out);
+            }
+            Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                add(name, cached.length());
+                inFlight.remove(name);
+            }
+            pending.complete(cached);
+        } catch (IOException | RuntimeException x) {
+            synchronized (this) {
+                inFlight.remove(name);
+            }
+            pending.completeExceptionally(x);
+            throw x;
+        } finally {
+            if (tmp != null) {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        }
+    }
+
+    private static void stream(StaplerResponse rsp, Generator generator) throws IOException {
+        rsp.setContentType("application/zip");
+        try (OutputStream out = rsp.getOutputStream()) {
+            generator.write(out);
+        }
+    }
+
+    /**
+     * Deletes the cached bundles of the given build.
+     */
+    synchronized void purge(@Nonnull Run<?, ?> run) throws IOException {
+        load();
+        String prefix = prefixOf(run);
+        for (Iterator<Map.Entry<String, Long>> it = sizes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> e = it.next();
+            if (e.getKey().startsWith(prefix)) {
+                it.remove();
+                delete(e);
+            }
+        }
+    }
+
+    /**
+     * Deletes the cached bundles of the builds of the given job, or of the jobs in the given folder,
+     * at least those used since startup.
+     */
+    synchronized void purge(@Nonnull String fullName) throws IOException {
+        if (sizes == null) {
+            return;
+        }
+        for (Iterator<Map.Entry<String, Long>> it = sizes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> e = it.next();
+            String job = jobs.get(e.getKey());
+            if (job != null && (job.equals(fullName) || job.startsWith(fullName + '/'))) {
+                it.remove();
+                delete(e);
+            }
+        }
+    }
+
+    /**
+     * Deletes a bundle already removed from {@link #sizes}.
+     */
+    private void delete(Map.Entry<String, Long> e) throws IOException {
+        total -= e.getValue();
+        jobs.remove(e.getKey());
+        Files.deleteIfExists(new File(dir, e.getKey()).toPath());
+    }
+
+    /**
+     * Lists the bundles left over from a previous run, oldest first, and deletes any partial ones.
+     */
+    private void load() throws IOException {
+        if (sizes != null) {
+            return;
+        }
+        sizes = new LinkedHashMap<>(16, 0.75f, true);
+        total = 0;
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File f : files) {
+            if (f.getName().endsWith(".zip")) {
+                sizes.put(f.getName(), f.length());
+                total += f.length();
+            } else {
+                Files.deleteIfExists(f.toPath());
+            }
+        }
+        evict(null);
+    }
+
+    private void add(String name, long size) throws IOException {
+        Long old = sizes.put(name, size);
+        total += size - (old == null ? 0 : old);
+        evict(name);
+    }
+
+    /**
+     * Deletes the least recently downloaded bundles until the total size is within {@link #MAX_SIZE}.
+     *
+     * @param keep bundle which is about to be served, and is kept even if it is too large on its own
+     */
+    private void evict(@CheckForNull String keep) throws IOException {
+        for (Iterator<Map.Entry<String, Long>> it = sizes.entrySet().iterator(); total > MAX_SIZE && it.hasNext(); ) {
+            Map.Entry<String, Long> e = it.next();
+            if (e.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            LOGGER.log(Level.FINE, "Evicting {0} from the zip cache", e.getKey());
+            delete(e);
+        }
+    }
+
+    /**
+     * Writes to the cache file, and to the client for as long as it keeps reading,
+     * so that a client going away does not waste the bundle generated so far.
+     */
+    private static final class Tee extends OutputStream {
+        private final OutputStream file;
+        private OutputStream client;
+
+        Tee(OutputStream file, OutputStream client) {
+            this.file = file;
+            this.client = client;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            file.write(b);
+            if (client != null) {
+                try {
+                    client.write(b);
+                } catch (IOException x) {
+                    disconnected(x);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            file.write(b, off, len);
+            if (client != null) {
+                try {
+                    client.write(b, off, len);
+                } catch (IOException x) {
+                    disconnected(x);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            file.flush();
+            if (client != null) {
+                try {
+                    client.flush();
+                } catch (IOException x) {
+                    disconnected(x);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                file.close();
+            } finally {
+                if (client != null) {
+                    try {
+                        client.close();
+                    } catch (IOException x) {
+                        disconnected(x);
+                    }
+                }
+            }
+        }
+
+        private void disconnected(IOException x) {
+            LOGGER.log(Level.FINE, "Client went away, finishing the zip bundle for the cache only", x);
+            client = null;
+        }
+    }
+}
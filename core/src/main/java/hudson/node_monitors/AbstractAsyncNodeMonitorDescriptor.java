@@ -6,20 +6,27 @@ import hudson.remoting.Callable;
 import hudson.remoting.VirtualChannel;
 import hudson.slaves.SlaveComputer;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
@@ -80,49 +87,138 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
 
     /**
      * Perform monitoring with detailed reporting.
+     *
+     * <p>
+     * At most {@link #MAX_CONCURRENT_PROBES} remote calls are in flight at any given time, and computers
+     * whose previous results were {@linkplain #isStable stable} are probed less often: after {@code n} consecutive
+     * stable results, the previous value is reused for the next {@code min(2^n - 1, }{@link #MAX_BACKOFF_ROUNDS}{@code )}
+     * rounds. A reconnected computer is always probed afresh.
+     * Calls are harvested as they complete, so a hung one does not hold back the others, and it is
+     * interrupted once {@link #getMonitoringTimeOut()} has elapsed.
      */
     protected final @Nonnull Result<T> monitorDetailed() throws InterruptedException {
-        Map<Computer,Future<T>> futures = new HashMap<>();
-        Set<Computer> skipped = new HashSet<>();
+        final long end = System.currentTimeMillis() + getMonitoringTimeOut();
+
+        final Map<Computer,T> data = new HashMap<>();
+        final Set<Computer> skipped = new HashSet<>();
+        final Map<Computer,ProbeState<T>> previous = probeStates;
+        final Map<Computer,ProbeState<T>> next = new HashMap<>();
+        final Deque<Computer> pending = new ArrayDeque<>();
 
         for (Computer c : Jenkins.get().getComputers()) {
-            try {
-                VirtualChannel ch = c.getChannel();
-                futures.put(c,null);    // sentinel value
-                if (ch!=null) {
-                    Callable<T, ?> cc = createCallable(c);
-                    if (cc!=null)
-                        futures.put(c,ch.callAsync(cc));
-                }
-            } catch (RuntimeException | IOException e) {
-                error(c, e);
+            data.put(c, null);  // sentinel value
+            VirtualChannel ch = c.getChannel();
+            if (ch == null) {
+                skipped.add(c);
+                continue;
             }
+            ProbeState<T> s = previous.get(c);
+            if (s != null && s.channel == ch && s.skipsLeft > 0) {
+                data.put(c, s.value);
+                next.put(c, s.skipped());
+                continue;
+            }
+            pending.add(c);
         }
 
-        final long now = System.currentTimeMillis();
-        final long end = now + getMonitoringTimeOut();
-
-        final Map<Computer,T> data = new HashMap<>();
+        // probes run on their own threads, so that they are harvested in the order they complete,
+        // and a hung one only takes up its own slot
+        final CompletionService<T> completion = new ExecutorCompletionService<>(Computer.threadPoolForRemoting);
+        final Map<Future<T>,Probe> inFlight = new HashMap<>();
+        while (!pending.isEmpty() || !inFlight.isEmpty()) {
+            while (!pending.isEmpty() && (MAX_CONCURRENT_PROBES <= 0 || inFlight.size() < MAX_CONCURRENT_PROBES)) {
+                Computer c = pending.poll();
+                ProbeState<T> s = previous.get(c);
+                if (System.currentTimeMillis() >= end) {
+                    // ran out of time before we got to this one; keep what we knew, if anything
+                    if (s != null && s.channel == c.getChannel()) {
+                        data.put(c, s.value);
+                        next.put(c, s);
+                    } else {
+                        skipped.add(c);
+                    }
+                    continue;
+                }
+                try {
+                    VirtualChannel ch = c.getChannel();
+                    Callable<T,IOException> cc = ch == null ? null : createCallable(c);
+                    if (cc != null) {
+                        inFlight.put(completion.submit(() -> {
+                            long started = System.nanoTime();
+                            try {
+                                return ch.call(cc);
+                            } finally {
+                                probeLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                            }
+                        }), new Probe(c, ch));
+                    } else {
+                        skipped.add(c);
+                    }
+                } catch (RuntimeException | IOException e) {
+                    error(c, e);
+                    skipped.add(c);
+                }
+            }
 
-        for (Entry<Computer, Future<T>> e : futures.entrySet()) {
-            Computer c = e.getKey();
-            Future<T> f = futures.get(c);
-            data.put(c, null);  // sentinel value
+            if (inFlight.isEmpty()) {
+                continue;
+            }
 
-            if (f!=null) {
-                try {
-                    data.put(c,f.get(Math.max(0,end-System.currentTimeMillis()), MILLISECONDS));
-                } catch (RuntimeException | TimeoutException | ExecutionException x) {
-                    error(c, x);
+            Future<T> done = completion.poll(Math.max(0, end - System.currentTimeMillis()), MILLISECONDS);
+            if (done == null) {
+                // out of time: give up on the hung ones, and only keep what we knew of the computers not probed yet
+                for (Entry<Future<T>,Probe> e : inFlight.entrySet()) {
+                    e.getKey().cancel(true);
+                    error(e.getValue().computer, new TimeoutException("Timed out after " + getMonitoringTimeOut() + "ms"));
                 }
-            } else {
-                skipped.add(c);
+                inFlight.clear();
+                continue;
+            }
+            Probe p = inFlight.remove(done);
+            try {
+                T value = done.get();
+                data.put(p.computer, value);
+                if (value != null) {
+                    next.put(p.computer, ProbeState.probed(previous.get(p.computer), p.channel, value, this));
+                }
+            } catch (ExecutionException x) {
+                error(p.computer, x.getCause());
+            } catch (RuntimeException x) {
+                error(p.computer, x);
             }
         }
 
+        probeStates = next;
         return new Result<>(data, skipped);
     }
 
+    /**
+     * Decides whether a freshly monitored value is close enough to the previous one that this computer
+     * can be probed less often.
+     *
+     * <p>
+     * The default implementation never backs off. Monitors that only report slowly changing data, and
+     * whose values are healthy, can override this to cut down the remote calls made during agent storms.
+     *
+     * @param previous
+     *      Value from the last actual probe of the same channel.
+     * @param current
+     *      Value just obtained.
+     * @since TODO
+     */
+    protected boolean isStable(@Nonnull T previous, @Nonnull T current) {
+        return false;
+    }
+
+    /**
+     * Latency of the remote calls performed by this monitor, including the ones that failed or timed out.
+     *
+     * @since TODO
+     */
+    public @Nonnull ProbeLatencyHistogram getProbeLatency() {
+        return probeLatency;
+    }
+
     private void error(Computer c, Throwable x) {
         if (c instanceof SlaveComputer) {
             Functions.printStackTrace(x, ((SlaveComputer) c).getListener().error("Failed to monitor for " + getDisplayName()));
@@ -133,6 +229,75 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
 
     private static final Logger LOGGER = Logger.getLogger(AbstractAsyncNodeMonitorDescriptor.class.getName());
 
+    /**
+     * Maximum number of monitoring calls in flight at once for a single monitor. 0 or less means no limit.
+     */
+    static /* not final */ int MAX_CONCURRENT_PROBES = SystemProperties.getInteger(AbstractAsyncNodeMonitorDescriptor.class.getName() + ".maxConcurrentProbes", 100);
+
+    /**
+     * Maximum number of consecutive monitoring rounds a stable computer may be left out of. 0 disables the back off.
+     */
+    static /* not final */ int MAX_BACKOFF_ROUNDS = SystemProperties.getInteger(AbstractAsyncNodeMonitorDescriptor.class.getName() + ".maxBackoffRounds", 3);
+
+    private final transient ProbeLatencyHistogram probeLatency = new ProbeLatencyHistogram();
+
+    /**
+     * What we know about each computer from the previous round. Only replaced as a whole by the monitoring thread.
+     */
+    private transient volatile Map<Computer,ProbeState<T>> probeStates = Collections.emptyMap();
+
+    /**
+     * Remote call in progress.
+     */
+    private static final class Probe {
+        private final Computer computer;
+        private final VirtualChannel channel;
+
+        Probe(Computer computer, VirtualChannel channel) {
+            this.computer = computer;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Last probed value of a computer, along with its back off status.
+     */
+    private static final class ProbeState<T> {
+        /**
+         * Channel the value was obtained from, so that a reconnected computer is probed again.
+         */
+        private final VirtualChannel channel;
+        private final T value;
+        /**
+         * Number of consecutive probes that were {@linkplain #isStable stable}.
+         */
+        private final int stableRounds;
+        /**
+         * Number of rounds this computer will still be left out of.
+         */
+        private final int skipsLeft;
+
+        private ProbeState(VirtualChannel channel, T value, int stableRounds, int skipsLeft) {
+            this.channel = channel;
+            this.value = value;
+            this.stableRounds = stableRounds;
+            this.skipsLeft = skipsLeft;
+        }
+
+        ProbeState<T> skipped() {
+            return new ProbeState<>(channel, value, stableRounds, skipsLeft - 1);
+        }
+
+        static <T> ProbeState<T> probed(@CheckForNull ProbeState<T> old, VirtualChannel channel, @Nonnull T value, AbstractAsyncNodeMonitorDescriptor<T> owner) {
+            int stable = 0;
+            if (old != null && old.channel == channel && old.value != null && owner.isStable(old.value, value)) {
+                stable = Math.min(old.stableRounds + 1, 30);
+            }
+            int skips = (int) Math.min((1L << stable) - 1, Math.max(0, MAX_BACKOFF_ROUNDS));
+            return new ProbeState<>(channel, value, stable, skips);
+        }
+    }
+
     /**
      * Result object for {@link AbstractAsyncNodeMonitorDescriptor#monitorDetailed()} to facilitate extending information
      * returned in the future.
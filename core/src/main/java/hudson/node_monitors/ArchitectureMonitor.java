@@ -46,6 +46,12 @@ public class ArchitectureMonitor extends NodeMonitor {
             return new GetArchTask();
         }
 
+        @Override
+        protected boolean isStable(String previous, String current) {
+            // the architecture does not change without a reconnection
+            return previous.equals(current);
+        }
+
         public String getDisplayName() {
             return Messages.ArchitectureMonitor_DisplayName();
         }
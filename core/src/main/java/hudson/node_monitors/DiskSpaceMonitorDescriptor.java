@@ -167,6 +167,18 @@ public abstract class DiskSpaceMonitorDescriptor extends AbstractAsyncNodeMonito
         private static final long serialVersionUID = 2L;
     }
 
+    /**
+     * Free space that did not trigger the monitor and moved by less than 1% since the last probe
+     * is considered stable.
+     */
+    @Override
+    protected boolean isStable(DiskSpace previous, DiskSpace current) {
+        if (previous.triggered || previous.size <= 0) {
+            return false;
+        }
+        return Math.abs(current.size - previous.size) * 100 < previous.size;
+    }
+
     protected static final class GetUsableSpace extends MasterToSlaveFileCallable<DiskSpace> {
         public GetUsableSpace() {}
         public DiskSpace invoke(File f, VirtualChannel channel) throws IOException {
@@ -0,0 +1,136 @@
+package hudson.node_monitors;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram of the remote probes performed by an {@link AbstractAsyncNodeMonitorDescriptor}.
+ *
+ * <p>
+ * Buckets are exponential: bucket {@code i} counts probes that took less than {@code 2^i} milliseconds
+ * (and at least {@code 2^(i-1)}), and the last bucket collects everything slower than that,
+ * including probes that timed out. Recording is lock-free, so this can be updated from the monitoring
+ * thread while being read from the UI or the remote API.
+ *
+ * @since TODO
+ */
+@ExportedBean
+public final class ProbeLatencyHistogram {
+    /**
+     * Number of buckets. The last bounded one is {@code 2^16} ms, a bit over a minute.
+     */
+    private static final int BUCKETS = 18;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * Records one probe that took the given number of milliseconds.
+     */
+    public void record(long millis) {
+        if (millis < 0) {
+            millis = 0;
+        }
+        counts.incrementAndGet(bucketOf(millis));
+        total.incrementAndGet();
+        sum.addAndGet(millis);
+    }
+
+    /**
+     * Number of probes recorded so far.
+     */
+    @Exported
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * Average probe latency in milliseconds, or 0 if nothing was recorded yet.
+     */
+    @Exported
+    public long getAverage() {
+        long n = total.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    /**
+     * Upper bounds, in milliseconds, of the buckets returned by {@link #getCounts()}.
+     * The last bucket is unbounded and is reported as {@link Long#MAX_VALUE}.
+     */
+    @Exported
+    public long[] getUpperBounds() {
+        long[] r = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            r[i] = upperBound(i);
+        }
+        return r;
+    }
+
+    /**
+     * Snapshot of the per-bucket counts.
+     */
+    @Exported
+    public long[] getCounts() {
+        long[] r = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            r[i] = counts.get(i);
+        }
+        return r;
+    }
+
+    /**
+     * Estimates the given percentile as the upper bound of the bucket it falls into.
+     *
+     * @param p
+     *      Percentile between 0 and 100.
+     * @return
+     *      Latency in milliseconds, or 0 if nothing was recorded yet.
+     */
+    public long getPercentile(double p) {
+        long[] c = getCounts();
+        long n = 0;
+        for (long v : c) {
+            n += v;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.max(0, Math.min(100, p)) / 100 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += c[i];
+            if (seen >= rank && c[i] > 0) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    @Exported
+    public long getMedian() {
+        return getPercentile(50);
+    }
+
+    @Exported(name = "p99")
+    public long get99thPercentile() {
+        return getPercentile(99);
+    }
+
+    static int bucketOf(long millis) {
+        int b = 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(b, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " avg=" + getAverage() + "ms p50=" + getMedian() + "ms p99=" + get99thPercentile() + "ms";
+    }
+}
@@ -0,0 +1,213 @@
+package hudson.search;
+
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Finds the values whose names contain a given token, the way {@link CollectionSearchIndex#suggest} does,
+ * without comparing the token with every name.
+ *
+ * <p>
+ * Every three characters long substring (trigram) of the lower-cased names is mapped to the values having it,
+ * so only the values having all the trigrams of the token are compared with it.
+ * Tokens shorter than three characters are compared with all the names, which is still cheaper
+ * than walking the model objects they come from.
+ *
+ * @param <T> the indexed values, compared by {@link Object#equals}
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+public final class SubstringIndex<T> {
+
+    /**
+     * Set to true to go back to scanning the model objects for suggestions.
+     */
+    private static /* not final */ boolean DISABLED = SystemProperties.getBoolean(SubstringIndex.class.getName() + ".disabled");
+
+    private static final int N = 3;
+
+    private final Map<T, String> names = new HashMap<>();
+    private final Map<String, Set<T>> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Whether callers should use their index rather than scanning.
+     */
+    public static boolean isEnabled() {
+        return !DISABLED;
+    }
+
+    /**
+     * Adds a value, or replaces its name.
+     *
+     * @param name the name to match tokens against; null to remove the value
+     */
+    public void put(@Nonnull T value, @CheckForNull String name) {
+        lock.writeLock().lock();
+        try {
+            String old = name == null ? names.remove(value) : names.put(value, name);
+            if (old != null) {
+                if (old.equals(name)) {
+                    return;
+                }
+                for (String trigram : trigramsOf(fold(old))) {
+                    Set<T> values = trigrams.get(trigram);
+                    if (values != null && values.remove(value) && values.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+            if (name != null) {
+                for (String trigram : trigramsOf(fold(name))) {
+                    trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(value);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the name of a value, unless the value is not in the index.
+     */
+    public void replace(@Nonnull T value, @Nonnull String name) {
+        lock.writeLock().lock();
+        try {
+            if (names.containsKey(value)) {
+                put(value, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(@Nonnull T value) {
+        put(value, null);
+    }
+
+    /**
+     * Removes all the values matching the given predicate.
+     */
+    public void removeIf(@Nonnull Predicate<? super T> predicate) {
+        List<T> matching = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (T value : names.keySet()) {
+                if (predicate.test(value)) {
+                    matching.add(value);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (T value : matching) {
+            remove(value);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            trigrams.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the values whose name contains the given token.
+     *
+     * @param caseInsensitive whether to compare the lower-cased name and token, as per {@link UserSearchProperty#isCaseInsensitive}
+     * @return the matching values, in no particular order
+     */
+    public @Nonnull List<T> find(@Nonnull String token, boolean caseInsensitive) {
+        String lowerToken = token.toLowerCase();
+        List<T> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (T value : candidates(fold(token))) {
+                String name = names.get(value);
+                if (caseInsensitive ? name.toLowerCase().contains(lowerToken) : name.contains(token)) {
+                    result.add(value);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * The values which may match, with the read lock held.
+     */
+    private Set<T> candidates(String folded) {
+        if (folded.length() < N) {
+            return names.keySet();
+        }
+        List<Set<T>> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(folded)) {
+            Set<T> values = trigrams.get(trigram);
+            if (values == null) {
+                return Collections.emptySet();
+            }
+            postings.add(values);
+        }
+        Set<T> smallest = postings.get(0);
+        for (Set<T> values : postings) {
+            if (values.size() < smallest.size()) {
+                smallest = values;
+            }
+        }
+        if (postings.size() == 1) {
+            return smallest;
+        }
+        Set<T> intersection = new HashSet<>(smallest);
+        for (Set<T> values : postings) {
+            if (values != smallest) {
+                intersection.retainAll(values);
+            }
+        }
+        return intersection;
+    }
+
+    /**
+     * Lower-cases a name so that a name containing a token, with or without regard to case,
+     * has all the trigrams of the token.
+     * The final sigma is the only lower-case letter chosen by its context, so it is folded into the other one.
+     */
+    static String fold(String s) {
+        return s.toLowerCase().replace('\u03c2', '\u03c3');
+    }
+
+    private static Set<String> trigramsOf(String folded) {
+        Set<String> r = new HashSet<>();
+        for (int i = 0; i + N <= folded.length(); i++) {
+            r.add(folded.substring(i, i + N));
+        }
+        return r;
+    }
+}
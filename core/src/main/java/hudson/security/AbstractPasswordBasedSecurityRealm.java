@@ -12,9 +12,15 @@ import org.acegisecurity.providers.dao.AbstractUserDetailsAuthenticationProvider
 import org.acegisecurity.userdetails.UserDetails;
 import org.acegisecurity.userdetails.UserDetailsService;
 import org.acegisecurity.userdetails.UsernameNotFoundException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.springframework.dao.DataAccessException;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Partial implementation of {@link SecurityRealm} for username/password based authentication.
  * This is a convenience base class if all you are trying to do is to check the given username
@@ -68,16 +74,39 @@ public abstract class AbstractPasswordBasedSecurityRealm extends SecurityRealm i
     protected abstract UserDetails authenticate(String username, String password) throws AuthenticationException;
 
     private UserDetails doAuthenticate(String username, String password) throws AuthenticationException {
+        long start = System.nanoTime();
         try {
             UserDetails user = authenticate(username, password);
+            getAuthenticationStatistics().record(true, System.nanoTime() - start);
             SecurityListener.fireAuthenticated(user);
             return user;
         } catch (AuthenticationException x) {
+            getAuthenticationStatistics().record(false, System.nanoTime() - start);
             SecurityListener.fireFailedToAuthenticate(username);
             throw x;
         }
     }
 
+    private transient volatile AuthenticationStatistics statistics;
+
+    /**
+     * Statistics of the logins checked by this realm since it was configured.
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public @Nonnull AuthenticationStatistics getAuthenticationStatistics() {
+        AuthenticationStatistics s = statistics;
+        if (s == null) {
+            synchronized (this) {
+                s = statistics;
+                if (s == null) {
+                    statistics = s = new AuthenticationStatistics();
+                }
+            }
+        }
+        return s;
+    }
+
     /**
      * Retrieves information about an user by its name.
      *
@@ -107,4 +136,52 @@ public abstract class AbstractPasswordBasedSecurityRealm extends SecurityRealm i
         }
     }
 
+    @Restricted(NoExternalUse.class)
+    public static final class AuthenticationStatistics {
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(boolean success, long nanos) {
+            (success ? succeeded : failed).incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Number of logins accepted.
+         */
+        public long getSucceeded() {
+            return succeeded.get();
+        }
+
+        /**
+         * Number of logins rejected, or which could not be checked.
+         */
+        public long getFailed() {
+            return failed.get();
+        }
+
+        /**
+         * Average time taken to check a login, in microseconds.
+         */
+        public long getAverageMicros() {
+            long count = succeeded.get() + failed.get();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / count);
+        }
+
+        /**
+         * Longest time taken to check a login, in microseconds.
+         */
+        public long getMaxMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "succeeded=" + getSucceeded() + " failed=" + getFailed() + " averageMicros=" + getAverageMicros()
+                    + " maxMicros=" + getMaxMicros();
+        }
+    }
 }
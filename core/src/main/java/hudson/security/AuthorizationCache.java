@@ -0,0 +1,184 @@
+package hudson.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Fingerprint;
+import hudson.model.Queue;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import jenkins.security.apitoken.ApiTokenStats;
+import jenkins.util.SystemProperties;
+import org.acegisecurity.Authentication;
+import org.acegisecurity.GrantedAuthority;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the decisions of {@link SidACL}s, so that checking the same permission for the same user again,
+ * as views do for every row they render, does not evaluate the ACL again.
+ *
+ * <p>
+ * Decisions of all ACLs are remembered together, up to a bounded number, for the ACL that made them and
+ * the name and authorities of the user, so changes of group membership take effect immediately.
+ * Changing the security realm or the authorization strategy, and saving the configuration of Jenkins,
+ * of an item or of a node, forget all decisions. An ACL whose entries change in another way forgets its own
+ * decisions through {@link SidACL#forgetDecisions()}; other code changing the configuration of ACLs should
+ * call {@link #invalidate()}. Otherwise decisions are forgotten after a minute.
+ *
+ * @since TODO
+ */
+public final class AuthorizationCache {
+
+    /**
+     * Set to true to evaluate ACLs every time.
+     */
+    private static /* not final */ boolean DISABLED = SystemProperties.getBoolean(AuthorizationCache.class.getName() + ".disabled");
+
+    /**
+     * How long a decision is remembered at most.
+     */
+    private static /* not final */ long EXPIRY_MILLIS = TimeUnit.SECONDS.toMillis(
+            SystemProperties.getInteger(AuthorizationCache.class.getName() + ".expirySeconds", 60));
+
+    /**
+     * Number of decisions remembered at most, over all ACLs.
+     */
+    private static /* not final */ int MAX_ENTRIES = SystemProperties.getInteger(AuthorizationCache.class.getName() + ".maxEntries", 10_000);
+
+    private static final Cache<Key, Boolean> DECISIONS = CacheBuilder.newBuilder()
+            .maximumSize(Math.max(0, MAX_ENTRIES))
+            .expireAfterWrite(Math.max(0, EXPIRY_MILLIS), TimeUnit.MILLISECONDS)
+            .build();
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+
+    private AuthorizationCache() {}
+
+    /**
+     * Forgets all the decisions made so far.
+     */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
+        DECISIONS.invalidateAll();
+        INVALIDATIONS.increment();
+    }
+
+    /**
+     * Number of permission checks answered from remembered decisions since startup.
+     */
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    /**
+     * Number of permission checks which had to evaluate the ACL since startup.
+     */
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * Number of times all decisions were forgotten since startup.
+     */
+    public static long getInvalidations() {
+        return INVALIDATIONS.sum();
+    }
+
+    static boolean isEnabled() {
+        return !DISABLED && EXPIRY_MILLIS > 0;
+    }
+
+    static @CheckForNull Boolean get(@Nonnull Key key) {
+        Boolean b = DECISIONS.getIfPresent(key);
+        if (b == null) {
+            MISSES.increment();
+        } else {
+            HITS.increment();
+        }
+        return b;
+    }
+
+    /**
+     * Remembers a decision, unless all decisions were forgotten while it was being made.
+     */
+    static void put(@Nonnull Key key, boolean b) {
+        if (key.generation != GENERATION.get()) {
+            return;
+        }
+        DECISIONS.put(key, b);
+    }
+
+    /**
+     * What a {@link SidACL} decision depends on: the ACL, the principal, its authorities, and the permission.
+     */
+    static final class Key {
+        /**
+         * Stands for the ACL and its current entries, see {@link SidACL#getDecisionScope()}.
+         */
+        private final Object scope;
+        private final String name;
+        private final String[] authorities;
+        private final Permission permission;
+        private final int hashCode;
+        /**
+         * When the decision started to be made; not part of the identity.
+         */
+        private final long generation = GENERATION.get();
+
+        Key(@Nonnull Object scope, @Nonnull Authentication a, Permission permission) {
+            this.scope = scope;
+            this.name = a.getName();
+            GrantedAuthority[] gas = a.getAuthorities();
+            this.authorities = new String[gas == null ? 0 : gas.length];
+            for (int i = 0; i < authorities.length; i++) {
+                authorities[i] = gas[i].getAuthority();
+            }
+            this.permission = permission;
+            this.hashCode = ((scope.hashCode() * 31 + String.valueOf(name).hashCode()) * 31 + Arrays.hashCode(authorities)) * 31 + System.identityHashCode(permission);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode && permission == that.permission && scope.equals(that.scope)
+                    && (name == null ? that.name == null : name.equals(that.name))
+                    && Arrays.equals(authorities, that.authorities);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // skip what is saved often and does not configure permissions; authorities of users are part of the key
+            if (o instanceof Run || o instanceof Fingerprint || o instanceof Queue || o instanceof User || o instanceof ApiTokenStats) {
+                return;
+            }
+            invalidate();
+        }
+    }
+}
@@ -23,6 +23,8 @@
  */
 package hudson.security;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
@@ -45,9 +47,11 @@ import hudson.util.XStream2;
 import jenkins.security.SecurityListener;
 import jenkins.util.SystemProperties;
 import jenkins.security.seed.UserSeedProperty;
+import jenkins.util.InstrumentedThreadPoolExecutor;
 import net.sf.json.JSONObject;
 import org.acegisecurity.Authentication;
 import org.acegisecurity.AuthenticationException;
+import org.acegisecurity.AuthenticationServiceException;
 import org.acegisecurity.BadCredentialsException;
 import org.acegisecurity.GrantedAuthority;
 import org.acegisecurity.context.SecurityContextHolder;
@@ -82,8 +86,16 @@ import javax.servlet.http.HttpSession;
 import static javax.servlet.http.HttpServletResponse.SC_UNAUTHORIZED;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -197,7 +209,7 @@ public class HudsonPrivateSecurityRealm extends AbstractPasswordBasedSecurityRea
     @Override
     protected Details authenticate(String username, String password) throws AuthenticationException {
         Details u = loadUserByUsername(username);
-        if (!u.isPasswordCorrect(password)) {
+        if (!PasswordVerifier.INSTANCE.verify(u, password)) {
             String message;
             try {
                 message = ResourceBundle.getBundle("org.acegisecurity.messages").getString("AbstractUserDetailsAuthenticationProvider.badCredentials");
@@ -823,6 +835,116 @@ public class HudsonPrivateSecurityRealm extends AbstractPasswordBasedSecurityRea
         }
     };
 
+    /**
+     * Checks passwords on a bounded pool of threads, so that clients sending passwords with every request
+     * cannot keep all the processors busy hashing, and remembers recent successful checks for a little while.
+     *
+     * <p>
+     * Remembered checks are keyed by a digest of the user ID and password salted with a random value
+     * chosen at startup, so passwords are not kept in memory, and are only reused while the user's password hash is unchanged.
+     *
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public static final class PasswordVerifier {
+        /**
+         * Number of seconds during which a successful check is reused. 0 to disable.
+         */
+        @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Accessible via System Groovy Scripts")
+        private static /* not final */ int CACHE_SECONDS = SystemProperties.getInteger(HudsonPrivateSecurityRealm.class.getName() + ".verificationCacheSeconds", 30);
+
+        static final PasswordVerifier INSTANCE = new PasswordVerifier();
+
+        private final byte[] salt = new byte[32];
+
+        private final Cache<String, String> verified = CacheBuilder.newBuilder()
+                .maximumSize(SystemProperties.getInteger(HudsonPrivateSecurityRealm.class.getName() + ".verificationCacheSize", 1000))
+                .expireAfterWrite(Math.max(0, CACHE_SECONDS), TimeUnit.SECONDS)
+                .build();
+
+        /**
+         * By default, hashing may keep half of the processors busy, and a hundred checks may wait.
+         */
+        private final InstrumentedThreadPoolExecutor executor = InstrumentedThreadPoolExecutor.configure("Password verification",
+                HudsonPrivateSecurityRealm.class.getName() + ".verification", Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 100);
+
+        private final AtomicLong cacheHits = new AtomicLong();
+
+        private PasswordVerifier() {
+            new SecureRandom().nextBytes(salt);
+        }
+
+        /**
+         * The password checker.
+         */
+        public static PasswordVerifier get() {
+            return INSTANCE;
+        }
+
+        boolean verify(@Nonnull Details details, @Nonnull String password) throws AuthenticationException {
+            String hash = details.getPassword();
+            String key = CACHE_SECONDS > 0 && hash != null ? key(details.getUsername(), password) : null;
+            if (key != null && hash.equals(verified.getIfPresent(key))) {
+                cacheHits.incrementAndGet();
+                return true;
+            }
+            Future<Boolean> check;
+            try {
+                check = executor.submit(() -> details.isPasswordCorrect(password));
+            } catch (RejectedExecutionException e) {
+                throw new AuthenticationServiceException("Too many passwords are being checked, try again later", e);
+            }
+            boolean valid;
+            try {
+                valid = check.get();
+            } catch (InterruptedException e) {
+                check.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new AuthenticationServiceException("Interrupted while checking the password", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new AuthenticationServiceException("Failed to check the password", cause);
+            }
+            if (valid && key != null) {
+                verified.put(key, hash);
+            }
+            return valid;
+        }
+
+        private String key(String username, String password) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(salt);
+                digest.update(username.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(password.getBytes(StandardCharsets.UTF_8));
+                return Util.toHexString(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        /**
+         * Number of logins accepted by reusing a recent check.
+         */
+        public long getCacheHits() {
+            return cacheHits.get();
+        }
+
+        /**
+         * The threads checking passwords, with their number of queued and rejected checks.
+         */
+        public @Nonnull InstrumentedThreadPoolExecutor getExecutor() {
+            return executor;
+        }
+    }
+
     /**
      * {@link PasswordEncoder} that uses jBCrypt.
      */
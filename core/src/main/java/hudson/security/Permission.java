@@ -28,10 +28,13 @@ import hudson.model.Hudson;
 import jenkins.model.Jenkins;
 import net.sf.json.util.JSONUtils;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -121,6 +124,23 @@ public final class Permission {
      */
     private final @Nonnull Set<PermissionScope> scopes;
 
+    /**
+     * Position of this permission in {@link #getAll()}.
+     */
+    private final int index;
+
+    /**
+     * Indexes of this permission and of those implying it, nearest first.
+     * Since a permission can only be implied by one defined before, they are in decreasing order.
+     * Null if this object was deserialized.
+     */
+    private final int[] implication;
+
+    /**
+     * Same as {@link #implication}, as a set.
+     */
+    private final BitSet implicationSet;
+
     /**
      * Defines a new permission.
      *
@@ -161,7 +181,19 @@ public final class Permission {
         this.id = owner.getName() + '.' + name;
 
         group.add(this);
-        ALL.add(this);
+        synchronized (ALL) {
+            this.index = ALL.size();
+            int[] implied = impliedBy == null ? new int[0] : impliedBy.getImplication();
+            this.implication = new int[implied.length + 1];
+            this.implication[0] = index;
+            System.arraycopy(implied, 0, this.implication, 1, implied.length);
+            this.implicationSet = new BitSet(index + 1);
+            for (int i : this.implication) {
+                implicationSet.set(i);
+            }
+            ALL.add(this);
+        }
+        BY_ID.put(this.id, this);
     }
 
     public Permission(@Nonnull PermissionGroup group, @Nonnull String name, 
@@ -229,6 +261,35 @@ public final class Permission {
         return id;
     }
 
+    /**
+     * Dense index of this permission, for use in {@link BitSet}s of permissions.
+     * Indexes are assigned in the order permissions are defined, so they differ from one run to the next.
+     *
+     * @see #fromIndex(int)
+     * @since TODO
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Checks whether this permission or one implying it is in a set of permissions.
+     *
+     * @param permissions
+     *      {@linkplain #getIndex() indexes} of permissions.
+     * @since TODO
+     */
+    public boolean isImpliedByAny(@Nonnull BitSet permissions) {
+        return implicationSet != null && permissions.intersects(implicationSet);
+    }
+
+    /**
+     * Indexes of this permission and of those implying it, nearest first.
+     */
+    /*package*/ @Nonnull int[] getImplication() {
+        return implication == null ? new int[0] : implication;
+    }
+
     @Override public boolean equals(Object o) {
         return o instanceof Permission && getId().equals(((Permission) o).getId());
     }
@@ -245,6 +306,11 @@ public final class Permission {
      * @see #getId()
      */
     public static @CheckForNull Permission fromId(@Nonnull String id) {
+        Permission p = BY_ID.get(id);
+        if (p != null) {
+            return p;
+        }
+
         int idx = id.lastIndexOf('.');
         if(idx<0)   return null;
 
@@ -288,6 +354,18 @@ public final class Permission {
 
     private static final List<Permission> ALL_VIEW = Collections.unmodifiableList(ALL);
 
+    private static final Map<String, Permission> BY_ID = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the permission with the given {@linkplain #getIndex() index}.
+     *
+     * @throws IndexOutOfBoundsException if there is no such permission
+     * @since TODO
+     */
+    public static @Nonnull Permission fromIndex(int index) {
+        return ALL.get(index);
+    }
+
 //
 //
 // Because of the initialization order issue, these two fields need to be defined here,
@@ -28,8 +28,10 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
@@ -43,6 +45,8 @@ import org.jvnet.localizer.Localizable;
 public final class PermissionGroup implements Iterable<Permission>, Comparable<PermissionGroup> {
     private final SortedSet<Permission> permissions = new TreeSet<>(Permission.ID_COMPARATOR);
 
+    private final Map<String, Permission> permissionsByName = new ConcurrentHashMap<>();
+
     @Nonnull
     public final Class owner;
 
@@ -98,6 +102,7 @@ public final class PermissionGroup implements Iterable<Permission>, Comparable<P
         if (!permissions.add(p)) {
             throw new IllegalStateException("attempt to register a second Permission for " + p.getId());
         }
+        permissionsByName.put(p.name, p);
     }
 
     /**
@@ -117,12 +122,8 @@ public final class PermissionGroup implements Iterable<Permission>, Comparable<P
     /**
      * Finds a permission that has the given name.
      */
-    public synchronized Permission find(String name) {
-        for (Permission p : permissions) {
-            if(p.name.equals(name))
-                return p;
-        }
-        return null;
+    public Permission find(String name) {
+        return permissionsByName.get(name);
     }
 
     public int compareTo(PermissionGroup that) {
@@ -161,6 +162,7 @@ public final class PermissionGroup implements Iterable<Permission>, Comparable<P
         if (!PERMISSIONS.add(g)) {
             throw new IllegalStateException("attempt to register a second PermissionGroup for " + g.getOwnerClassName());
         }
+        BY_OWNER.put(g.owner, g);
     }
 
     /**
@@ -177,17 +179,14 @@ public final class PermissionGroup implements Iterable<Permission>, Comparable<P
      *
      * @return  null if not found.
      */
-    public static synchronized @CheckForNull PermissionGroup get(Class owner) {
-        for (PermissionGroup g : PERMISSIONS) {
-            if (g.owner == owner) {
-                return g;
-            }
-        }
-        return null;
+    public static @CheckForNull PermissionGroup get(Class owner) {
+        return BY_OWNER.get(owner);
     }
 
     /**
      * All the permissions in the system, keyed by their owners.
      */
     private static final SortedSet<PermissionGroup> PERMISSIONS = new TreeSet<>();
+
+    private static final Map<Class, PermissionGroup> BY_OWNER = new ConcurrentHashMap<>();
 }
@@ -30,6 +30,7 @@ import org.acegisecurity.acls.sid.GrantedAuthoritySid;
 import org.acegisecurity.acls.sid.Sid;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 import java.util.logging.Logger;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.FINER;
@@ -42,6 +43,36 @@ import static java.util.logging.Level.FINER;
  */
 public abstract class SidACL extends ACL {
 
+    /**
+     * Whether the class decides from the name and authorities of the principal only,
+     * so that {@link AuthorizationCache} may remember its decisions.
+     */
+    private static final ClassValue<Boolean> CACHEABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != SidACL.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("_hasPermission", Authentication.class, Permission.class);
+                    return false;
+                } catch (NoSuchMethodException e) {
+                    // not overridden here
+                }
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Stands for this ACL in the keys of {@link AuthorizationCache}, and replaced when its entries change.
+     */
+    private transient volatile Object decisionScope = new Object();
+
+    /**
+     * The last ACL returned by {@link #newInheritingACL}, so that asking again for the same parent
+     * gives the same ACL and its remembered decisions.
+     */
+    private transient volatile InheritingACL inheriting;
+
     @Override
     public boolean hasPermission(@Nonnull Authentication a, Permission permission) {
         if(a==SYSTEM) {
@@ -49,15 +80,43 @@ public abstract class SidACL extends ACL {
                 LOGGER.fine("hasPermission("+a+","+permission+")=>SYSTEM user has full access");
             return true;
         }
+        AuthorizationCache.Key key = null;
+        if (AuthorizationCache.isEnabled() && CACHEABLE.get(getClass())) {
+            key = new AuthorizationCache.Key(getDecisionScope(), a, permission);
+            Boolean b = AuthorizationCache.get(key);
+            if (b != null) {
+                return b;
+            }
+        }
         Boolean b = _hasPermission(a,permission);
 
         if(LOGGER.isLoggable(FINE))
             LOGGER.fine("hasPermission("+a+","+permission+")=>"+(b==null?"null, thus false":b));
 
         if(b==null) b=false;    // default to rejection
+        if (key != null) {
+            AuthorizationCache.put(key, b);
+        }
         return b;
     }
 
+    /**
+     * Forgets the decisions remembered for this ACL, and for the ACLs inheriting from it.
+     * Subclasses whose entries can change after they are first used should call this when they do.
+     *
+     * @since TODO
+     */
+    protected final void forgetDecisions() {
+        decisionScope = new Object();
+    }
+
+    /**
+     * Identifies the decisions of this ACL among the ones remembered by {@link AuthorizationCache}.
+     */
+    Object getDecisionScope() {
+        return decisionScope;
+    }
+
     /**
      * Implementation that backs up {@link #hasPermission(Authentication, Permission)}.
      *
@@ -136,14 +195,33 @@ public abstract class SidACL extends ACL {
      * not be applied.
      */
     public final SidACL newInheritingACL(final SidACL parent) {
-        final SidACL child = this;
-        return new SidACL() {
-            protected Boolean hasPermission(Sid p, Permission permission) {
-                Boolean b = child.hasPermission(p, permission);
-                if(b!=null) return b;
-                return parent.hasPermission(p,permission);
-            }
-        };
+        InheritingACL acl = inheriting;
+        if (acl == null || acl.parent != parent) {
+            inheriting = acl = new InheritingACL(this, parent);
+        }
+        return acl;
+    }
+
+    private static final class InheritingACL extends SidACL {
+        private final SidACL child;
+        private final SidACL parent;
+
+        InheritingACL(SidACL child, SidACL parent) {
+            this.child = child;
+            this.parent = parent;
+        }
+
+        @Override
+        Object getDecisionScope() {
+            // the decisions also depend on the entries of both ACLs
+            return Arrays.asList(super.getDecisionScope(), child.getDecisionScope(), parent.getDecisionScope());
+        }
+
+        protected Boolean hasPermission(Sid p, Permission permission) {
+            Boolean b = child.hasPermission(p, permission);
+            if(b!=null) return b;
+            return parent.hasPermission(p,permission);
+        }
     }
 
     private static final Logger LOGGER = Logger.getLogger(SidACL.class.getName());
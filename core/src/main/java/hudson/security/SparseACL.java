@@ -27,7 +27,10 @@ import org.acegisecurity.Authentication;
 import org.acegisecurity.acls.sid.Sid;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import static java.util.logging.Level.FINE;
 
@@ -51,6 +54,11 @@ public class SparseACL extends SidACL {
     }
 
     private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * {@link #entries} by {@link Sid}, computed when first needed.
+     */
+    private transient volatile Map<Sid, Decisions> decisions;
     /**
      * Parent to delegate to. Can be null.
      */
@@ -61,7 +69,11 @@ public class SparseACL extends SidACL {
     }
 
     public void add(Entry e) {
-        entries.add(e);
+        synchronized (entries) {
+            entries.add(e);
+            decisions = null;
+        }
+        forgetDecisions();
     }
 
     public void add(Sid sid, Permission permission, boolean allowed) {
@@ -86,14 +98,51 @@ public class SparseACL extends SidACL {
 
     @Override
     protected Boolean hasPermission(Sid p, Permission permission) {
-        for( ; permission!=null; permission=permission.impliedBy ) {
-            for (Entry e : entries) {
-                if(e.permission==permission && e.sid.equals(p))
-                    return e.allowed;
+        Decisions d = getDecisions().get(p);
+        if (d == null || permission == null) {
+            return null;
+        }
+        // the nearest permission in the implication chain with an entry decides
+        for (int i : permission.getImplication()) {
+            if (d.decided.get(i)) {
+                return d.allowed.get(i);
             }
         }
         return null;
     }
 
+    private Map<Sid, Decisions> getDecisions() {
+        Map<Sid, Decisions> d = decisions;
+        if (d == null) {
+            synchronized (entries) {
+                d = new HashMap<>();
+                for (Entry e : entries) {
+                    d.computeIfAbsent(e.sid, k -> new Decisions()).add(e);
+                }
+                decisions = d;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Decisions of the entries for one {@link Sid}, by {@linkplain Permission#getIndex() permission index}.
+     */
+    private static final class Decisions {
+        final BitSet decided = new BitSet();
+        final BitSet allowed = new BitSet();
+
+        void add(Entry e) {
+            if (e.permission == null || e.permission.getImplication().length == 0) {
+                return; // not a defined permission, so it can never match
+            }
+            int i = e.permission.getIndex();
+            if (!decided.get(i)) { // the first entry wins
+                decided.set(i);
+                allowed.set(i, e.allowed);
+            }
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(SparseACL.class.getName());
 }
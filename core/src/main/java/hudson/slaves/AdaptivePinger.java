@@ -0,0 +1,419 @@
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.remoting.Channel;
+import hudson.remoting.PingThread;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.TransientActionFactory;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.security.SlaveToMasterCallable;
+import jenkins.slaves.PingFailureAnalyzer;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks that channels are alive like {@link ChannelPinger}, but adapts to the traffic and latency of each channel.
+ *
+ * <p>
+ * Rather than a {@link PingThread} per channel pinging at a fixed interval, a single scheduler looks at when each
+ * channel last heard from the other side. Any command received counts, so channels in use are not pinged at all;
+ * only those that have been quiet for {@link #IDLE_MILLIS} are. The round trip times of these pings are recorded,
+ * and a ping times out after a multiple of their 99th percentile, between {@link #MIN_TIMEOUT_MILLIS} and the
+ * {@link ChannelPinger} timeout. A dead link is thus noticed within seconds on a LAN, while a slow WAN link still
+ * gets the time it needs. A channel is only given up on if nothing at all was heard during that time.
+ *
+ * <p>
+ * Enabled with the {@code hudson.slaves.ChannelPinger.adaptive} system property, on both sides of agent channels.
+ * The latency percentiles of each agent are then exported in the remote API of its computer.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+public final class AdaptivePinger {
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptivePinger.class.getName());
+
+    private static final Map<Channel, Liveness> CHANNELS = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService scheduler;
+
+    private static final ExecutorService PINGERS = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "AdaptivePinger"));
+
+    private AdaptivePinger() {}
+
+    /**
+     * Starts checking the given channel.
+     *
+     * @param computer
+     *      The computer to disconnect when the channel is dead, if known.
+     * @param fromController
+     *      Whether this is the controller side of the channel.
+     * @param maxTimeoutMillis
+     *      Longest time to wait for a ping.
+     */
+    static void install(@Nonnull final Channel channel, @CheckForNull SlaveComputer computer, boolean fromController, long maxTimeoutMillis) {
+        Liveness l = new Liveness(channel, computer, fromController, maxTimeoutMillis);
+        if (CHANNELS.putIfAbsent(channel, l) != null) {
+            return;
+        }
+        channel.addListener(new Channel.Listener() {
+            @Override
+            public void onClosed(Channel channel, IOException cause) {
+                LOGGER.log(Level.FINE, "Stopped checking {0}", channel.getName());
+                CHANNELS.remove(channel);
+            }
+        });
+        startScheduler();
+        LOGGER.log(Level.FINE, "Checking {0} when idle for {1}ms, with a timeout of at most {2}ms",
+                new Object[] {channel.getName(), IDLE_MILLIS, maxTimeoutMillis});
+    }
+
+    private static synchronized void startScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(new DaemonThreadFactory(), "AdaptivePinger.check"));
+            scheduler.scheduleWithFixedDelay(AdaptivePinger::checkAll, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void checkAll() {
+        long now = System.currentTimeMillis();
+        for (Liveness l : CHANNELS.values()) {
+            try {
+                l.check(now);
+            } catch (RuntimeException x) {
+                LOGGER.log(Level.WARNING, "Failed to check " + l.channel.getName(), x);
+            }
+        }
+    }
+
+    /**
+     * The latency measured on the given channel, or null if it is not checked by this class.
+     */
+    public static @CheckForNull Latency getLatency(@CheckForNull VirtualChannel channel) {
+        Liveness l = channel instanceof Channel ? CHANNELS.get(channel) : null;
+        return l == null ? null : l.getLatency();
+    }
+
+    /**
+     * Liveness of one channel.
+     */
+    static final class Liveness {
+        final Channel channel;
+        private final @CheckForNull SlaveComputer computer;
+        private final boolean fromController;
+        private final long maxTimeout;
+
+        /**
+         * Ring buffer of the latest round trip times, in milliseconds.
+         */
+        private final long[] samples = new long[SAMPLES];
+        private int count;
+        private int next;
+
+        /**
+         * When the outstanding ping was sent, or 0 if there is none.
+         */
+        private volatile long pingStarted;
+        private volatile long lastPing;
+        private volatile boolean dead;
+
+        Liveness(Channel channel, @CheckForNull SlaveComputer computer, boolean fromController, long maxTimeout) {
+            this.channel = channel;
+            this.computer = computer;
+            this.fromController = fromController;
+            this.maxTimeout = maxTimeout;
+        }
+
+        synchronized void record(long rtt) {
+            samples[next] = rtt;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized Latency getLatency() {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return new Latency(sorted, timeoutFor(sorted));
+        }
+
+        long getTimeout() {
+            return getLatency().getTimeout();
+        }
+
+        private long timeoutFor(long[] sorted) {
+            if (sorted.length < MIN_SAMPLES) {
+                return maxTimeout;
+            }
+            return Math.min(maxTimeout, Math.max(MIN_TIMEOUT_MILLIS, percentile(sorted, 0.99) * RTT_MULTIPLIER));
+        }
+
+        void check(long now) {
+            if (dead) {
+                return;
+            }
+            long quiet = now - channel.getLastHeard();
+            long started = pingStarted;
+            if (started != 0) {
+                long timeout = getTimeout();
+                if (now - started > timeout && quiet > timeout) {
+                    dead = true;
+                    onDead(new TimeoutException("Ping started at " + started + " hasn't completed by " + now
+                            + " and nothing was heard for " + quiet + "ms"));
+                }
+                return;
+            }
+            if (quiet >= IDLE_MILLIS && now - lastPing >= IDLE_MILLIS) {
+                ping(now);
+            }
+        }
+
+        private void ping(long now) {
+            pingStarted = now;
+            lastPing = now;
+            PINGERS.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    channel.call(fromController ? new PingToAgent() : new PingToController());
+                    record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    pingStarted = 0;
+                } catch (IOException | RuntimeException x) {
+                    // leave the ping outstanding, so that the channel is given up on if nothing else is heard
+                    LOGGER.log(Level.FINE, "Failed to ping " + channel.getName(), x);
+                } catch (InterruptedException x) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        private void onDead(Throwable cause) {
+            if (fromController) {
+                analyze(cause);
+            }
+            if (computer != null) {
+                computer.disconnect(new OfflineCause.ChannelTermination(cause instanceof Exception ? (Exception) cause : new IOException(cause)));
+            } else {
+                channel.terminate(new IOException("Ping failed", cause));
+            }
+            LOGGER.log(Level.INFO, "Ping failed. Terminating the channel " + channel.getName() + ".", cause);
+        }
+
+        /** Keep in a separate method so we do not even try to do class loading on {@link PingFailureAnalyzer} from an agent JVM. */
+        private void analyze(Throwable cause) {
+            for (PingFailureAnalyzer pfa : PingFailureAnalyzer.all()) {
+                try {
+                    pfa.onPingFailure(channel, cause);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Ping failure analyzer " + pfa.getClass().getName() + " failed for " + channel.getName(), ex);
+                }
+            }
+        }
+    }
+
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /**
+     * Round trip times measured on a channel, in milliseconds.
+     */
+    @ExportedBean
+    public static final class Latency {
+        private final int samples;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+        private final long timeout;
+
+        Latency(long[] sorted, long timeout) {
+            this.samples = sorted.length;
+            this.p50 = percentile(sorted, 0.5);
+            this.p90 = percentile(sorted, 0.9);
+            this.p99 = percentile(sorted, 0.99);
+            this.max = sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+            this.timeout = timeout;
+        }
+
+        /**
+         * Number of pings the percentiles are computed from.
+         */
+        @Exported
+        public int getSamples() {
+            return samples;
+        }
+
+        @Exported
+        public long getP50() {
+            return p50;
+        }
+
+        @Exported
+        public long getP90() {
+            return p90;
+        }
+
+        @Exported
+        public long getP99() {
+            return p99;
+        }
+
+        @Exported
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Current ping timeout.
+         */
+        @Exported
+        public long getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        public String toString() {
+            return "p50=" + p50 + "ms p90=" + p90 + "ms p99=" + p99 + "ms max=" + max + "ms (" + samples + " pings), timeout=" + timeout + "ms";
+        }
+    }
+
+    /**
+     * Exposes the {@link Latency} of agents in the remote API of their computer.
+     */
+    @ExportedBean
+    public static final class LatencyAction implements Action {
+        private final Computer computer;
+
+        LatencyAction(Computer computer) {
+            this.computer = computer;
+        }
+
+        @Exported
+        public @CheckForNull Latency getLatency() {
+            return AdaptivePinger.getLatency(computer.getChannel());
+        }
+
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return null;
+        }
+    }
+
+    @Extension
+    public static final class LatencyActionFactory extends TransientActionFactory<Computer> {
+        @Override
+        public Class<Computer> type() {
+            return Computer.class;
+        }
+
+        @Nonnull
+        @Override
+        public Collection<? extends Action> createFor(@Nonnull Computer target) {
+            return ENABLED && target instanceof SlaveComputer
+                    ? Collections.singleton(new LatencyAction(target))
+                    : Collections.<Action>emptySet();
+        }
+    }
+
+    private static final class PingToAgent extends MasterToSlaveCallable<Void, RuntimeException> {
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+
+    private static final class PingToController extends SlaveToMasterCallable<Void, RuntimeException> {
+        private static final long serialVersionUID = 1L;
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+
+    /**
+     * Sets up the check on the agent side.
+     */
+    static final class SetUpRemote extends MasterToSlaveCallable<Void, IOException> {
+        private static final long serialVersionUID = 1L;
+        private final long maxTimeoutMillis;
+
+        SetUpRemote(long maxTimeoutMillis) {
+            this.maxTimeoutMillis = maxTimeoutMillis;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            install(getOpenChannelOrFail(), null, false, maxTimeoutMillis);
+            return null;
+        }
+    }
+
+    /**
+     * Whether {@link ChannelPinger} uses this class instead of a {@link PingThread}.
+     */
+    static /* not final */ boolean ENABLED = SystemProperties.getBoolean(ChannelPinger.class.getName() + ".adaptive");
+
+    /**
+     * How long a channel may be quiet before it is pinged, in milliseconds.
+     */
+    static /* not final */ long IDLE_MILLIS = SystemProperties.getLong(AdaptivePinger.class.getName() + ".idleMillis", TimeUnit.MINUTES.toMillis(1));
+
+    /**
+     * Shortest ping timeout, in milliseconds, however fast the channel.
+     */
+    static /* not final */ long MIN_TIMEOUT_MILLIS = SystemProperties.getLong(AdaptivePinger.class.getName() + ".minTimeoutMillis", TimeUnit.SECONDS.toMillis(15));
+
+    /**
+     * Ping timeout as a multiple of the 99th percentile of the round trip time.
+     */
+    static /* not final */ int RTT_MULTIPLIER = SystemProperties.getInteger(AdaptivePinger.class.getName() + ".rttMultiplier", 10);
+
+    /**
+     * Number of round trip times kept per channel.
+     */
+    private static final int SAMPLES = 128;
+
+    /**
+     * Number of round trip times needed before the timeout is adapted.
+     */
+    private static final int MIN_SAMPLES = 5;
+
+    private static final long TICK_MILLIS = 1000;
+}
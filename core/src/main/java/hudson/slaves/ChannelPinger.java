@@ -109,6 +109,18 @@ public class ChannelPinger extends ComputerListener {
             return;
         }
 
+        if (AdaptivePinger.ENABLED) {
+            long timeoutMillis = TimeUnit.SECONDS.toMillis(pingTimeoutSeconds);
+            try {
+                channel.call(new AdaptivePinger.SetUpRemote(timeoutMillis));
+                LOGGER.fine("Set up a remote adaptive ping for " + channel.getName());
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Failed to set up a ping for " + channel.getName(), e);
+            }
+            AdaptivePinger.install(channel, c, true, timeoutMillis);
+            return;
+        }
+
         // set up ping from both directions, so that in case of a router dropping a connection,
         // both sides can notice it and take compensation actions.
         try {
@@ -0,0 +1,171 @@
+package hudson.slaves;
+
+import hudson.model.LoadStatistics;
+import jenkins.util.SystemProperties;
+
+/**
+ * Forecasts the executor demand of a single label from its recent history.
+ *
+ * <p>
+ * The demand is the number of executors that work wants right now: busy executors plus the buildable
+ * items waiting in the queue. It is smoothed with Holt's linear method, i.e. an exponentially smoothed
+ * level plus an exponentially smoothed rate of change. The rate is the net arrival rate: how much faster
+ * work is arriving than it is being served. The rate is damped when projecting further ahead, so that
+ * the end of a ramp does not cause an overshoot. Unlike the plain moving averages kept by {@link LoadStatistics},
+ * which lag behind a burst, the rate lets us project the demand to the moment newly provisioned capacity
+ * would actually come online.
+ *
+ * <p>
+ * Observations do not need to be evenly spaced: the smoothing factors are given per {@link LoadStatistics#CLOCK}
+ * tick and scaled to the actual time elapsed between two observations.
+ *
+ * <p>
+ * This class has no dependency on the live {@link jenkins.model.Jenkins} model, so it can be fed with
+ * recorded {@link LoadStatistics.LoadStatisticsSnapshot}s to replay a workload offline.
+ *
+ * @see PredictiveProvisioningStrategy
+ * @since TODO
+ */
+public final class DemandForecast {
+    private final double alpha;
+    private final double beta;
+    private final double tickSeconds;
+    private final double phi;
+
+    private long lastObservation = Long.MIN_VALUE;
+    private double level;
+    /**
+     * Change of {@link #level} in executors per second.
+     */
+    private double trend;
+    private float current;
+
+    /**
+     * Creates a forecast with the default smoothing factors and the {@link LoadStatistics#CLOCK} tick.
+     */
+    public DemandForecast() {
+        this(ALPHA, BETA, PHI, LoadStatistics.CLOCK);
+    }
+
+    /**
+     * @param alpha
+     *      Smoothing factor of the level per tick, in (0,1]. Higher values follow the demand more closely.
+     * @param beta
+     *      Smoothing factor of the rate per tick, in (0,1]. Higher values react faster to bursts.
+     * @param phi
+     *      Damping of the rate per tick when projecting, in (0,1]. 1 means no damping.
+     * @param tickMillis
+     *      Length of the tick the smoothing factors refer to.
+     */
+    public DemandForecast(double alpha, double beta, double phi, long tickMillis) {
+        if (alpha <= 0 || alpha > 1 || beta <= 0 || beta > 1 || phi <= 0 || phi > 1 || tickMillis <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.phi = phi;
+        this.tickSeconds = tickMillis / 1000.0;
+    }
+
+    /**
+     * Demand represented by a snapshot: executors that are busy plus items waiting for one.
+     */
+    public static int demandOf(LoadStatistics.LoadStatisticsSnapshot snapshot) {
+        return snapshot.getBusyExecutors() + snapshot.getQueueLength();
+    }
+
+    /**
+     * Records the demand of a snapshot taken at the given time.
+     */
+    public void observe(long timestamp, LoadStatistics.LoadStatisticsSnapshot snapshot) {
+        observe(timestamp, demandOf(snapshot));
+    }
+
+    /**
+     * Records the demand observed at the given time.
+     *
+     * @param timestamp
+     *      Time of the observation in milliseconds. Observations older than the last one are ignored.
+     * @param demand
+     *      Number of executors wanted at that time.
+     */
+    public synchronized void observe(long timestamp, float demand) {
+        if (lastObservation == Long.MIN_VALUE) {
+            level = demand;
+            trend = 0;
+        } else if (timestamp > lastObservation) {
+            double dt = (timestamp - lastObservation) / 1000.0;
+            double ticks = dt / tickSeconds;
+            double a = 1 - Math.pow(1 - alpha, ticks);
+            double b = 1 - Math.pow(1 - beta, ticks);
+            double previousLevel = level;
+            level = a * demand + (1 - a) * (level + trend * dt);
+            trend = b * (level - previousLevel) / dt + (1 - b) * trend;
+        } else {
+            // several reviews within the same millisecond; only keep the latest value
+            current = demand;
+            return;
+        }
+        lastObservation = timestamp;
+        current = demand;
+    }
+
+    /**
+     * Whether anything was observed yet.
+     */
+    public synchronized boolean hasData() {
+        return lastObservation != Long.MIN_VALUE;
+    }
+
+    /**
+     * The last observed demand.
+     */
+    public synchronized float getCurrent() {
+        return current;
+    }
+
+    /**
+     * The smoothed net arrival rate, in executors per second. Negative when the demand is going down.
+     */
+    public synchronized float getRate() {
+        return (float) trend;
+    }
+
+    /**
+     * Projects the demand {@code horizonMillis} after the last observation.
+     */
+    public synchronized float getForecast(long horizonMillis) {
+        double ticks = horizonMillis / 1000.0 / tickSeconds;
+        double dampedTicks = phi == 1 ? ticks : phi * (1 - Math.pow(phi, ticks)) / (1 - phi);
+        return (float) Math.max(0, level + trend * tickSeconds * dampedTicks);
+    }
+
+    /**
+     * The demand to plan for when capacity takes {@code horizonMillis} to come online: the projection,
+     * but never less than what is wanted right now.
+     */
+    public synchronized float getExpectedDemand(long horizonMillis) {
+        return Math.max(current, getForecast(horizonMillis));
+    }
+
+    /**
+     * Number of executors missing to serve the expected demand.
+     *
+     * @param horizonMillis
+     *      How long it takes for provisioned capacity to come online.
+     * @param capacity
+     *      Executors that are online, connecting, or planned.
+     */
+    public float getExpectedShortfall(long horizonMillis, float capacity) {
+        return getExpectedDemand(horizonMillis) - capacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DemandForecast{current=" + current + ", level=" + (float) level + ", rate=" + (float) trend + "/s}";
+    }
+
+    private static final double ALPHA = Double.parseDouble(SystemProperties.getString(DemandForecast.class.getName() + ".alpha", "0.5"));
+    private static final double BETA = Double.parseDouble(SystemProperties.getString(DemandForecast.class.getName() + ".beta", "0.3"));
+    private static final double PHI = Double.parseDouble(SystemProperties.getString(DemandForecast.class.getName() + ".phi", "0.8"));
+}
@@ -151,6 +151,11 @@ public class NodeProvisioner {
     private final MultiStageTimeSeries plannedCapacitiesEMA =
             new MultiStageTimeSeries(Messages._NodeProvisioner_EmptyString(),Color.WHITE,0,DECAY);
 
+    /**
+     * Forecast of the demand for this {@link #label}, fed on every review.
+     */
+    private final DemandForecast demandForecast = new DemandForecast();
+
     public NodeProvisioner(@CheckForNull Label label, LoadStatistics loadStatistics) {
         this.label = label;
         this.stat = loadStatistics;
@@ -167,6 +172,16 @@ public class NodeProvisioner {
         return new ArrayList<>(pendingLaunches.get());
     }
 
+    /**
+     * Forecast of the executor demand for the label of this provisioner.
+     *
+     * @since TODO
+     */
+    @Nonnull
+    public DemandForecast getDemandForecast() {
+        return demandForecast;
+    }
+
     /**
      * Give the {@link NodeProvisioner} a hint that now would be a good time to think about provisioning some nodes.
      * Hints are throttled to one every second.
@@ -178,7 +193,7 @@ public class NodeProvisioner {
             long delay = TimeUnit.SECONDS.toMillis(1) - (System.currentTimeMillis() - lastSuggestedReview);
             if (delay < 0) {
                 lastSuggestedReview = System.currentTimeMillis();
-                Computer.threadPoolForRemoting.submit(() -> {
+                Computer.threadPoolForListeners.submit(() -> {
                     LOGGER.fine(() -> "running suggested review for " + label);
                     update();
                 });
@@ -310,11 +325,13 @@ public class NodeProvisioner {
                     plannedCapacitiesEMA.update(plannedCapacity);
 
                     final LoadStatistics.LoadStatisticsSnapshot snapshot = stat.computeSnapshot();
+                    demandForecast.observe(System.currentTimeMillis(), snapshot);
 
                     int availableSnapshot = snapshot.getAvailableExecutors();
                     int queueLengthSnapshot = snapshot.getQueueLength();
 
-                    if (queueLengthSnapshot <= availableSnapshot) {
+                    if (queueLengthSnapshot <= availableSnapshot
+                            && !PredictiveProvisioningStrategy.isProvisioningAhead(demandForecast, snapshot, plannedCapacitySnapshot)) {
                         LOGGER.log(Level.FINER,
                                 "Queue length {0} is less than the available capacity {1}. No provisioning strategy required",
                                 new Object[]{queueLengthSnapshot, availableSnapshot});
@@ -483,6 +500,15 @@ public class NodeProvisioner {
             return additionalPlannedCapacity;
         }
 
+        /**
+         * The forecast of the executor demand for this {@link #getLabel()}, already updated with {@link #getSnapshot()}.
+         * @since TODO
+         */
+        @Nonnull
+        public DemandForecast getDemandForecast() {
+            return demandForecast;
+        }
+
         /**
          * The time series average number of items in the queue requiring this {@link #getLabel()}.
          */
@@ -900,7 +926,7 @@ public class NodeProvisioner {
         }
     }
 
-    private static void fireOnStarted(final Cloud cloud, final Label label,
+    static void fireOnStarted(final Cloud cloud, final Label label,
                                       final Collection<NodeProvisioner.PlannedNode> plannedNodes) {
         for (CloudProvisioningListener cl : CloudProvisioningListener.all()) {
             try {
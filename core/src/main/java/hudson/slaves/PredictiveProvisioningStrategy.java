@@ -0,0 +1,116 @@
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.model.LoadStatistics;
+import hudson.slaves.NodeProvisioner.PlannedNode;
+import hudson.slaves.NodeProvisioner.StrategyDecision;
+import hudson.slaves.NodeProvisioner.StrategyState;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.Symbol;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link NodeProvisioner.Strategy} that provisions ahead of need, based on the {@link DemandForecast} of the label.
+ *
+ * <p>
+ * {@link NodeProvisioner.StandardStrategyImpl} waits for the moving averages of the queue length to rise
+ * before launching anything, then launches for the work that is queued at that point. With bursty workloads
+ * that means builds wait for the averages to catch up and then for the agents to come online. This strategy
+ * instead projects the demand {@link #LEAD_TIME} into the future (the time it typically takes a cloud agent
+ * to come online) and provisions the difference between that and the capacity that is online, connecting
+ * or already planned. When the demand is flat or going down, nothing is provisioned beyond what is wanted now.
+ *
+ * <p>
+ * It runs before the standard strategy and is disabled unless the {@code hudson.slaves.PredictiveProvisioningStrategy.enabled}
+ * system property is set, in which case the {@link NodeProvisioner} also consults strategies when the queue is not
+ * (yet) longer than the available executors but the forecast says it soon will be.
+ *
+ * @since TODO
+ */
+@Extension(ordinal = 100) @Symbol("predictive")
+public class PredictiveProvisioningStrategy extends NodeProvisioner.Strategy {
+
+    @Nonnull
+    @Override
+    public StrategyDecision apply(@Nonnull StrategyState state) {
+        if (!ENABLED) {
+            return StrategyDecision.CONSULT_REMAINING_STRATEGIES;
+        }
+        DemandForecast forecast = state.getDemandForecast();
+        if (!forecast.hasData()) {
+            return StrategyDecision.CONSULT_REMAINING_STRATEGIES;
+        }
+
+        float shortfall = forecast.getExpectedShortfall(LEAD_TIME, capacityOf(state));
+        if (shortfall < 1) {
+            return StrategyDecision.CONSULT_REMAINING_STRATEGIES;
+        }
+        LOGGER.log(Level.FINE, "Expected shortfall of {0,number,#.###} executors for {1} in {2}ms ({3})",
+                new Object[] {shortfall, state.getLabel(), LEAD_TIME, forecast});
+
+        CLOUD:
+        for (Cloud c : Jenkins.get().clouds) {
+            if (shortfall < 1) {
+                break;
+            }
+            if (!c.canProvision(state.getLabel())) {
+                continue;
+            }
+            // only ask for whole executors; a fraction will be picked up by the next review if it persists
+            int workloadToProvision = (int) Math.floor(shortfall);
+            for (CloudProvisioningListener cl : CloudProvisioningListener.all()) {
+                if (cl.canProvision(c, state.getLabel(), workloadToProvision) != null) {
+                    continue CLOUD;
+                }
+            }
+
+            Collection<PlannedNode> additionalCapacities = c.provision(state.getLabel(), workloadToProvision);
+            NodeProvisioner.fireOnStarted(c, state.getLabel(), additionalCapacities);
+            for (PlannedNode ac : additionalCapacities) {
+                shortfall -= ac.numExecutors;
+                LOGGER.log(Level.INFO, "Started provisioning {0} from {1} ahead of demand with {2,number,integer} "
+                                + "executors. Remaining expected shortfall: {3,number,#.###}",
+                        new Object[] {ac.displayName, c.name, ac.numExecutors, shortfall});
+            }
+            state.recordPendingLaunches(additionalCapacities);
+        }
+        return shortfall < 1 ? StrategyDecision.PROVISIONING_COMPLETED : StrategyDecision.CONSULT_REMAINING_STRATEGIES;
+    }
+
+    /**
+     * Executors that are, or will soon be, able to take work.
+     */
+    private static float capacityOf(StrategyState state) {
+        LoadStatistics.LoadStatisticsSnapshot snapshot = state.getSnapshot();
+        return snapshot.getOnlineExecutors() + snapshot.getConnectingExecutors()
+                + state.getPlannedCapacitySnapshot() + state.getAdditionalPlannedCapacity();
+    }
+
+    /**
+     * Whether {@link NodeProvisioner} should consult the strategies for a label whose queue is not longer
+     * than its available executors.
+     */
+    static boolean isProvisioningAhead(DemandForecast forecast, LoadStatistics.LoadStatisticsSnapshot snapshot, int plannedCapacity) {
+        return ENABLED && forecast.hasData()
+                && forecast.getExpectedShortfall(LEAD_TIME, snapshot.getOnlineExecutors() + snapshot.getConnectingExecutors() + plannedCapacity) >= 1;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PredictiveProvisioningStrategy.class.getName());
+
+    /**
+     * Whether this strategy is active.
+     */
+    private static /* not final */ boolean ENABLED = SystemProperties.getBoolean(PredictiveProvisioningStrategy.class.getName() + ".enabled");
+
+    /**
+     * How far ahead, in milliseconds, the demand is projected. Should be close to the time it takes for
+     * a provisioned agent to come online.
+     */
+    static /* not final */ long LEAD_TIME = SystemProperties.getLong(PredictiveProvisioningStrategy.class.getName() + ".leadTime", TimeUnit.MINUTES.toMillis(1));
+}
@@ -278,7 +278,7 @@ public class SlaveComputer extends Computer {
             logger.fine("Forcing a reconnect on "+getName());
 
         closeChannel();
-        return lastConnectActivity = Computer.threadPoolForRemoting.submit(() -> {
+        return lastConnectActivity = Computer.threadPoolForLaunching.submit(() -> {
             // do this on another thread so that the lengthy launch operation
             // (which is typical) won't block UI thread.
 
@@ -750,7 +750,7 @@ public class SlaveComputer extends Computer {
     @Override
     public Future<?> disconnect(OfflineCause cause) {
         super.disconnect(cause);
-        return Computer.threadPoolForRemoting.submit(new Runnable() {
+        return Computer.threadPoolForLaunching.submit(new Runnable() {
             public void run() {
                 // do this on another thread so that any lengthy disconnect operation
                 // (which could be typical) won't block UI thread.
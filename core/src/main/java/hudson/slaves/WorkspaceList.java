@@ -34,8 +34,11 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 /**
@@ -67,9 +70,10 @@ public final class WorkspaceList {
         public final long time = System.currentTimeMillis();
 
         /**
-         * From where?
+         * From where? Only recorded if the {@code hudson.slaves.WorkspaceList.captureAllocationPoints}
+         * system property is set, since capturing a stack trace on every allocation is not free.
          */
-        public final Exception source = new AllocationAt();
+        public final @CheckForNull Exception source = CAPTURE_ALLOCATION_POINTS ? new AllocationAt() : null;
 
         /**
          * True makes the caller of {@link WorkspaceList#allocate(FilePath)} wait
@@ -84,6 +88,9 @@ public final class WorkspaceList {
          */
         public final Object context;
         
+        /**
+         * Guarded by the lock of the {@link Stripe} the path belongs to.
+         */
         public int lockCount=1;
 
         private Entry(@Nonnull FilePath path, boolean quick) {
@@ -100,7 +107,7 @@ public final class WorkspaceList {
         public String toString() {
             String s = path+" owned by "+holder.getName()+" from "+new Date(time);
             if(quick) s+=" (quick)";
-            s+="\n"+Functions.printThrowable(source);
+            if (source != null) s+="\n"+Functions.printThrowable(source);
             return s;
         }
     }
@@ -155,9 +162,69 @@ public final class WorkspaceList {
         }
     }
 
-    private final Map<String, Entry> inUse = new HashMap<>();
+    /**
+     * Workspaces in use are spread over independent stripes by path, so that executors allocating
+     * different workspaces do not contend on a single lock. Waiting is done per path.
+     */
+    private final Stripe[] stripes = new Stripe[STRIPES];
 
     public WorkspaceList() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * A share of the workspaces in use, along with the threads waiting for one of them.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Entry> inUse = new HashMap<>();
+        private final Map<String, Waiters> waiters = new HashMap<>();
+
+        /**
+         * Waits until the given path is released. Must be called with {@link #lock} held.
+         */
+        void await(String path) throws InterruptedException {
+            Waiters w = waiters.get(path);
+            if (w == null) {
+                w = new Waiters(lock.newCondition());
+                waiters.put(path, w);
+            }
+            w.count++;
+            try {
+                w.released.await();
+            } finally {
+                if (--w.count == 0) {
+                    waiters.remove(path);
+                }
+            }
+        }
+
+        /**
+         * Wakes up the threads waiting for the given path. Must be called with {@link #lock} held.
+         */
+        void signal(String path) {
+            Waiters w = waiters.get(path);
+            if (w != null) {
+                w.released.signalAll();
+            }
+        }
+    }
+
+    private static final class Waiters {
+        private final Condition released;
+        private int count;
+
+        Waiters(Condition released) {
+            this.released = released;
+        }
+    }
+
+    private Stripe stripeOf(String path) {
+        int h = path.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
     }
 
     /**
@@ -167,7 +234,7 @@ public final class WorkspaceList {
      * This method doesn't block prolonged amount of time. Whenever a desired workspace
      * is in use, the unique variation is added.
      */
-    public synchronized Lease allocate(@Nonnull FilePath base) throws InterruptedException {
+    public Lease allocate(@Nonnull FilePath base) throws InterruptedException {
         return allocate(base,new Object());
     }
 
@@ -178,43 +245,80 @@ public final class WorkspaceList {
      *      Threads that share the same context can re-acquire the same lock (which will just increment the lock count.)
      *      This allows related executors to share the same workspace.
      */
-    public synchronized Lease allocate(@Nonnull FilePath base, Object context) throws InterruptedException {
+    public Lease allocate(@Nonnull FilePath base, Object context) throws InterruptedException {
         for (int i=1; ; i++) {
             FilePath candidate = i==1 ? base : base.withSuffix(COMBINATOR+i);
-            Entry e = inUse.get(candidate.getRemote());
-            if(e!=null && !e.quick && e.context!=context)
-                continue;
-            return acquire(candidate,false,context);
+            String path = candidate.getRemote();
+            Stripe stripe = stripeOf(path);
+            stripe.lock.lock();
+            try {
+                while (true) {
+                    Entry e = stripe.inUse.get(path);
+                    if (e == null) {
+                        stripe.inUse.put(path, new Entry(candidate, false, context));
+                    } else if (e.context == context) {
+                        e.lockCount++;
+                    } else if (e.quick) {
+                        // will be returned shortly, so wait for it rather than creating yet another workspace
+                        stripe.await(path);
+                        continue;
+                    } else {
+                        break; // in use; try the next variation
+                    }
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.log(Level.FINE, "allocated " + candidate, new Throwable("from " + this));
+                    }
+                    return lease(candidate);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
         }
     }
 
     /**
      * Just record that this workspace is being used, without paying any attention to the synchronization support.
      */
-    public synchronized Lease record(@Nonnull FilePath p) {
+    public Lease record(@Nonnull FilePath p) {
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE, "recorded " + p, new Throwable("from " + this));
         }
-        Entry old = inUse.put(p.getRemote(), new Entry(p, false));
-        if (old!=null)
-            throw new AssertionError("Tried to record a workspace already owned: "+old);
+        String path = p.getRemote();
+        Stripe stripe = stripeOf(path);
+        stripe.lock.lock();
+        try {
+            Entry old = stripe.inUse.get(path);
+            if (old!=null)
+                throw new AssertionError("Tried to record a workspace already owned: "+old);
+            stripe.inUse.put(path, new Entry(p, false));
+        } finally {
+            stripe.lock.unlock();
+        }
         return lease(p);
     }
 
     /**
      * Releases an allocated or acquired workspace.
      */
-    private synchronized void _release(@Nonnull FilePath p) {
-        Entry old = inUse.get(p.getRemote());
-        if (old==null)
-            throw new AssertionError("Releasing unallocated workspace "+p);
-        if (LOGGER.isLoggable(Level.FINE)) {
-            LOGGER.log(Level.FINE, "releasing " + p + " with lock count " + old.lockCount, new Throwable("from " + this));
+    private void _release(@Nonnull FilePath p) {
+        String path = p.getRemote();
+        Stripe stripe = stripeOf(path);
+        stripe.lock.lock();
+        try {
+            Entry old = stripe.inUse.get(path);
+            if (old==null)
+                throw new AssertionError("Releasing unallocated workspace "+p);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "releasing " + p + " with lock count " + old.lockCount, new Throwable("from " + this));
+            }
+            old.lockCount--;
+            if (old.lockCount==0) {
+                stripe.inUse.remove(path);
+                stripe.signal(path);
+            }
+        } finally {
+            stripe.lock.unlock();
         }
-        old.lockCount--;
-        if (old.lockCount==0)
-            inUse.remove(p.getRemote());
-        notifyAll();
     }
 
     /**
@@ -223,7 +327,7 @@ public final class WorkspaceList {
      * @return
      *      The same {@link FilePath} as given to this method.
      */
-    public synchronized Lease acquire(@Nonnull FilePath p) throws InterruptedException {
+    public Lease acquire(@Nonnull FilePath p) throws InterruptedException {
         return acquire(p,false);
     }
 
@@ -234,7 +338,7 @@ public final class WorkspaceList {
      *      If true, indicates that the acquired workspace will be returned quickly.
      *      This makes other calls to {@link #allocate(FilePath)} to wait for the release of this workspace.
      */
-    public synchronized Lease acquire(@Nonnull FilePath p, boolean quick) throws InterruptedException {
+    public Lease acquire(@Nonnull FilePath p, boolean quick) throws InterruptedException {
         return acquire(p,quick,new Object());
     }
     
@@ -245,28 +349,58 @@ public final class WorkspaceList {
      *      Threads that share the same context can re-acquire the same lock (which will just increment the lock count.)
      *      This allows related executors to share the same workspace.
      */
-    public synchronized Lease acquire(@Nonnull FilePath p, boolean quick, Object context) throws InterruptedException {
+    public Lease acquire(@Nonnull FilePath p, boolean quick, Object context) throws InterruptedException {
         Entry e;
+        String path = p.getRemote();
+        Stripe stripe = stripeOf(path);
 
-        Thread t = Thread.currentThread();
-        String oldName = t.getName();
-        t.setName("Waiting to acquire "+p+" : "+t.getName());
+        stripe.lock.lockInterruptibly();
         try {
-            while (true) {
-                e = inUse.get(p.getRemote());
-                if (e==null || e.context==context)
-                    break;
-                wait();
+            e = stripe.inUse.get(path);
+            if (e != null && e.context != context) {
+                Thread t = Thread.currentThread();
+                String oldName = t.getName();
+                t.setName("Waiting to acquire "+p+" : "+t.getName());
+                try {
+                    do {
+                        stripe.await(path);
+                        e = stripe.inUse.get(path);
+                    } while (e != null && e.context != context);
+                } finally {
+                    t.setName(oldName);
+                }
             }
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "acquired " + p + (e == null ? "" : " with lock count " + e.lockCount), new Throwable("from " + this));
+            }
+
+            if (e!=null)    e.lockCount++;
+            else            stripe.inUse.put(path, new Entry(p,quick,context));
         } finally {
-            t.setName(oldName);
+            stripe.lock.unlock();
         }
-        if (LOGGER.isLoggable(Level.FINE)) {
-            LOGGER.log(Level.FINE, "acquired " + p + (e == null ? "" : " with lock count " + e.lockCount), new Throwable("from " + this));
+        return lease(p);
+    }
+
+    /**
+     * Acquires the given workspace if nobody is using it, without waiting.
+     *
+     * @return
+     *      null if the workspace is in use.
+     * @since TODO
+     */
+    public @CheckForNull Lease tryAcquire(@Nonnull FilePath p, boolean quick) {
+        String path = p.getRemote();
+        Stripe stripe = stripeOf(path);
+        stripe.lock.lock();
+        try {
+            if (stripe.inUse.containsKey(path)) {
+                return null;
+            }
+            stripe.inUse.put(path, new Entry(p, quick, new Object()));
+        } finally {
+            stripe.lock.unlock();
         }
-        
-        if (e!=null)    e.lockCount++;
-        else            inUse.put(p.getRemote(), new Entry(p,quick,context));
         return lease(p);
     }
 
@@ -306,10 +440,32 @@ public final class WorkspaceList {
         return ws.sibling(ws.getName() + COMBINATOR + "tmp");
     }
 
+    /**
+     * Locates the directory in which a copy of a known good state of a workspace may be kept,
+     * so that new workspaces of the same job can be cloned from it rather than start out empty.
+     * Like {@link #tempDir}, it may not exist and may be deleted alongside the workspace.
+     * @param ws a directory such as a build workspace
+     * @return a sibling directory, for example {@code …/something@template} for {@code …/something}
+     * @since TODO
+     */
+    public static FilePath templateDir(FilePath ws) {
+        return ws.sibling(ws.getName() + COMBINATOR + "template");
+    }
+
     private static final Logger LOGGER = Logger.getLogger(WorkspaceList.class.getName());
 
     /**
      * The token that combines the project name and unique number to create unique workspace directory.
      */
     private static final String COMBINATOR = SystemProperties.getString(WorkspaceList.class.getName(),"@");
+
+    /**
+     * Whether {@link Entry#source} records the stack trace of each allocation, for diagnosing leaked workspaces.
+     */
+    private static /* not final */ boolean CAPTURE_ALLOCATION_POINTS = SystemProperties.getBoolean(WorkspaceList.class.getName() + ".captureAllocationPoints");
+
+    /**
+     * Number of lock stripes; a power of two.
+     */
+    private static final int STRIPES = 16;
 }
@@ -76,6 +76,9 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.model.ArtifactBlobStore;
+import jenkins.model.ArtifactManager;
+import jenkins.model.DeduplicatingArtifactManager;
 import jenkins.model.RunAction2;
 import jenkins.tasks.SimpleBuildStep;
 
@@ -270,13 +273,18 @@ public class Fingerprinter extends Recorder implements Serializable, DependencyD
         private final boolean defaultExcludes;
         private final boolean caseSensitive;
         private final long buildTimestamp;
+        /**
+         * Digests already computed when the files were archived, by path with {@code /} as separator.
+         */
+        private final Map<String,ArtifactBlobStore.Digest> knownDigests;
 
-        FindRecords(String targets, String excludes, boolean defaultExcludes, boolean caseSensitive, long buildTimestamp) {
+        FindRecords(String targets, String excludes, boolean defaultExcludes, boolean caseSensitive, long buildTimestamp, Map<String,ArtifactBlobStore.Digest> knownDigests) {
             this.targets = targets;
             this.excludes = excludes;
             this.defaultExcludes = defaultExcludes;
             this.caseSensitive = caseSensitive;
             this.buildTimestamp = buildTimestamp;
+            this.knownDigests = knownDigests;
         }
 
         @Override
@@ -296,6 +304,13 @@ public class Fingerprinter extends Recorder implements Serializable, DependencyD
                 // 2000ms is an error margin since since VFAT only retains timestamp at 2sec precision
                 boolean produced = buildTimestamp <= file.lastModified()+2000;
 
+                ArtifactBlobStore.Digest known = knownDigests.get(f.replace(File.separatorChar, '/'));
+                if (known != null && known.length == file.length() && known.lastModified / 1000 == file.lastModified() / 1000) {
+                    // unchanged since it was archived; archives only keep the timestamp to the second
+                    results.add(new Record(produced,f,file.getName(),known.md5));
+                    continue;
+                }
+
                 try {
                     results.add(new Record(produced,f,file.getName(),new FilePath(file).digest()));
                 } catch (IOException e) {
@@ -311,7 +326,12 @@ public class Fingerprinter extends Recorder implements Serializable, DependencyD
     }
 
     private void record(Run<?,?> build, FilePath ws, TaskListener listener, Map<String,String> record, final String targets) throws IOException, InterruptedException {
-        for (Record r : ws.act(new FindRecords(targets, excludes, defaultExcludes, caseSensitive, build.getTimeInMillis()))) {
+        Map<String,ArtifactBlobStore.Digest> knownDigests = new HashMap<>();
+        ArtifactManager artifactManager = build.getArtifactManager();
+        if (artifactManager instanceof DeduplicatingArtifactManager) {
+            knownDigests.putAll(((DeduplicatingArtifactManager) artifactManager).getWorkspaceDigests(ws));
+        }
+        for (Record r : ws.act(new FindRecords(targets, excludes, defaultExcludes, caseSensitive, build.getTimeInMillis(), knownDigests))) {
             Fingerprint fp = r.addRecord(build);
             if(fp==null) {
                 listener.error(Messages.Fingerprinter_FailedFor(r.relativePath));
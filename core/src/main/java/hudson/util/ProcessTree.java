@@ -58,6 +58,7 @@ import java.io.ObjectStreamException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -68,7 +69,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -121,6 +124,25 @@ public abstract class ProcessTree implements Iterable<OSProcess>, IProcessTree,
         skipVetoes = !vetoesExist;
     }
 
+    /**
+     * Children of each process, lazily computed.
+     */
+    private transient Map<OSProcess, List<OSProcess>> childrenIndex;
+
+    private synchronized Map<OSProcess, List<OSProcess>> getChildrenIndex() {
+        if (childrenIndex == null) {
+            Map<OSProcess, List<OSProcess>> index = new HashMap<>();
+            for (OSProcess p : processes.values()) {
+                OSProcess parent = p.getParent();
+                if (parent != null) {
+                    index.computeIfAbsent(parent, k -> new ArrayList<>()).add(p);
+                }
+            }
+            childrenIndex = index;
+        }
+        return childrenIndex;
+    }
+
     /**
      * Gets the process given a specific ID, or null if no such process exists.
      */
@@ -245,6 +267,11 @@ public abstract class ProcessTree implements Iterable<OSProcess>, IProcessTree,
          */
         @Nonnull
         public final List<OSProcess> getChildren() {
+            if (ProcessTree.this instanceof Local) {
+                // killing a tree asks each process for its children, so index them all at once
+                List<OSProcess> r = getChildrenIndex().get(this);
+                return r == null ? new ArrayList<>() : new ArrayList<>(r);
+            }
             List<OSProcess> r = new ArrayList<>();
             for (OSProcess p : ProcessTree.this)
                 if(p.getParent()==this)
@@ -940,14 +967,92 @@ public abstract class ProcessTree implements Iterable<OSProcess>, IProcessTree,
 
 
     static class Linux extends ProcfsUnix {
+        private final boolean vetoersExist;
+
         public Linux(boolean vetoersExist) {
             super(vetoersExist);
+            this.vetoersExist = vetoersExist;
         }
         
         protected LinuxProcess createProcess(int pid) throws IOException {
             return new LinuxProcess(pid);
         }
 
+        /**
+         * Kills the processes with matching environment variables, the same as {@link Unix#killAll(Map)}, but faster.
+         *
+         * <p>
+         * Environments are matched as raw bytes, without building an {@link EnvVars} for each process, and
+         * in parallel. Only the matching processes whose parent does not match are killed recursively, since the others
+         * are killed along with them. As processes may fork while others are being killed, {@code /proc} is scanned
+         * again until no matching process remains, up to {@link #KILL_PASSES} times.
+         */
+        @Override
+        public void killAll(@Nonnull Map<String, String> modelEnvVars) throws InterruptedException {
+            if (modelEnvVars.isEmpty()) {
+                // sanity check so that we don't start rampage, see OSProcess.hasMatchingEnvVars
+                return;
+            }
+            final byte[][] entries = new byte[modelEnvVars.size()][];
+            int i = 0;
+            for (Entry<String, String> e : modelEnvVars.entrySet()) {
+                entries[i++] = (e.getKey() + '=' + e.getValue()).getBytes(Charset.defaultCharset());
+            }
+            Linux tree = this;
+            for (int pass = 0; pass < KILL_PASSES; pass++) {
+                final Set<OSProcess> matches = Collections.newSetFromMap(new ConcurrentHashMap<>());
+                tree.processes.values().parallelStream().forEach(p -> {
+                    if (((LinuxProcess) p).hasEnvironmentEntries(entries)) {
+                        matches.add(p);
+                    }
+                });
+                if (matches.isEmpty()) {
+                    return;
+                }
+                LOGGER.log(Level.FINE, "killAll pass {0}: {1} matching processes", new Object[] {pass, matches.size()});
+                for (OSProcess p : matches) {
+                    OSProcess parent = p.getParent();
+                    if (parent == null || !matches.contains(parent)) {
+                        p.killRecursively();
+                    }
+                }
+                tree = new Linux(vetoersExist);
+            }
+        }
+
+        /**
+         * Whether an environment, as found in {@code /proc/PID/environ}, contains all the given {@code KEY=value} entries.
+         */
+        static boolean hasEntries(byte[] environ, byte[][] entries) {
+            int found = 0;
+            boolean[] seen = new boolean[entries.length];
+            int pos = 0;
+            for (int i = 0; i <= environ.length; i++) {
+                if (i == environ.length || environ[i] == 0) {
+                    int len = i - pos;
+                    for (int j = 0; j < entries.length; j++) {
+                        if (!seen[j] && entries[j].length == len && regionMatches(environ, pos, entries[j])) {
+                            seen[j] = true;
+                            if (++found == entries.length) {
+                                return true;
+                            }
+                        }
+                    }
+                    pos = i + 1;
+                }
+            }
+            return false;
+        }
+
+        private static boolean regionMatches(byte[] environ, int pos, byte[] entry) {
+            for (int k = 0; k < entry.length; k++) {
+                if (environ[pos + k] != entry[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         class LinuxProcess extends UnixProcess {
             private int ppid = -1;
             private EnvVars envVars;
@@ -998,6 +1103,15 @@ public abstract class ProcessTree implements Iterable<OSProcess>, IProcessTree,
                 return arguments;
             }
 
+            boolean hasEnvironmentEntries(byte[][] entries) {
+                try {
+                    return hasEntries(readFileToByteArray(getFile("environ")), entries);
+                } catch (IOException e) {
+                    // gone, or not ours
+                    return false;
+                }
+            }
+
             @Nonnull
             public synchronized EnvVars getEnvironmentVariables() {
                 if(envVars !=null)
@@ -1969,6 +2083,11 @@ public abstract class ProcessTree implements Iterable<OSProcess>, IProcessTree,
         On HP-UX, pstat_getcommandline get you command line, but I'm not seeing any environment variables.
      */
 
+    /**
+     * Maximum number of times {@code /proc} is scanned to kill processes forked while killing the others.
+     */
+    private static /* not final */ int KILL_PASSES = Math.max(1, SystemProperties.getInteger(ProcessTree.class.getName() + ".killPasses", 3));
+
     private static final boolean IS_LITTLE_ENDIAN = "little".equals(System.getProperty("sun.cpu.endian"));
     private static final Logger LOGGER = Logger.getLogger(ProcessTree.class.getName());
 
@@ -31,9 +31,13 @@ import hudson.model.Job;
 import hudson.model.Node;
 import hudson.model.Result;
 import hudson.model.Run;
+import hudson.model.RunMap;
 import hudson.model.TopLevelItem;
 import hudson.model.View;
 import hudson.util.Iterators.CountingPredicate;
+import jenkins.model.lazy.LazyBuildMixIn;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 import java.util.*;
 
@@ -49,12 +53,19 @@ public class RunList<R extends Run> extends AbstractList<R> {
     private R first;
     private Integer size;
 
+    /**
+     * The jobs whose runs are all in {@link #base}, if known,
+     * so that {@link #byTimestamp} can start from the runs in range rather than from the newest ones.
+     */
+    private Iterable<? extends Job> jobs;
+
     public RunList() {
         base = Collections.emptyList();
     }
 
     public RunList(Job j) {
         base = j.getBuilds();
+        jobs = Collections.singleton(j);
     }
 
     public RunList(View view) {// this is a type unsafe operation
@@ -67,6 +78,7 @@ public class RunList<R extends Run> extends AbstractList<R> {
             runLists.add(job.getBuilds());
         }
         this.base = combine(runLists);
+        this.jobs = jobs;
     }
 
     public RunList(Collection<? extends Job> jobs) {
@@ -74,6 +86,7 @@ public class RunList<R extends Run> extends AbstractList<R> {
         for (Job j : jobs)
             runLists.add(j.getBuilds());
         this.base = combine(runLists);
+        this.jobs = jobs;
     }
 
     /**
@@ -89,7 +102,9 @@ public class RunList<R extends Run> extends AbstractList<R> {
         List<Iterable<R>> runLists = new ArrayList<>();
         for (Job j : jobs)
             runLists.add(j.getBuilds());
-        return new RunList<>(combine(runLists));
+        RunList<R> r = new RunList<>(combine(runLists));
+        r.jobs = jobs;
+        return r;
     }
 
     private static <R extends Run> Iterable<R> combine(Iterable<Iterable<R>> runLists) {
@@ -106,6 +121,23 @@ public class RunList<R extends Run> extends AbstractList<R> {
         base = c;
     }
 
+    /**
+     * The runs of the given job started before the given time, newest first.
+     * Runs of jobs loading their runs lazily are located without loading the newer ones.
+     */
+    private static <R extends Run> Iterable<R> startedBefore(Job<?,?> job, final long end) {
+        if (job instanceof LazyBuildMixIn.LazyLoadingJob) {
+            RunMap<?> runs = ((LazyBuildMixIn.LazyLoadingJob<?,?>) job).getLazyBuildMixIn()._getRuns();
+            Run<?,?> newest = runs.newestBefore(end);
+            return newest == null ? Collections.<R>emptyList() : (Iterable) runs.descendingFrom(newest.getNumber());
+        }
+        return Iterables.filter((Iterable<R>) job.getBuilds(), new Predicate<R>() {
+            public boolean apply(R r) {
+                return r.getTimeInMillis() < end;
+            }
+        });
+    }
+
     @Override
     public Iterator<R> iterator() {
         return base.iterator();
@@ -200,6 +232,17 @@ public class RunList<R extends Run> extends AbstractList<R> {
         return new RunList<R>((Iterable)runs);
     }
 
+    /**
+     * Creates a {@link RunList} of all the runs of the given job, which {@link #byTimestamp} can locate in the job.
+     */
+    @Restricted(NoExternalUse.class)
+    public static <R extends Run>
+    RunList<R> fromRuns(Job<?,?> job, Collection<? extends R> runs) {
+        RunList<R> r = fromRuns(runs);
+        r.jobs = Collections.singleton(job);
+        return r;
+    }
+
     /**
      * Returns elements that satisfy the given predicate.
      * <em>Warning:</em> this method mutates the original list and then returns it.
@@ -208,6 +251,7 @@ public class RunList<R extends Run> extends AbstractList<R> {
     public RunList<R> filter(Predicate<R> predicate) {
         size = null;
         first = null;
+        jobs = null;
         base = Iterables.filter(base,predicate);
         return this;
     }
@@ -220,6 +264,7 @@ public class RunList<R extends Run> extends AbstractList<R> {
     private RunList<R> limit(final CountingPredicate<R> predicate) {
         size = null;
         first = null;
+        jobs = null;
         final Iterable<R> nested = base;
         base = new Iterable<R>() {
             public Iterator<R> iterator() {
@@ -316,8 +361,19 @@ public class RunList<R extends Run> extends AbstractList<R> {
      *
      * {@code s&lt=;e}.
      * <em>Warning:</em> this method mutates the original list and then returns it.
+     *
+     * <p>
+     * On a list created from jobs and not filtered yet, the runs started at or after {@code end} are skipped without being loaded,
+     * so a long history can be listed a page at a time by passing the start time of the oldest run of the previous page
+     * as {@code end} and limiting the result to the page size.
      */
     public RunList<R> byTimestamp(final long start, final long end) {
+        if (jobs != null) {
+            List<Iterable<R>> runLists = new ArrayList<>();
+            for (Job j : jobs)
+                runLists.add(RunList.<R>startedBefore(j, end));
+            base = combine(runLists);
+        }
         return
         limit(new CountingPredicate<R>() {
             public boolean apply(int index, R r) {
@@ -28,6 +28,8 @@ import jenkins.util.SystemProperties;
 import hudson.model.ModelObject;
 import hudson.model.Run;
 
+import com.google.common.collect.Iterables;
+import jenkins.model.lazy.AbstractLazyLoadRunMap;
 import jenkins.widgets.HistoryPageEntry;
 import jenkins.widgets.HistoryPageFilter;
 import org.kohsuke.stapler.Header;
@@ -178,11 +180,64 @@ public class HistoryWidget<O extends ModelObject,T> extends Widget {
     public HistoryPageFilter getHistoryPageFilter() {
         HistoryPageFilter<T> historyPageFilter = newPageFilter();
 
-        historyPageFilter.add(baseList);
+        historyPageFilter.add(getPageBaseList());
         historyPageFilter.widget = this;
         return updateFirstTransientBuildKey(historyPageFilter);
     }
 
+    /**
+     * {@link #baseList}, without the runs which cannot be on the requested page when it is a lazily loaded
+     * {@link AbstractLazyLoadRunMap}, so that paging through a long history does not load all the runs in between.
+     * The newest run is kept, as {@link HistoryPageFilter} needs it to tell whether there are newer pages.
+     */
+    @SuppressWarnings("unchecked")
+    Iterable<T> getPageBaseList() {
+        if (!(baseList instanceof AbstractLazyLoadRunMap)) {
+            return baseList;
+        }
+        AbstractLazyLoadRunMap<T> runs = (AbstractLazyLoadRunMap<T>) baseList;
+        if (newerThan != null) {
+            Integer n = toBuildNumber(newerThan);
+            if (n == null || n == Integer.MAX_VALUE) {
+                return baseList;
+            }
+            // the page shows the oldest runs newer than n
+            List<T> newer = new ArrayList<>();
+            for (T run : runs.ascendingFrom(n + 1)) {
+                newer.add(run);
+                if (newer.size() >= THRESHOLD) {
+                    break;
+                }
+            }
+            Collections.reverse(newer);
+            int top = newer.isEmpty() ? n : ((Run<?,?>) newer.get(0)).getNumber();
+            return Iterables.concat(newestAbove(runs, top), newer, runs.descendingFrom(n));
+        } else if (olderThan != null) {
+            Integer n = toBuildNumber(olderThan);
+            if (n == null) {
+                return baseList;
+            }
+            return Iterables.concat(newestAbove(runs, n - 1), runs.descendingFrom(n - 1));
+        }
+        return baseList;
+    }
+
+    private static <T> List<T> newestAbove(AbstractLazyLoadRunMap<T> runs, int number) {
+        T newest = runs.newestBuild();
+        if (newest != null && ((Run<?,?>) newest).getNumber() > number) {
+            return Collections.singletonList(newest);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * The build number of a run from its {@link HistoryPageEntry#getEntryId}, or null for a queue item.
+     */
+    private static @CheckForNull Integer toBuildNumber(long entryId) {
+        long number = entryId - Long.MIN_VALUE;
+        return number >= 0 && number <= Integer.MAX_VALUE ? (int) number : null;
+    }
+
     protected HistoryPageFilter<T> newPageFilter() {
         HistoryPageFilter<T> historyPageFilter = new HistoryPageFilter<>(THRESHOLD);
 
@@ -0,0 +1,274 @@
+package jenkins.model;
+
+import hudson.Extension;
+import hudson.Functions;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Content-addressed store of artifact files shared by all builds using {@link DeduplicatingArtifactManager}.
+ *
+ * <p>
+ * Each distinct content is kept once, as {@code <store>/<first two hex digits>/<SHA-256>}, and the artifacts of
+ * each build are hard links to it. The link count of the blob is thus its reference count: once all builds
+ * referring to it are gone, the blob is the only remaining link and can be deleted. This is done right away for
+ * the blobs of a build whose artifacts are deleted, and by the {@link Sweeper} for builds deleted some other way,
+ * such as along with their job.
+ *
+ * <p>
+ * Since all links share the same file, blobs are made read-only so that a build cannot modify the artifacts
+ * of another one. Hard links require the store to be on the same file system as the builds, and counting them
+ * requires a POSIX file system. Otherwise files are simply left as plain copies.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+public final class ArtifactBlobStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ArtifactBlobStore.class.getName());
+
+    /**
+     * Location of the store. Defaults to {@code $JENKINS_HOME/artifactStore}.
+     */
+    private static /* not final */ String STORE_DIR = SystemProperties.getString(ArtifactBlobStore.class.getName() + ".storeDir");
+
+    private static final boolean SUPPORTED = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    /**
+     * Serializes adding and releasing the same blob.
+     */
+    private static final Object[] LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < LOCKS.length; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private final File dir;
+
+    /**
+     * Set after a failure to create a hard link, to avoid logging it for every file.
+     */
+    private volatile boolean linkFailureLogged;
+
+    private static ArtifactBlobStore instance;
+
+    ArtifactBlobStore(@Nonnull File dir) {
+        this.dir = dir;
+    }
+
+    static synchronized @Nonnull ArtifactBlobStore get() {
+        File dir = STORE_DIR != null ? new File(STORE_DIR) : new File(Jenkins.get().getRootDir(), "artifactStore");
+        if (instance == null || !instance.dir.equals(dir)) {
+            instance = new ArtifactBlobStore(dir);
+        }
+        return instance;
+    }
+
+    File getDir() {
+        return dir;
+    }
+
+    /**
+     * Digests of an artifact, along with the size and timestamp it had when they were computed.
+     */
+    static Digest digest(@Nonnull File f) throws IOException {
+        long length = f.length();
+        long lastModified = f.lastModified();
+        MessageDigest sha256;
+        MessageDigest md5;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException x) {
+            throw new AssertionError(x);
+        }
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(f)) {
+            int len;
+            while ((len = in.read(buf)) >= 0) {
+                sha256.update(buf, 0, len);
+                md5.update(buf, 0, len);
+            }
+        }
+        return new Digest(Util.toHexString(sha256.digest()), Util.toHexString(md5.digest()), length, lastModified);
+    }
+
+    /**
+     * Replaces the given artifact with a link to the blob of the same content, adding that blob if needed.
+     *
+     * @return whether an existing blob was reused, i.e. how much disk space was saved.
+     */
+    boolean add(@Nonnull File f, @Nonnull Digest digest) throws IOException {
+        if (!SUPPORTED) {
+            return false;
+        }
+        File blob = blobFor(digest.sha256);
+        synchronized (lockFor(digest.sha256)) {
+            try {
+                if (blob.isFile() && blob.length() == digest.length) {
+                    File tmp = new File(f.getParentFile(), "." + f.getName() + ".link");
+                    Files.deleteIfExists(tmp.toPath());
+                    Files.createLink(tmp.toPath(), blob.toPath());
+                    try {
+                        Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException x) {
+                        Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return true;
+                }
+                // a blob of the wrong size can only be left over from a crash or tampering
+                Files.deleteIfExists(blob.toPath());
+                Files.createDirectories(blob.getParentFile().toPath());
+                Files.createLink(blob.toPath(), f.toPath());
+                if (!blob.setWritable(false, false)) {
+                    LOGGER.log(Level.FINE, "Could not make {0} read-only", blob);
+                }
+                return false;
+            } catch (IOException | UnsupportedOperationException x) {
+                // typically because the store is on another file system; keep the copy
+                if (!linkFailureLogged) {
+                    linkFailureLogged = true;
+                    LOGGER.log(Level.WARNING, "Could not link " + f + " to " + blob + "; artifacts will not be deduplicated", x);
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Deletes the blob with the given hash if no build refers to it anymore.
+     */
+    void release(@Nonnull String sha256) throws IOException {
+        File blob = blobFor(sha256);
+        synchronized (lockFor(sha256)) {
+            if (isUnreferenced(blob)) {
+                Files.deleteIfExists(blob.toPath());
+            }
+        }
+    }
+
+    /**
+     * Deletes all the blobs that no build refers to anymore.
+     *
+     * @return the number of blobs deleted
+     */
+    int sweep() throws IOException {
+        int deleted = 0;
+        File[] prefixes = dir.listFiles();
+        if (prefixes == null) {
+            return 0;
+        }
+        for (File prefix : prefixes) {
+            File[] blobs = prefix.listFiles();
+            if (blobs == null) {
+                continue;
+            }
+            for (File blob : blobs) {
+                synchronized (lockFor(blob.getName())) {
+                    if (isUnreferenced(blob)) {
+                        Files.deleteIfExists(blob.toPath());
+                        deleted++;
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static boolean isUnreferenced(File blob) throws IOException {
+        if (!SUPPORTED || !blob.isFile()) {
+            return false;
+        }
+        return ((Number) Files.getAttribute(blob.toPath(), "unix:nlink", LinkOption.NOFOLLOW_LINKS)).intValue() <= 1;
+    }
+
+    private File blobFor(String sha256) {
+        if (!sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + sha256);
+        }
+        return new File(new File(dir, sha256.substring(0, 2)), sha256);
+    }
+
+    private static Object lockFor(String sha256) {
+        return LOCKS[(sha256.hashCode() & 0x7fffffff) % LOCKS.length];
+    }
+
+    /**
+     * Deletes blobs left behind by builds that were deleted without their artifact manager being told,
+     * for example along with their job.
+     */
+    @Extension @Symbol("artifactBlobSweeper")
+    public static final class Sweeper extends AsyncPeriodicWork {
+        public Sweeper() {
+            super("Artifact blob sweeper");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.DAYS.toMillis(1);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException, InterruptedException {
+            ArtifactBlobStore store = get();
+            if (!store.getDir().isDirectory()) {
+                return;
+            }
+            try {
+                listener.getLogger().println("Deleted " + store.sweep() + " unreferenced blobs from " + store.getDir());
+            } catch (IOException x) {
+                Functions.printStackTrace(x, listener.error("Failed to sweep " + store.getDir()));
+            }
+        }
+    }
+
+    /**
+     * Hashes of an artifact.
+     */
+    @Restricted(NoExternalUse.class)
+    public static final class Digest implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Hex SHA-256 of the content, which addresses the blob.
+         */
+        public final String sha256;
+        /**
+         * Hex MD5 of the content, as used by {@link hudson.model.Fingerprint}.
+         */
+        public final String md5;
+        public final long length;
+        public final long lastModified;
+
+        Digest(String sha256, String md5, long length, long lastModified) {
+            this.sha256 = sha256;
+            this.md5 = md5;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+}
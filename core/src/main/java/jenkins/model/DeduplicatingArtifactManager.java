@@ -0,0 +1,162 @@
+package jenkins.model;
+
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Launcher;
+import hudson.Util;
+import hudson.model.BuildListener;
+import hudson.model.Run;
+import jenkins.model.ArtifactBlobStore.Digest;
+import jenkins.util.VirtualFile;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Artifact manager which stores artifacts in the build directory like {@link StandardArtifactManager},
+ * but as hard links into the {@link ArtifactBlobStore}, so that files archived unchanged by many builds
+ * only take up disk space once.
+ *
+ * <p>
+ * The hashes of the artifacts of a build are listed in its {@code artifactDigests} file, so that their blobs
+ * can be released when the artifacts are deleted, for example by a {@link BuildDiscarder}.
+ * The MD5 hashes computed along the way are reused by {@link hudson.tasks.Fingerprinter} for the same files.
+ *
+ * @see DeduplicatingArtifactManagerFactory
+ * @since TODO
+ */
+public class DeduplicatingArtifactManager extends ArtifactManager {
+
+    private static final Logger LOG = Logger.getLogger(DeduplicatingArtifactManager.class.getName());
+
+    protected transient Run<?,?> build;
+
+    /**
+     * Digests of the files archived by this session, by workspace and then by path relative to it.
+     */
+    private transient Map<FilePath,Map<String,Digest>> workspaceDigests;
+
+    public DeduplicatingArtifactManager(Run<?,?> build) {
+        onLoad(build);
+    }
+
+    @Override public final void onLoad(Run<?,?> build) {
+        this.build = build;
+    }
+
+    @Override public void archive(FilePath workspace, Launcher launcher, BuildListener listener, Map<String,String> artifacts) throws IOException, InterruptedException {
+        new StandardArtifactManager(build).archive(workspace, launcher, listener, artifacts);
+
+        File dir = getArtifactsDir();
+        ArtifactBlobStore store = ArtifactBlobStore.get();
+        Map<String,Digest> digests = new HashMap<>();
+        int reused = 0;
+        long saved = 0;
+        try (Writer manifest = Files.newBufferedWriter(getManifest().toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Map.Entry<String,String> artifact : artifacts.entrySet()) {
+                File f = new File(dir, artifact.getKey());
+                if (!f.isFile() || Files.isSymbolicLink(f.toPath())) {
+                    continue;
+                }
+                Digest digest = ArtifactBlobStore.digest(f);
+                digests.put(artifact.getValue(), digest);
+                if (store.add(f, digest)) {
+                    reused++;
+                    saved += digest.length;
+                }
+                manifest.write(digest.sha256 + ' ' + artifact.getKey() + '\n');
+            }
+        }
+        synchronized (this) {
+            if (workspaceDigests == null) {
+                workspaceDigests = new HashMap<>();
+            }
+            Map<String,Digest> previous = workspaceDigests.get(workspace);
+            if (previous != null) {
+                previous.putAll(digests);
+            } else {
+                workspaceDigests.put(workspace, digests);
+            }
+        }
+        if (reused > 0) {
+            listener.getLogger().println("Reused " + reused + " of " + digests.size() + " artifacts from earlier builds, saving " + Functions.humanReadableByteSize(saved));
+        }
+    }
+
+    /**
+     * Digests of the files archived from the given workspace since this build was loaded.
+     *
+     * @return digests by path relative to the workspace, with {@code /} as separator
+     */
+    @Restricted(NoExternalUse.class)
+    public synchronized @Nonnull Map<String,Digest> getWorkspaceDigests(@Nonnull FilePath workspace) {
+        Map<String,Digest> digests = workspaceDigests == null ? null : workspaceDigests.get(workspace);
+        return digests == null ? Collections.<String,Digest>emptyMap() : Collections.unmodifiableMap(digests);
+    }
+
+    @Override public boolean delete() throws IOException, InterruptedException {
+        File ad = getArtifactsDir();
+        Set<String> hashes = new LinkedHashSet<>();
+        File manifest = getManifest();
+        try (BufferedReader r = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    hashes.add(line.substring(0, space));
+                }
+            }
+        } catch (NoSuchFileException x) {
+            // nothing archived
+        }
+        boolean existed = ad.exists();
+        if (existed) {
+            LOG.log(Level.FINE, "deleting {0} for {1}", new Object[] {ad, build});
+            Util.deleteRecursive(ad);
+        }
+        Files.deleteIfExists(manifest.toPath());
+        synchronized (this) {
+            workspaceDigests = null;
+        }
+        ArtifactBlobStore store = ArtifactBlobStore.get();
+        for (String hash : hashes) {
+            try {
+                store.release(hash);
+            } catch (IOException | IllegalArgumentException x) {
+                // left to the sweeper
+                LOG.log(Level.WARNING, "Failed to release blob " + hash + " of " + build, x);
+            }
+        }
+        return existed;
+    }
+
+    @Override public VirtualFile root() {
+        return VirtualFile.forFile(getArtifactsDir());
+    }
+
+    @SuppressWarnings("deprecation")
+    private File getArtifactsDir() {
+        return build.getArtifactsDir();
+    }
+
+    private File getManifest() {
+        return new File(build.getRootDir(), "artifactDigests");
+    }
+
+}
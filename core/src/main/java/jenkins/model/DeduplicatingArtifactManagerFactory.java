@@ -0,0 +1,27 @@
+package jenkins.model;
+
+import hudson.Extension;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Stores the artifacts of all builds with {@link DeduplicatingArtifactManager}.
+ * @since TODO
+ */
+public class DeduplicatingArtifactManagerFactory extends ArtifactManagerFactory {
+
+    @DataBoundConstructor public DeduplicatingArtifactManagerFactory() {}
+
+    @Override public ArtifactManager managerFor(Run<?,?> build) {
+        return new DeduplicatingArtifactManager(build);
+    }
+
+    @Extension @Symbol("deduplicating")
+    public static final class DescriptorImpl extends ArtifactManagerFactoryDescriptor {
+        @Override public String getDisplayName() {
+            return Messages.DeduplicatingArtifactManagerFactory_DisplayName();
+        }
+    }
+
+}
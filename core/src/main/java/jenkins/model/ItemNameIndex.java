@@ -0,0 +1,182 @@
+package jenkins.model;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.search.SubstringIndex;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Display names of all the {@link TopLevelItem}s, so that the search box can suggest items
+ * without walking the whole item tree for every keystroke.
+ *
+ * <p>
+ * The index is built the first time it is needed, and then kept up to date by listening to the creation, copy,
+ * move, update and deletion of items, and to their saves, which is how display names change.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+@Extension
+public final class ItemNameIndex extends ItemListener {
+
+    /**
+     * Null until built, or after {@link #invalidate()}.
+     */
+    private volatile SubstringIndex<TopLevelItem> index;
+
+    /**
+     * Number of changes to the items, guarded by {@code this}, so that an index built concurrently with a change is not kept.
+     */
+    private long changes;
+
+    public static @Nonnull ItemNameIndex get() {
+        return ExtensionList.lookupSingleton(ItemNameIndex.class);
+    }
+
+    /**
+     * Finds the items whose display name contains the given token, and which the current user can see.
+     *
+     * @param caseInsensitive as per {@link SubstringIndex#find}
+     * @return the matching items, sorted by full name
+     */
+    public @Nonnull List<TopLevelItem> suggest(@Nonnull String token, boolean caseInsensitive) {
+        List<TopLevelItem> result = new ArrayList<>();
+        for (TopLevelItem item : getIndex().find(token, caseInsensitive)) {
+            if (isReadable(item)) {
+                result.add(item);
+            }
+        }
+        result.sort(Comparator.comparing(Item::getFullName));
+        return result;
+    }
+
+    /**
+     * Whether the current user can see the item and all the items containing it,
+     * as {@link hudson.model.Items#allItems} would only return it then.
+     */
+    private static boolean isReadable(Item item) {
+        while (true) {
+            if (!item.hasPermission(Item.READ)) {
+                return false;
+            }
+            ItemGroup<?> parent = item.getParent();
+            if (!(parent instanceof Item)) {
+                return true;
+            }
+            item = (Item) parent;
+        }
+    }
+
+    private SubstringIndex<TopLevelItem> getIndex() {
+        SubstringIndex<TopLevelItem> index = this.index;
+        if (index != null) {
+            return index;
+        }
+        long start;
+        synchronized (this) {
+            start = changes;
+        }
+        index = new SubstringIndex<>();
+        try (ACLContext ctx = ACL.as(ACL.SYSTEM)) {
+            for (TopLevelItem item : Jenkins.get().allItems(TopLevelItem.class)) {
+                index.put(item, item.getDisplayName());
+            }
+        }
+        synchronized (this) {
+            if (changes == start) {
+                this.index = index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Forgets the index, for example when all the items are loaded again.
+     */
+    public synchronized void invalidate() {
+        changes++;
+        index = null;
+    }
+
+    private synchronized void update(@Nonnull Item item, @CheckForNull String displayName) {
+        changes++;
+        if (index != null && item instanceof TopLevelItem) {
+            index.put((TopLevelItem) item, displayName);
+        }
+    }
+
+    private synchronized void rename(@Nonnull TopLevelItem item) {
+        changes++;
+        if (index != null) {
+            index.replace(item, item.getDisplayName());
+        }
+    }
+
+    @Override
+    public void onCreated(Item item) {
+        update(item, item.getDisplayName());
+    }
+
+    @Override
+    public void onCopied(Item src, Item item) {
+        onCreated(item);
+    }
+
+    @Override
+    public void onUpdated(Item item) {
+        onCreated(item);
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        // the display name defaults to the name
+        onCreated(item);
+    }
+
+    @Override
+    public void onDeleted(Item item) {
+        update(item, null);
+        if (item instanceof ItemGroup) {
+            // items in a deleted folder are not deleted one by one
+            String prefix = item.getFullName() + '/';
+            synchronized (this) {
+                if (index != null) {
+                    index.removeIf(i -> i.getFullName().startsWith(prefix));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onLoaded() {
+        invalidate();
+    }
+
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // the item is saved before it is created, and may be saved after it is deleted
+            if (o instanceof TopLevelItem) {
+                get().rename((TopLevelItem) o);
+            }
+        }
+    }
+}
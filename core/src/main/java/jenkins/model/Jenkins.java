@@ -123,9 +123,12 @@ import hudson.scm.SCM;
 import hudson.search.CollectionSearchIndex;
 import hudson.search.SearchIndexBuilder;
 import hudson.search.SearchItem;
+import hudson.search.SubstringIndex;
+import hudson.search.UserSearchProperty;
 import hudson.security.ACL;
 import hudson.security.ACLContext;
 import hudson.security.AccessControlled;
+import hudson.security.AuthorizationCache;
 import hudson.security.AuthorizationStrategy;
 import hudson.security.BasicAuthenticationFilter;
 import hudson.security.FederatedLoginService;
@@ -2287,15 +2290,31 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
                     protected Iterable<TopLevelItem> allAsIterable() {
                         return allItems(TopLevelItem.class);
                     }
+                    @Override
+                    public void suggest(String token, List<SearchItem> result) {
+                        if (SubstringIndex.isEnabled()) {
+                            result.addAll(ItemNameIndex.get().suggest(token, UserSearchProperty.isCaseInsensitive()));
+                        } else {
+                            super.suggest(token, result);
+                        }
+                    }
                 })
                 .add(getPrimaryView().makeSearchIndex())
                 .add(new CollectionSearchIndex() {// for computers
                     protected Computer get(String key) { return getComputer(key); }
                     protected Collection<Computer> all() { return computers.values(); }
                 })
-                .add(new CollectionSearchIndex() {// for users
+                .add(new CollectionSearchIndex<User>() {// for users
                     protected User get(String key) { return User.get(key,false); }
                     protected Collection<User> all() { return User.getAll(); }
+                    @Override
+                    public void suggest(String token, List<SearchItem> result) {
+                        if (SubstringIndex.isEnabled()) {
+                            result.addAll(User.suggest(token, UserSearchProperty.isCaseInsensitive()));
+                        } else {
+                            super.suggest(token, result);
+                        }
+                    }
                 })
                 .add(new CollectionSearchIndex() {// for views
                     protected View get(String key) { return getView(key); }
@@ -2588,6 +2607,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
                 ? securityRealm.getUserIdStrategy() // don't trigger rekey on Jenkins load
                 : this.securityRealm.getUserIdStrategy();
         this.securityRealm = securityRealm;
+        AuthorizationCache.invalidate();
         // reset the filters and proxies for the new SecurityRealm
         try {
             HudsonFilter filter = HudsonFilter.get(servletContext);
@@ -2615,6 +2635,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
             a = AuthorizationStrategy.UNSECURED;
         useSecurity = true;
         authorizationStrategy = a;
+        AuthorizationCache.invalidate();
         saveQuietly();
     }
 
@@ -2630,6 +2651,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
         useSecurity = null;
         setSecurityRealm(SecurityRealm.NO_AUTHENTICATION);
         authorizationStrategy = AuthorizationStrategy.UNSECURED;
+        AuthorizationCache.invalidate();
     }
 
     public void setProjectNamingStrategy(ProjectNamingStrategy ns) {
@@ -4159,6 +4181,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
     public void reload() throws IOException, InterruptedException, ReactorException {
         queue.save();
         executeReactor(null, loadTasks());
+        ItemNameIndex.get().invalidate();
 
         // Ensure we reached the final initialization state. Log the error otherwise
         if (initLevel != InitMilestone.COMPLETED) {
@@ -28,13 +28,29 @@ import com.google.common.annotations.VisibleForTesting;
 import hudson.FilePath;
 import hudson.Launcher;
 import hudson.Util;
+import hudson.Functions;
 import hudson.model.BuildListener;
+import hudson.model.Computer;
 import hudson.model.Run;
+import hudson.remoting.VirtualChannel;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.SystemProperties;
 import jenkins.util.VirtualFile;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -54,6 +70,21 @@ public class StandardArtifactManager extends ArtifactManager {
             ? FilePath.TarCompression.NONE
             : FilePath.TarCompression.GZIP;
 
+    /**
+     * Number of concurrent streams used to archive large sets of artifacts from agents.
+     * With more than one, each stream is compressed on its own thread on the agent, and they do not share a pipe window.
+     */
+    @Restricted(NoExternalUse.class)
+    @VisibleForTesting
+    public static int ARCHIVE_STREAMS = SystemProperties.getInteger(StandardArtifactManager.class.getName() + ".archiveStreams", 1);
+
+    /**
+     * Minimum total size, in bytes, of the artifacts for {@link #ARCHIVE_STREAMS} to be used.
+     */
+    @Restricted(NoExternalUse.class)
+    @VisibleForTesting
+    public static long PARALLEL_ARCHIVE_THRESHOLD = SystemProperties.getLong(StandardArtifactManager.class.getName() + ".parallelArchiveThreshold", 64L * 1024 * 1024);
+
     protected transient Run<?,?> build;
 
     public StandardArtifactManager(Run<?,?> build) {
@@ -66,10 +97,129 @@ public class StandardArtifactManager extends ArtifactManager {
 
     @Override public void archive(FilePath workspace, Launcher launcher, BuildListener listener, final Map<String,String> artifacts) throws IOException, InterruptedException {
         File dir = getArtifactsDir();
+        if (ARCHIVE_STREAMS > 1 && artifacts.size() > 1 && workspace.isRemote()) {
+            List<String> paths = new ArrayList<>(artifacts.keySet());
+            long[] sizes = workspace.act(new Sizes(paths, artifacts));
+            long total = 0;
+            for (long size : sizes) {
+                total += size;
+            }
+            if (total >= PARALLEL_ARCHIVE_THRESHOLD) {
+                archiveInParallel(workspace, dir, listener, partition(paths, sizes, artifacts, Math.min(ARCHIVE_STREAMS, paths.size())), total);
+                return;
+            }
+        }
         String description = "transfer of " + artifacts.size() + " files"; // TODO improve when just one file
         workspace.copyRecursiveTo(new FilePath.ExplicitlySpecifiedDirScanner(artifacts), new FilePath(dir), description, TAR_COMPRESSION);
     }
 
+    /**
+     * Splits the artifacts into streams of about the same size, biggest files first.
+     */
+    @VisibleForTesting
+    static List<Map<String,String>> partition(List<String> paths, final long[] sizes, Map<String,String> artifacts, int streams) {
+        Integer[] order = new Integer[paths.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override public int compare(Integer a, Integer b) {
+                return Long.compare(sizes[b], sizes[a]);
+            }
+        });
+        List<Map<String,String>> partitions = new ArrayList<>();
+        long[] loads = new long[streams];
+        for (int i = 0; i < streams; i++) {
+            partitions.add(new LinkedHashMap<String,String>());
+        }
+        for (int i : order) {
+            int lightest = 0;
+            for (int j = 1; j < streams; j++) {
+                if (loads[j] < loads[lightest]) {
+                    lightest = j;
+                }
+            }
+            String path = paths.get(i);
+            partitions.get(lightest).put(path, artifacts.get(path));
+            // count empty files too, so that many small files still get spread around
+            loads[lightest] += Math.max(sizes[i], 1);
+        }
+        return partitions;
+    }
+
+    private void archiveInParallel(final FilePath workspace, File dir, final BuildListener listener, List<Map<String,String>> partitions, long total) throws IOException, InterruptedException {
+        final FilePath target = new FilePath(dir);
+        final int streams = partitions.size();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicLong transferred = new AtomicLong();
+        final long start = System.nanoTime();
+        listener.getLogger().println("Archiving " + Functions.humanReadableByteSize(total) + " over " + streams + " streams");
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (final Map<String,String> partition : partitions) {
+            futures.add(Computer.threadPoolForRemoting.submit(new Callable<Integer>() {
+                @Override public Integer call() throws Exception {
+                    String description = "transfer of " + partition.size() + " files";
+                    int count = workspace.copyRecursiveTo(new FilePath.ExplicitlySpecifiedDirScanner(partition), target, description, TAR_COMPRESSION);
+                    long size = 0;
+                    for (String path : partition.keySet()) {
+                        size += new File(target.getRemote(), path).length();
+                    }
+                    listener.getLogger().println("Archived stream " + completed.incrementAndGet() + "/" + streams + ": "
+                            + count + " files, " + Functions.humanReadableByteSize(transferred.addAndGet(size)) + " so far");
+                    return count;
+                }
+            }));
+        }
+
+        int files = 0;
+        try {
+            for (Future<Integer> f : futures) {
+                files += f.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            for (Future<Integer> f : futures) {
+                f.cancel(true);
+            }
+        }
+
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        listener.getLogger().println("Archived " + files + " files (" + Functions.humanReadableByteSize(transferred.get()) + ") in "
+                + Util.getTimeSpanString(elapsed) + ", " + Functions.humanReadableByteSize(transferred.get() * 1000 / elapsed) + "/s");
+    }
+
+    /**
+     * Sizes of the given artifacts in the workspace.
+     */
+    private static final class Sizes extends MasterToSlaveFileCallable<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final List<String> paths;
+        private final Map<String,String> artifacts;
+        Sizes(List<String> paths, Map<String,String> artifacts) {
+            this.paths = paths;
+            this.artifacts = artifacts;
+        }
+        @Override public long[] invoke(File f, VirtualChannel channel) throws IOException {
+            long[] sizes = new long[paths.size()];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = new File(f, artifacts.get(paths.get(i))).length();
+            }
+            return sizes;
+        }
+    }
+
     @Override public final boolean delete() throws IOException, InterruptedException {
         File ad = getArtifactsDir();
         if (!ad.exists()) {
@@ -31,15 +31,17 @@ import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.ListIterator;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
 
 import jenkins.util.MemoryReductionUtil;
 import org.kohsuke.accmod.Restricted;
@@ -323,37 +325,128 @@ public abstract class AbstractLazyLoadRunMap<R> extends AbstractMap<Integer,R> i
         switch (d) {
         case EXACT:
             return getByNumber(n);
-        case ASC:
-            for (int m : numberOnDisk) {
-                if (m < n) {
-                    // TODO could be made more efficient with numberOnDisk.find
-                    continue;
-                }
-                R r = getByNumber(m);
+        case ASC: {
+            SortedIntList numbers = numberOnDisk;
+            for (int i = numbers.ceil(n); numbers.isInRange(i); i++) {
+                R r = getByNumber(numbers.get(i));
                 if (r != null) {
                     return r;
                 }
             }
             return null;
-        case DESC:
-            // TODO again could be made more efficient
-            ListIterator<Integer> iterator = numberOnDisk.listIterator(numberOnDisk.size());
-            while(iterator.hasPrevious()) {
-                int m = iterator.previous();
-                if (m > n) {
-                    continue;
-                }
-                R r = getByNumber(m);
+        }
+        case DESC: {
+            SortedIntList numbers = numberOnDisk;
+            for (int i = numbers.floor(n); numbers.isInRange(i); i--) {
+                R r = getByNumber(numbers.get(i));
                 if (r != null) {
                     return r;
                 }
             }
             return null;
+        }
         default:
             throw new AssertionError();
         }
     }
 
+    /**
+     * Walks through the builds numbered {@code n} or less, newer ones first.
+     * Each build is loaded only when the iteration reaches it,
+     * so a listing can continue from where a previous page ended without loading the newer builds.
+     *
+     * @since TODO
+     */
+    public @Nonnull Iterable<R> descendingFrom(final int n) {
+        return () -> new Walk(n, DESC);
+    }
+
+    /**
+     * Walks through the builds numbered {@code n} or more, older ones first, loading them as {@link #descendingFrom} does.
+     *
+     * @since TODO
+     */
+    public @Nonnull Iterable<R> ascendingFrom(final int n) {
+        return () -> new Walk(n, ASC);
+    }
+
+    private final class Walk implements Iterator<R> {
+        private final Direction d;
+        /**
+         * Number to search the next build from, or null at the end.
+         */
+        private Integer from;
+        private R next;
+        private R last;
+
+        Walk(int from, Direction d) {
+            this.from = from;
+            this.d = d;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && from != null) {
+                next = search(from, d);
+                if (next == null) {
+                    from = null;
+                } else {
+                    int m = getNumberOf(next);
+                    from = d == DESC ? (m == Integer.MIN_VALUE ? null : m - 1) : (m == Integer.MAX_VALUE ? null : m + 1);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            removeValue(last);
+            last = null;
+        }
+    }
+
+    /**
+     * Finds the newest build matching the given condition, given that the builds older than a matching build match too,
+     * as builds started before a given time do.
+     * Unlike walking through the builds from the newest, this loads a logarithmic number of builds.
+     */
+    protected final @CheckForNull R searchNewest(@Nonnull Predicate<? super R> condition) {
+        SortedIntList numbers = numberOnDisk;
+        R found = null;
+        int lo = 0, hi = numbers.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            // builds which fail to load are skipped
+            int i = mid;
+            R r = null;
+            while (i >= lo && (r = getByNumber(numbers.get(i))) == null) {
+                i--;
+            }
+            if (r == null) {
+                lo = mid + 1;
+            } else if (condition.test(r)) {
+                found = r;
+                lo = mid + 1;
+            } else {
+                hi = i - 1;
+            }
+        }
+        return found;
+    }
+
     public R getById(String id) {
         return getByNumber(Integer.parseInt(id));
     }
@@ -1,15 +1,30 @@
 package jenkins.security;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.User;
+import hudson.security.SecurityRealm;
+import jenkins.model.Jenkins;
+import jenkins.security.apitoken.ApiTokenStore;
+import jenkins.util.SystemProperties;
 import org.acegisecurity.Authentication;
 import org.acegisecurity.userdetails.UserDetails;
 import org.acegisecurity.userdetails.UsernameNotFoundException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.springframework.dao.DataAccessException;
 
+import javax.annotation.CheckForNull;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import static java.util.logging.Level.*;
@@ -22,17 +37,45 @@ import static java.util.logging.Level.*;
  */
 @Extension
 public class BasicHeaderApiTokenAuthenticator extends BasicHeaderAuthenticator {
+    /**
+     * Number of seconds during which a successful authentication is reused for the same user name and token,
+     * sparing the lookup of the user details in the security realm. 0 to disable.
+     * Revoking or adding tokens, deleting the user or changing the security realm discards reused authentications.
+     */
+    private static /* not final */ int CACHE_SECONDS = SystemProperties.getInteger(BasicHeaderApiTokenAuthenticator.class.getName() + ".cacheSeconds", 30);
+
+    private static final Cache<String, CachedAuthentication> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(SystemProperties.getInteger(BasicHeaderApiTokenAuthenticator.class.getName() + ".cacheSize", 10_000))
+            .expireAfterWrite(Math.max(0, CACHE_SECONDS), TimeUnit.SECONDS)
+            .build();
+
+    private static final Statistics STATISTICS = new Statistics();
+
     /**
      * Note: if the token does not exist or does not match, we do not use {@link SecurityListener#fireFailedToAuthenticate(String)}
      * because it will be done in the {@link BasicHeaderRealPasswordAuthenticator} in the case the password is not valid either
      */
     @Override
     public Authentication authenticate(HttpServletRequest req, HttpServletResponse rsp, String username, String password) throws ServletException {
+        long start = System.nanoTime();
+        String cacheKey = CACHE_SECONDS > 0 ? cacheKey(username, password) : null;
+        if (cacheKey != null) {
+            CachedAuthentication cached = CACHE.getIfPresent(cacheKey);
+            if (cached != null && cached.isValid()) {
+                cached.recordUse();
+                SecurityListener.fireAuthenticated(cached.userDetails);
+                req.setAttribute(BasicHeaderApiTokenAuthenticator.class.getName(), true);
+                STATISTICS.cacheHits.incrementAndGet();
+                return cached.auth;
+            }
+        }
+        long modifications = ApiTokenStore.getModificationCount();
         User u = BasicApiTokenHelper.isConnectingUsingApiToken(username, password);
         if(u != null) {
             Authentication auth;
+            UserDetails userDetails;
             try {
-                UserDetails userDetails = u.getUserDetailsForImpersonation();
+                userDetails = u.getUserDetailsForImpersonation();
                 auth = u.impersonate(userDetails);
 
                 SecurityListener.fireAuthenticated(userDetails);
@@ -45,11 +88,122 @@ public class BasicHeaderApiTokenAuthenticator extends BasicHeaderAuthenticator {
                 throw new ServletException(x);
             }
 
+            if (cacheKey != null) {
+                CACHE.put(cacheKey, new CachedAuthentication(u, userDetails, auth, password, modifications));
+            }
             req.setAttribute(BasicHeaderApiTokenAuthenticator.class.getName(), true);
+            STATISTICS.authenticated(System.nanoTime() - start);
             return auth;
         }
+        STATISTICS.rejected.incrementAndGet();
         return null;
     }
 
+    /**
+     * Digest of the credentials, so that tokens are not kept in memory as is.
+     */
+    private static String cacheKey(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(username.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return Util.toHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Statistics of the authentications by API token since startup.
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public static Statistics getStatistics() {
+        return STATISTICS;
+    }
+
+    private static final class CachedAuthentication {
+        private final User user;
+        private final UserDetails userDetails;
+        private final Authentication auth;
+        /**
+         * Token which was used, if it is in the {@link ApiTokenStore} of the user, to record its use.
+         */
+        private final @CheckForNull String tokenUuid;
+        private final long modifications;
+        private final SecurityRealm realm = Jenkins.get().getSecurityRealm();
+
+        CachedAuthentication(User user, UserDetails userDetails, Authentication auth, String password, long modifications) {
+            this.user = user;
+            this.userDetails = userDetails;
+            this.auth = auth;
+            this.modifications = modifications;
+            ApiTokenProperty t = user.getProperty(ApiTokenProperty.class);
+            ApiTokenStore.HashedToken token = t == null ? null : t.getTokenStore().findMatchingToken(password);
+            this.tokenUuid = token == null ? null : token.getUuid();
+        }
+
+        boolean isValid() {
+            return modifications == ApiTokenStore.getModificationCount() && User.getById(user.getId(), false) == user
+                    && Jenkins.get().getSecurityRealm() == realm;
+        }
+
+        void recordUse() {
+            ApiTokenProperty t = user.getProperty(ApiTokenProperty.class);
+            if (t != null && tokenUuid != null) {
+                t.getTokenStats().updateUsageForId(tokenUuid);
+            }
+        }
+    }
+
+    @Restricted(NoExternalUse.class)
+    public static final class Statistics {
+        private final AtomicLong cacheHits = new AtomicLong();
+        private final AtomicLong authenticated = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong authenticationNanos = new AtomicLong();
+
+        void authenticated(long nanos) {
+            authenticated.incrementAndGet();
+            authenticationNanos.addAndGet(nanos);
+        }
+
+        /**
+         * Requests authenticated by reusing an earlier authentication.
+         */
+        public long getCacheHits() {
+            return cacheHits.get();
+        }
+
+        /**
+         * Requests authenticated by checking the token and looking up the user.
+         */
+        public long getAuthenticated() {
+            return authenticated.get();
+        }
+
+        /**
+         * Requests whose password did not match an API token of the user.
+         */
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        /**
+         * Average time taken to authenticate requests not found in the cache, in microseconds.
+         */
+        public long getAverageAuthenticationMicros() {
+            long count = authenticated.get();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(authenticationNanos.get() / count);
+        }
+
+        @Override
+        public String toString() {
+            return "cacheHits=" + getCacheHits() + " authenticated=" + getAuthenticated() + " rejected=" + getRejected()
+                    + " averageAuthenticationMicros=" + getAverageAuthenticationMicros();
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(BasicHeaderApiTokenAuthenticator.class.getName());
 }
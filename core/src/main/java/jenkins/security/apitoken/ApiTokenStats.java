@@ -25,11 +25,16 @@ package jenkins.security.apitoken;
 
 import com.google.common.annotations.VisibleForTesting;
 import hudson.BulkChange;
+import hudson.Extension;
 import hudson.Util;
 import hudson.XmlFile;
+import hudson.init.Terminator;
+import hudson.model.PeriodicWork;
 import hudson.model.Saveable;
 import hudson.model.User;
 import hudson.model.listeners.SaveableListener;
+import jenkins.security.ApiTokenProperty;
+import jenkins.util.SystemProperties;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -44,6 +49,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,6 +67,11 @@ public class ApiTokenStats implements Saveable {
     private List<SingleTokenStats> tokenStats;
     
     private transient User user;
+
+    /**
+     * Uses of tokens since the last {@link #flush}, by token UUID.
+     */
+    private transient Map<String, PendingUsage> pendingUsage;
     
     @VisibleForTesting 
     transient File parent;
@@ -73,6 +87,7 @@ public class ApiTokenStats implements Saveable {
     }
     
     private void init() {
+        this.pendingUsage = new ConcurrentHashMap<>();
         if (this.tokenStats == null) {
             this.tokenStats = new ArrayList<>();
         } else {
@@ -125,20 +140,44 @@ public class ApiTokenStats implements Saveable {
         }
         
         boolean tokenRemoved = tokenStats.removeIf(s -> s.tokenUuid.equals(tokenUuid));
+        tokenRemoved |= pendingUsage.remove(tokenUuid) != null;
         if (tokenRemoved) {
             save();
         }
     }
     
    /**
-     * Will trigger the save
+     * Will trigger the save, right away if {@link #FLUSH_INTERVAL_SECONDS} is 0, otherwise with the next {@link #flush}.
      */
     public @Nonnull SingleTokenStats updateUsageForId(@Nonnull String tokenUuid) {
         if(areStatsDisabled()){
             return new SingleTokenStats(tokenUuid);
         }
         
-        return updateUsageForIdIfNeeded(tokenUuid);
+        if (FLUSH_INTERVAL_SECONDS <= 0) {
+            return updateUsageForIdIfNeeded(tokenUuid);
+        }
+        
+        // no lock nor write here, as this is done for every request authenticated by an API token
+        PendingUsage pending = pendingUsage.get(tokenUuid);
+        if (pending == null) {
+            // only locks on the first use of the token since the statistics were loaded
+            PendingUsage created = new PendingUsage(savedStatsOf(tokenUuid));
+            pending = pendingUsage.putIfAbsent(tokenUuid, created);
+            if (pending == null) {
+                pending = created;
+            }
+        }
+        pending.notifyUse();
+        DIRTY.add(this);
+        return pending.current();
+    }
+    
+    /**
+     * A copy of the statistics of the given token, without the uses not yet flushed.
+     */
+    private synchronized @Nonnull SingleTokenStats savedStatsOf(@Nonnull String tokenUuid) {
+        return findById(tokenUuid).orElse(new SingleTokenStats(tokenUuid)).plus(0, 0);
     }
     
     
@@ -162,8 +201,57 @@ public class ApiTokenStats implements Saveable {
         }
         
         // if we create a new empty stats object, no need to add it to the list
-        return findById(tokenUuid)
+        SingleTokenStats stats = findById(tokenUuid)
                 .orElse(new SingleTokenStats(tokenUuid));
+        PendingUsage pending = pendingUsage.get(tokenUuid);
+        return pending == null ? stats : stats.plus(pending.count.get(), pending.lastUse);
+    }
+    
+    /**
+     * Adds the uses recorded since the last call to the saved statistics, and saves them if there were any.
+     */
+    public synchronized void flush() {
+        DIRTY.remove(this);
+        if (!isCurrent()) {
+            // saving would recreate the folder of a deleted user, or undo what was saved by the reloaded statistics
+            LOGGER.log(Level.FINE, "Dropping the token uses of {0}, which was deleted or reloaded", user);
+            pendingUsage.clear();
+            return;
+        }
+        boolean modified = false;
+        for (Map.Entry<String, PendingUsage> entry : pendingUsage.entrySet()) {
+            long count = entry.getValue().count.getAndSet(0);
+            if (count == 0) {
+                continue;
+            }
+            SingleTokenStats stats = findById(entry.getKey())
+                    .orElseGet(() -> {
+                        SingleTokenStats result = new SingleTokenStats(entry.getKey());
+                        tokenStats.add(result);
+                        return result;
+                    });
+            stats.notifyUses(count, entry.getValue().lastUse);
+            entry.getValue().saved = stats.plus(0, 0);
+            modified = true;
+        }
+        if (modified) {
+            save();
+        }
+    }
+    
+    /**
+     * Whether these are still the statistics of their user, rather than of a user since deleted or reloaded.
+     */
+    private boolean isCurrent() {
+        if (user == null) {
+            // loaded from a folder
+            return true;
+        }
+        if (User.getById(user.getId(), false) != user) {
+            return false;
+        }
+        ApiTokenProperty property = user.getProperty(ApiTokenProperty.class);
+        return property != null && property.getTokenStats() == this;
     }
     
     private @Nonnull Optional<SingleTokenStats> findById(@Nonnull String tokenUuid) {
@@ -290,6 +378,72 @@ public class ApiTokenStats implements Saveable {
         return new XmlFile(new File(parent, "apiTokenStats.xml"));
     }
     
+    /**
+     * Maximum number of seconds during which token uses are only kept in memory, and lost if Jenkins crashes.
+     * 0 to save them on every use.
+     */
+    @VisibleForTesting
+    static /* not final */ int FLUSH_INTERVAL_SECONDS = SystemProperties.getInteger(ApiTokenStats.class.getName() + ".flushIntervalSeconds", 60);
+
+    /**
+     * Statistics with uses not yet flushed.
+     */
+    private static final Set<ApiTokenStats> DIRTY = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Flushes all statistics with pending uses.
+     */
+    static void flushAll() {
+        for (ApiTokenStats stats : DIRTY) {
+            stats.flush();
+        }
+    }
+
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static final class Flusher extends PeriodicWork {
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.SECONDS.toMillis(Math.max(1, FLUSH_INTERVAL_SECONDS));
+        }
+
+        @Override
+        protected void doRun() {
+            flushAll();
+        }
+
+        @Terminator
+        public static void flushOnShutdown() {
+            flushAll();
+        }
+    }
+
+    private static final class PendingUsage {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long lastUse;
+        /**
+         * Copy of the saved statistics as of the last flush, so that the current ones can be computed without locking.
+         */
+        private volatile SingleTokenStats saved;
+
+        PendingUsage(SingleTokenStats saved) {
+            this.saved = saved;
+        }
+
+        void notifyUse() {
+            lastUse = System.currentTimeMillis();
+            count.incrementAndGet();
+        }
+
+        /**
+         * The saved statistics plus the uses not yet flushed.
+         * While a flush is in progress, the uses it is adding may be missing.
+         */
+        SingleTokenStats current() {
+            return saved.plus(count.get(), lastUse);
+        }
+    }
+    
     public static class SingleTokenStats {
         private static Comparator<SingleTokenStats> COMP_BY_LAST_USE_THEN_COUNTER =
                 Comparator.comparing(SingleTokenStats::getLastUseDate, Comparator.nullsFirst(Comparator.naturalOrder()))
@@ -316,6 +470,26 @@ public class ApiTokenStats implements Saveable {
             this.lastUseDate = new Date();
         }
         
+        private void notifyUses(long count, long lastUse) {
+            this.useCounter = (int) Math.min(Integer.MAX_VALUE, getUseCounter() + count);
+            if (lastUseDate == null || lastUseDate.getTime() < lastUse) {
+                this.lastUseDate = new Date(lastUse);
+            }
+        }
+        
+        /**
+         * A copy of these statistics with more uses.
+         */
+        private SingleTokenStats plus(long count, long lastUse) {
+            SingleTokenStats result = new SingleTokenStats(tokenUuid);
+            result.useCounter = useCounter;
+            result.lastUseDate = lastUseDate;
+            if (count > 0) {
+                result.notifyUses(count, lastUse);
+            }
+            return result;
+        }
+        
         public String getTokenUuid() {
             return tokenUuid;
         }
@@ -43,13 +43,16 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -71,6 +74,18 @@ public class ApiTokenStore {
     
     private List<HashedToken> tokenList;
     
+    /**
+     * The tokens of {@link #tokenList} by their hash in lower-case hex, replaced as a whole when the list changes,
+     * so that {@link #findMatchingToken} neither scans the list nor locks.
+     */
+    private transient volatile Map<String, HashedToken> tokensByHash = Collections.emptyMap();
+    
+    /**
+     * Incremented whenever tokens are added or removed in any store, so that whatever was found earlier can be checked
+     * to still be valid.
+     */
+    private static final AtomicLong MODIFICATIONS = new AtomicLong();
+    
     public ApiTokenStore() {
         this.init();
     }
@@ -84,6 +99,31 @@ public class ApiTokenStore {
         if (this.tokenList == null) {
             this.tokenList = new ArrayList<>();
         }
+        reindex();
+    }
+    
+    /**
+     * To be called after any change to {@link #tokenList}.
+     */
+    private void reindex() {
+        Map<String, HashedToken> index = new HashMap<>();
+        for (HashedToken token : tokenList) {
+            String hash = token.getHashInHex();
+            if (hash != null) {
+                // like the former linear search, the first matching token wins
+                index.putIfAbsent(hash, token);
+            }
+        }
+        tokensByHash = index;
+        MODIFICATIONS.incrementAndGet();
+    }
+    
+    /**
+     * Number of changes to the tokens of all the stores since startup.
+     * An authentication by API token found while this value did not change is still valid.
+     */
+    public static long getModificationCount() {
+        return MODIFICATIONS.get();
     }
     
     @SuppressFBWarnings("NP_NONNULL_RETURN_VIOLATION")
@@ -95,6 +135,7 @@ public class ApiTokenStore {
     
     private void addToken(HashedToken token) {
         this.tokenList.add(token);
+        reindex();
     }
     
     /**
@@ -144,7 +185,9 @@ public class ApiTokenStore {
     
     private void deleteAllLegacyTokens() {
         // normally there is only one, but just in case
-        tokenList.removeIf(HashedToken::isLegacy);
+        if (tokenList.removeIf(HashedToken::isLegacy)) {
+            reindex();
+        }
     }
     
     private void addLegacyToken(@Nonnull Secret legacyToken, boolean migrationFromExistingLegacy) {
@@ -214,7 +257,7 @@ public class ApiTokenStore {
      * Search in the store if there is a token with the same secret as the one given
      * @return {@code null} iff there is no matching token
      */
-    public synchronized @CheckForNull HashedToken findMatchingToken(@Nonnull String token) {
+    public @CheckForNull HashedToken findMatchingToken(@Nonnull String token) {
         String plainToken;
         if (isLegacyToken(token)) {
             plainToken = token;
@@ -253,13 +296,9 @@ public class ApiTokenStore {
      */
     private @CheckForNull HashedToken searchMatch(@Nonnull String plainSecret) {
         byte[] hashedBytes = plainSecretToHashBytes(plainSecret);
-        for (HashedToken token : tokenList) {
-            if (token.match(hashedBytes)) {
-                return token;
-            }
-        }
-        
-        return null;
+        HashedToken token = tokensByHash.get(Util.toHexString(hashedBytes));
+        // the lookup only tells the hash is known; compare it again in constant time
+        return token != null && token.match(hashedBytes) ? token : null;
     }
     
     /**
@@ -273,6 +312,7 @@ public class ApiTokenStore {
             HashedToken token = iterator.next();
             if (token.uuid.equals(tokenUuid)) {
                 iterator.remove();
+                reindex();
                 
                 return token;
             }
@@ -396,6 +436,18 @@ public class ApiTokenStore {
             this.name = newName;
         }
         
+        /**
+         * @return the hash of the secret in lower-case hex, or {@code null} if it is not in hex-format
+         */
+        private @CheckForNull String getHashInHex() {
+            try {
+                return Util.toHexString(Util.fromHexString(value.hash));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.INFO, "The API token with name=[{0}] is not in hex-format and so cannot be used", name);
+                return null;
+            }
+        }
+        
         public boolean match(byte[] hashedBytes) {
             byte[] hashFromHex;
             try {
@@ -0,0 +1,118 @@
+package jenkins.util;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.ExceptionCatchingThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread pool of configurable size which keeps count of what it runs, queues and rejects.
+ *
+ * <p>
+ * With a queue size of 0, tasks are handed directly to a thread, creating one as needed up to the maximum,
+ * like {@link java.util.concurrent.Executors#newCachedThreadPool}.
+ * Otherwise up to the maximum number of threads run tasks and the others wait in the queue.
+ * In either case idle threads go away after a minute.
+ *
+ * @since TODO
+ */
+@Restricted(NoExternalUse.class)
+public final class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedThreadPoolExecutor.class.getName());
+
+    private final String name;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name
+     *      used for the thread names and in the log.
+     * @param maxThreads
+     *      maximum number of threads.
+     * @param queueSize
+     *      number of tasks which may wait for a thread, or 0 for none.
+     * @param virtualThreads
+     *      whether to run tasks on virtual threads when the JVM supports them.
+     */
+    public InstrumentedThreadPoolExecutor(@Nonnull String name, int maxThreads, int queueSize, boolean virtualThreads) {
+        super(queueSize == 0 ? 0 : maxThreads, maxThreads, 60, TimeUnit.SECONDS, queue(queueSize),
+                new ExceptionCatchingThreadFactory(new NamingThreadFactory(baseThreadFactory(name, virtualThreads), name)));
+        this.name = name;
+        allowCoreThreadTimeOut(queueSize != 0);
+        setRejectedExecutionHandler((r, executor) -> {
+            long count = rejected.incrementAndGet();
+            if (!executor.isShutdown()) {
+                // every time it doubles, so that a storm does not flood the log
+                LOGGER.log(Integer.bitCount((int) Math.min(count, Integer.MAX_VALUE)) == 1 ? Level.WARNING : Level.FINE,
+                        "{0} rejected a task, {1} so far: {2}", new Object[] {name, count, this});
+            }
+            throw new RejectedExecutionException("Task " + r + " rejected by " + this);
+        });
+    }
+
+    /**
+     * Creates a pool configured by the system properties {@code <property>.maxThreads},
+     * {@code <property>.queueSize} and {@code <property>.virtualThreads}.
+     */
+    public static @Nonnull InstrumentedThreadPoolExecutor configure(@Nonnull String name, @Nonnull String property, int defaultMaxThreads, int defaultQueueSize) {
+        int maxThreads = SystemProperties.getInteger(property + ".maxThreads", defaultMaxThreads);
+        int queueSize = SystemProperties.getInteger(property + ".queueSize", defaultQueueSize);
+        boolean virtualThreads = SystemProperties.getBoolean(property + ".virtualThreads");
+        return new InstrumentedThreadPoolExecutor(name, Math.max(1, maxThreads), Math.max(0, queueSize), virtualThreads);
+    }
+
+    private static BlockingQueue<Runnable> queue(int queueSize) {
+        return queueSize == 0 ? new SynchronousQueue<>() : new LinkedBlockingQueue<>(queueSize);
+    }
+
+    private static ThreadFactory baseThreadFactory(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                // Thread.ofVirtual().factory(), available as of Java 21
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException x) {
+                LOGGER.log(Level.INFO, "Virtual threads are not available for {0}, using platform threads: {1}", new Object[] {name, x});
+            }
+        }
+        return new DaemonThreadFactory();
+    }
+
+    public @Nonnull String getName() {
+        return name;
+    }
+
+    /**
+     * Number of tasks waiting for a thread.
+     */
+    public int getQueuedCount() {
+        return getQueue().size();
+    }
+
+    /**
+     * Number of tasks rejected since startup, because all threads were busy and the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + "[active=" + getActiveCount() + ", threads=" + getPoolSize() + "/" + getMaximumPoolSize()
+                + ", queued=" + getQueuedCount() + ", completed=" + getCompletedTaskCount() + ", rejected=" + getRejectedCount() + "]";
+    }
+}
@@ -42,8 +42,10 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -167,6 +169,107 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
      */
     public abstract boolean exists() throws IOException;
 
+    /**
+     * Lists the children of this directory along with their attributes.
+     * For files on an agent, this takes a single round trip, whereas calling {@link #list}
+     * and then {@link #isDirectory}, {@link #length} and so on for each child takes several per child.
+     * @return the children in no particular order, or an empty list if this is not a directory
+     * @throws IOException if this directory exists but listing was not possible for some other reason
+     * @since TODO
+     */
+    public @Nonnull List<FileAttributes> listWithAttributes() throws IOException {
+        VirtualFile[] children = list();
+        List<FileAttributes> r = new ArrayList<>(children.length);
+        boolean checkDescendant = supportIsDescendant();
+        for (VirtualFile child : children) {
+            String name = child.getName();
+            r.add(new FileAttributes(name, child.isDirectory(), child.isFile(), child.length(), child.lastModified(),
+                    child.canRead(), !checkDescendant || isDescendant(name)));
+        }
+        return r;
+    }
+
+    /**
+     * A child of a directory with its attributes, as returned by {@link #listWithAttributes}.
+     * @since TODO
+     */
+    public static final class FileAttributes implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final boolean directory;
+        private final boolean file;
+        private final long length;
+        private final long lastModified;
+        private final boolean readable;
+        private final boolean descendant;
+
+        public FileAttributes(@Nonnull String name, boolean directory, boolean file, long length, long lastModified, boolean readable, boolean descendant) {
+            this.name = name;
+            this.directory = directory;
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.readable = readable;
+            this.descendant = descendant;
+        }
+
+        /**
+         * @see VirtualFile#getName
+         */
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        /**
+         * @see VirtualFile#isDirectory
+         */
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        /**
+         * @see VirtualFile#isFile
+         */
+        public boolean isFile() {
+            return file;
+        }
+
+        /**
+         * @see VirtualFile#length
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @see VirtualFile#lastModified
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @see VirtualFile#canRead
+         */
+        public boolean isReadable() {
+            return readable;
+        }
+
+        /**
+         * Whether the child is really inside the directory, after resolving symbolic links,
+         * or the implementation does not support such a check.
+         * @see VirtualFile#isDescendant
+         */
+        public boolean isDescendant() {
+            return descendant;
+        }
+
+        @Override public String toString() {
+            return name;
+        }
+    }
+
     /**
      * Lists children of this directory. Only one level deep.
      * 
@@ -316,6 +419,18 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
      */
     public abstract InputStream open() throws IOException;
 
+    /**
+     * Opens the file for random access, if it is on the file system of this JVM.
+     * This allows serving it without copying it through the heap, or only serving parts of it.
+     * @return an open channel, or null if the file is not local, in which case {@link #open} should be used
+     * @throws IOException if it could not be opened
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public @CheckForNull FileChannel openLocalChannel() throws IOException {
+        return null;
+    }
+
     /**
      * Does case-insensitive comparison.
      * {@inheritDoc}
@@ -541,6 +656,16 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
                     throw new IOException(e);
                 }
             }
+            @Override public FileChannel openLocalChannel() throws IOException {
+                if (isIllegalSymlink()) {
+                    throw new FileNotFoundException(f.getPath());
+                }
+                try {
+                    return FileChannel.open(f.toPath(), StandardOpenOption.READ);
+                } catch (InvalidPathException e) {
+                    throw new IOException(e);
+                }
+            }
 
         private boolean isIllegalSymlink() {
             try {
@@ -766,6 +891,16 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
                     throw new IOException(x);
                 }
             }
+            @Override public FileChannel openLocalChannel() throws IOException {
+                if (f.isRemote()) {
+                    return null;
+                }
+                try {
+                    return FileChannel.open(new File(f.getRemote()).toPath(), StandardOpenOption.READ);
+                } catch (InvalidPathException e) {
+                    throw new IOException(e);
+                }
+            }
             @Override public <V> V run(Callable<V,IOException> callable) throws IOException {
                 try {
                     return f.act(callable);
@@ -773,6 +908,16 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
                     throw new IOException(x);
                 }
             }
+            @Override public List<FileAttributes> listWithAttributes() throws IOException {
+                if (!f.isRemote()) {
+                    return super.listWithAttributes();
+                }
+                try {
+                    return f.act(new ListWithAttributes(root.getRemote()));
+                } catch (InterruptedException x) {
+                    throw new IOException(x);
+                }
+            }
 
         /**
          * TODO un-restrict it in a weekly after the patch
@@ -843,6 +988,17 @@ public abstract class VirtualFile implements Comparable<VirtualFile>, Serializab
             return joinWithForwardSlashes(relativePath);
         }
     }
+    private static final class ListWithAttributes extends MasterToSlaveFileCallable<List<FileAttributes>> {
+        private static final long serialVersionUID = 1L;
+        private final String root;
+        ListWithAttributes(String root) {
+            this.root = root;
+        }
+        @Override public List<FileAttributes> invoke(File f, VirtualChannel channel) throws IOException {
+            // the same thing as on the controller, only with local calls
+            return new FilePathVF(new FilePath(f), new FilePath(new File(root))).listWithAttributes();
+        }
+    }
     private static final class Scanner extends MasterToSlaveFileCallable<List<String>> {
         private final String includes, excludes;
         private final boolean useDefaultExcludes;
@@ -46,6 +46,7 @@ import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
@@ -199,6 +200,50 @@ public class FilePathTest {
             assertEquals(1, fp.copyRecursiveTo(new FilePath(dst)));
     }
 
+    @Test public void syncRecursiveTo() throws Exception {
+        File src = temp.newFolder("src");
+        File dst = temp.newFolder("dst");
+        FilePath from = new FilePath(src);
+        FilePath to = new FilePath(channels.british, dst.getAbsolutePath());
+        byte[] big = new byte[3 * 128 * 1024 + 1000];
+        new Random(0).nextBytes(big);
+        from.child("big.bin").copyFrom(new ByteArrayInputStream(big));
+        from.child("sub/small.txt").write("small", "UTF-8");
+        // tar only keeps timestamps to the second
+        from.child("big.bin").touch(1000000L);
+        from.child("sub/small.txt").touch(1000000L);
+
+        FilePath.TransferStatistics stats = from.syncRecursiveTo(new DirScanner.Glob("**", null), to, "**", FilePath.TarCompression.GZIP);
+        assertFalse("nothing to compare with on the first copy", stats.isIncremental());
+        assertEquals(2, stats.getFiles());
+
+        big[128 * 1024 + 5]++;
+        from.child("big.bin").copyFrom(new ByteArrayInputStream(big));
+        from.child("new.txt").write("new", "UTF-8");
+        stats = from.syncRecursiveTo(new DirScanner.Glob("**", null), to, "**", FilePath.TarCompression.GZIP);
+        assertTrue(stats.isIncremental());
+        assertEquals(3, stats.getFiles());
+        assertEquals(1, stats.getUnchangedFiles());
+        assertEquals(big.length + 5 + 3, stats.getBytes());
+        assertEquals(128 * 1024 + 3, stats.getSentBytes());
+        assertEquals(3, stats.getReusedBlocks());
+        assertArrayEquals(big, Files.readAllBytes(new File(dst, "big.bin").toPath()));
+        assertEquals(from.child("big.bin").lastModified(), new File(dst, "big.bin").lastModified());
+        assertEquals("new", new FilePath(dst).child("new.txt").readToString());
+        assertEquals("small", new FilePath(dst).child("sub/small.txt").readToString());
+
+        // and back
+        from.child("big.bin").delete();
+        stats = to.syncRecursiveTo(new DirScanner.Glob("big.bin", null), from, "big.bin", FilePath.TarCompression.NONE);
+        assertFalse(stats.isIncremental());
+        big[5]++;
+        to.child("big.bin").copyFrom(new ByteArrayInputStream(big));
+        stats = to.syncRecursiveTo(new DirScanner.Glob("big.bin", null), from, "big.bin", FilePath.TarCompression.NONE);
+        assertTrue(stats.isIncremental());
+        assertEquals(128 * 1024, stats.getSentBytes());
+        assertArrayEquals(big, Files.readAllBytes(new File(src, "big.bin").toPath()));
+    }
+
     @Issue("JENKINS-9540")
     @Test public void errorMessageInRemoteCopyRecursive() throws Exception {
         File src = temp.newFolder("src");
@@ -850,6 +895,32 @@ public class FilePathTest {
         assertEquals("file mtime was not preserved", mtime, Files.getLastModifiedTime(destinationFile));
     }
 
+    @Test public void cloneRecursiveTo() throws Exception {
+        File src = temp.newFolder("src");
+        File dst = temp.newFolder("dst");
+        FilePath from = new FilePath(src);
+        from.child("a.txt").write("a", "UTF-8");
+        from.child("sub/b.txt").write("b", "UTF-8");
+        Files.setLastModifiedTime(src.toPath().resolve("a.txt"), FileTime.from(42L, TimeUnit.SECONDS));
+        if (!Functions.isWindows()) {
+            Files.createSymbolicLink(src.toPath().resolve("link"), Paths.get("a.txt"));
+        }
+        for (FilePath.CloneMode mode : FilePath.CloneMode.values()) {
+            FilePath to = new FilePath(new File(dst, mode.name()));
+            assertEquals(mode.name(), Functions.isWindows() ? 2 : 3, from.cloneRecursiveTo(to, mode));
+            assertEquals("a", to.child("a.txt").readToString());
+            assertEquals("b", to.child("sub/b.txt").readToString());
+            assertEquals(42000L, to.child("a.txt").lastModified());
+            if (!Functions.isWindows()) {
+                assertEquals("a.txt", Files.readSymbolicLink(new File(to.getRemote(), "link").toPath()).toString());
+            }
+        }
+        // a clone made by copying or reflinking is independent of the source
+        from.child("a.txt").write("changed", "UTF-8");
+        assertEquals("a", new FilePath(dst).child("COPY/a.txt").readToString());
+        assertEquals("a", new FilePath(dst).child("REFLINK/a.txt").readToString());
+    }
+
     @Test
     @Issue("SECURITY-904")
     public void isDescendant_regularFiles() throws IOException, InterruptedException {
@@ -0,0 +1,35 @@
+package hudson.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ByteRangesTest {
+
+    @Test
+    public void parse() {
+        assertArrayEquals(new long[] {0, 99}, ByteRanges.parse("bytes=0-99", 1000));
+        assertArrayEquals(new long[] {100, 999}, ByteRanges.parse("bytes=100-", 1000));
+        assertArrayEquals(new long[] {900, 999}, ByteRanges.parse("bytes=-100", 1000));
+        assertArrayEquals(new long[] {0, 999}, ByteRanges.parse("bytes=-5000", 1000));
+        assertArrayEquals(new long[] {500, 999}, ByteRanges.parse("bytes=500-5000", 1000));
+    }
+
+    @Test
+    public void wholeFile() {
+        assertNull(ByteRanges.parse(null, 1000));
+        assertNull(ByteRanges.parse("items=0-5", 1000));
+        assertNull(ByteRanges.parse("bytes=0-5,10-20", 1000));
+        assertNull(ByteRanges.parse("bytes=5-3", 1000));
+        assertNull(ByteRanges.parse("bytes=x-3", 1000));
+    }
+
+    @Test
+    public void unsatisfiable() {
+        assertSame(ByteRanges.UNSATISFIABLE, ByteRanges.parse("bytes=1000-", 1000));
+        assertSame(ByteRanges.UNSATISFIABLE, ByteRanges.parse("bytes=-0", 1000));
+        assertSame(ByteRanges.UNSATISFIABLE, ByteRanges.parse("bytes=0-", 0));
+    }
+}
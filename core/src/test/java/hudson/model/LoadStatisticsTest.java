@@ -36,6 +36,8 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -132,4 +134,47 @@ public class LoadStatisticsTest {
             return false;
         }
     }
+
+    @Test
+    public void executorCountsAreReusedUntilSomethingChanges() {
+        final int[] counted = new int[1];
+        LoadStatistics ls = new LoadStatistics(0, 0) {
+            public int computeIdleExecutors() {
+                throw new UnsupportedOperationException();
+            }
+
+            public int computeTotalExecutors() {
+                throw new UnsupportedOperationException();
+            }
+
+            public int computeQueueLength() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected Iterable<Node> getNodes() {
+                counted[0]++;
+                return Collections.emptyList();
+            }
+
+            @Override
+            protected boolean matches(Queue.Item item, SubTask subTask) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        List<Queue.BuildableItem> queue = Collections.emptyList();
+        ls.computeSnapshot(queue);
+        ls.computeSnapshot(queue);
+        assertThat(counted[0], is(1));
+
+        LoadStatistics.executorsChanged(null);
+        ls.computeSnapshot(queue);
+        assertThat(counted[0], is(2));
+
+        // not tracking its own nodes, so only the global changes count
+        ls.nodesChanged();
+        ls.computeSnapshot(queue);
+        assertThat(counted[0], is(2));
+    }
 }
@@ -0,0 +1,39 @@
+package hudson.node_monitors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProbeLatencyHistogramTest {
+
+    @Test
+    public void buckets() {
+        assertEquals(0, ProbeLatencyHistogram.bucketOf(0));
+        assertEquals(1, ProbeLatencyHistogram.bucketOf(1));
+        assertEquals(2, ProbeLatencyHistogram.bucketOf(3));
+        assertEquals(11, ProbeLatencyHistogram.bucketOf(1024));
+        assertEquals(17, ProbeLatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles() {
+        ProbeLatencyHistogram h = new ProbeLatencyHistogram();
+        assertEquals(0, h.getMedian());
+        for (int i = 0; i < 99; i++) {
+            h.record(3);
+        }
+        h.record(30000);
+        assertEquals(100, h.getCount());
+        assertEquals(4, h.getMedian());
+        assertEquals(4, h.get99thPercentile());
+        assertEquals(32768, h.getPercentile(100));
+        assertEquals((99 * 3 + 30000) / 100, h.getAverage());
+    }
+
+    @Test
+    public void negativeLatencyIsClamped() {
+        ProbeLatencyHistogram h = new ProbeLatencyHistogram();
+        h.record(-5);
+        assertEquals(1, h.getCounts()[0]);
+    }
+}
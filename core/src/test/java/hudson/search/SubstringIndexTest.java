@@ -0,0 +1,36 @@
+package hudson.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class SubstringIndexTest {
+
+    @Test
+    public void find() {
+        SubstringIndex<Integer> index = new SubstringIndex<>();
+        index.put(1, "Foo Bar");
+        index.put(2, "foobar");
+        index.put(3, "ΟΔΥΣΣΕΥΣ");
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(index.find("oo", true)));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(index.find("FOO", true)));
+        assertEquals(Collections.singletonList(1), index.find("o B", false));
+        assertEquals(Collections.emptyList(), index.find("o b", false));
+        assertEquals(Collections.emptyList(), index.find("baz", true));
+        assertEquals(Collections.singletonList(3), index.find("ευς", true));
+        assertEquals(Collections.singletonList(3), index.find("ΥΣΣ", false));
+
+        index.put(1, "baz");
+        assertEquals(Collections.singletonList(2), index.find("foo", true));
+        assertEquals(Collections.singletonList(1), index.find("baz", true));
+        index.replace(4, "foo");
+        index.remove(2);
+        assertEquals(Collections.emptyList(), index.find("foo", true));
+        index.removeIf(i -> i == 1);
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,103 @@
+package hudson.security;
+
+import hudson.model.Item;
+import org.acegisecurity.Authentication;
+import org.acegisecurity.GrantedAuthority;
+import org.acegisecurity.GrantedAuthorityImpl;
+import org.acegisecurity.acls.sid.GrantedAuthoritySid;
+import org.acegisecurity.acls.sid.Sid;
+import org.acegisecurity.providers.UsernamePasswordAuthenticationToken;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SidACLTest {
+
+    private static class GroupACL extends SidACL {
+        final Set<String> groups = new HashSet<>();
+        int evaluations;
+
+        @Override
+        protected Boolean hasPermission(Sid p, Permission permission) {
+            evaluations++;
+            if (p instanceof GrantedAuthoritySid && groups.contains(((GrantedAuthoritySid) p).getGrantedAuthority())) {
+                return true;
+            }
+            return null;
+        }
+    }
+
+    private static Authentication user(String name, String... groups) {
+        GrantedAuthority[] authorities = new GrantedAuthority[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            authorities[i] = new GrantedAuthorityImpl(groups[i]);
+        }
+        return new UsernamePasswordAuthenticationToken(name, "", authorities);
+    }
+
+    @Test
+    public void decisionsRemembered() {
+        GroupACL acl = new GroupACL();
+        acl.groups.add("dev");
+        long hits = AuthorizationCache.getHits();
+        assertTrue(acl.hasPermission(user("alice", "dev"), Item.READ));
+        int evaluations = acl.evaluations;
+        assertTrue(acl.hasPermission(user("alice", "dev"), Item.READ));
+        assertEquals(evaluations, acl.evaluations);
+        assertEquals(hits + 1, AuthorizationCache.getHits());
+
+        // other authorities, other decision
+        assertFalse(acl.hasPermission(user("alice", "ops"), Item.READ));
+
+        acl.groups.add("ops");
+        assertFalse(acl.hasPermission(user("alice", "ops"), Item.READ));
+        AuthorizationCache.invalidate();
+        assertTrue(acl.hasPermission(user("alice", "ops"), Item.READ));
+    }
+
+    @Test
+    public void customDecisionsNotRemembered() {
+        GroupACL acl = new GroupACL() {
+            @Override
+            protected Boolean _hasPermission(Authentication a, Permission permission) {
+                return super._hasPermission(a, permission);
+            }
+        };
+        acl.hasPermission(user("alice"), Item.READ);
+        int evaluations = acl.evaluations;
+        acl.hasPermission(user("alice"), Item.READ);
+        assertEquals(2 * evaluations, acl.evaluations);
+    }
+
+    @Test
+    public void inheritingACLReused() {
+        GroupACL child = new GroupACL();
+        GroupACL parent = new GroupACL();
+        parent.groups.add("dev");
+        SidACL acl = child.newInheritingACL(parent);
+        assertSame(acl, child.newInheritingACL(parent));
+        assertTrue(acl.hasPermission(user("alice", "dev"), Item.READ));
+        assertNotSame(acl, child.newInheritingACL(new GroupACL()));
+        assertFalse(child.newInheritingACL(new GroupACL()).hasPermission(user("alice", "dev"), Item.READ));
+    }
+
+    @Test
+    public void changedEntriesForgetDecisions() {
+        SparseACL child = new SparseACL(null);
+        SparseACL parent = new SparseACL(null);
+        SidACL acl = child.newInheritingACL(parent);
+        assertFalse(acl.hasPermission(user("alice", "dev"), Item.READ));
+        parent.add(new GrantedAuthoritySid("dev"), Item.READ, true);
+        assertTrue(acl.hasPermission(user("alice", "dev"), Item.READ));
+        child.add(new GrantedAuthoritySid("dev"), Item.READ, false);
+        assertFalse(acl.hasPermission(user("alice", "dev"), Item.READ));
+        assertSame(acl, child.newInheritingACL(parent));
+    }
+}
@@ -0,0 +1,58 @@
+package hudson.security;
+
+import hudson.model.Item;
+import org.acegisecurity.acls.sid.GrantedAuthoritySid;
+import org.acegisecurity.acls.sid.PrincipalSid;
+import org.acegisecurity.acls.sid.Sid;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SparseACLTest {
+
+    private final Sid alice = new PrincipalSid("alice");
+    private final Sid dev = new GrantedAuthoritySid("dev");
+
+    @Test
+    public void permissionIndexes() {
+        assertSame(Item.READ, Permission.fromIndex(Item.READ.getIndex()));
+        assertSame(Item.READ, Permission.fromId(Item.READ.getId()));
+        assertTrue(Item.READ.getIndex() > Permission.HUDSON_ADMINISTER.getIndex());
+
+        BitSet granted = new BitSet();
+        granted.set(Permission.HUDSON_ADMINISTER.getIndex());
+        assertTrue(Item.BUILD.isImpliedByAny(granted));
+        granted.clear();
+        granted.set(Item.READ.getIndex());
+        assertTrue(Item.READ.isImpliedByAny(granted));
+        assertFalse(Item.BUILD.isImpliedByAny(granted));
+    }
+
+    @Test
+    public void nearestEntryDecides() {
+        SparseACL acl = new SparseACL(null);
+        acl.add(dev, Permission.HUDSON_ADMINISTER, true);
+        acl.add(dev, Item.DELETE, false);
+        assertEquals(Boolean.TRUE, acl.hasPermission(dev, Item.CONFIGURE));
+        assertEquals(Boolean.FALSE, acl.hasPermission(dev, Item.DELETE));
+        assertNull(acl.hasPermission(alice, Item.DELETE));
+
+        acl.add(alice, Item.READ, true);
+        assertEquals(Boolean.TRUE, acl.hasPermission(alice, Item.READ));
+        assertNull(acl.hasPermission(alice, Item.CONFIGURE));
+    }
+
+    @Test
+    public void firstEntryWins() {
+        SparseACL acl = new SparseACL(null);
+        acl.add(alice, Item.READ, false);
+        acl.add(alice, Item.READ, true);
+        assertEquals(Boolean.FALSE, acl.hasPermission(alice, Item.READ));
+    }
+}
@@ -0,0 +1,47 @@
+package hudson.slaves;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptivePingerTest {
+
+    @Test
+    public void percentiles() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, AdaptivePinger.percentile(sorted, 0.5));
+        assertEquals(90, AdaptivePinger.percentile(sorted, 0.9));
+        assertEquals(99, AdaptivePinger.percentile(sorted, 0.99));
+        assertEquals(7, AdaptivePinger.percentile(new long[] {7}, 0.99));
+        assertEquals(0, AdaptivePinger.percentile(new long[0], 0.5));
+    }
+
+    @Test
+    public void timeoutAdaptsToLatency() {
+        AdaptivePinger.Liveness l = new AdaptivePinger.Liveness(null, null, true, 240_000);
+        // not enough data yet
+        l.record(10);
+        assertEquals(240_000, l.getTimeout());
+        for (int i = 0; i < 10; i++) {
+            l.record(10);
+        }
+        // fast link: bounded by the minimum
+        assertEquals(AdaptivePinger.MIN_TIMEOUT_MILLIS, l.getTimeout());
+        for (int i = 0; i < 200; i++) {
+            l.record(3000);
+        }
+        // slow link: a multiple of the round trip time
+        assertEquals(3000 * AdaptivePinger.RTT_MULTIPLIER, l.getTimeout());
+        AdaptivePinger.Latency latency = l.getLatency();
+        assertEquals(128, latency.getSamples());
+        assertEquals(3000, latency.getP50());
+        for (int i = 0; i < 200; i++) {
+            l.record(60_000);
+        }
+        // very slow link: bounded by the configured timeout
+        assertEquals(240_000, l.getTimeout());
+    }
+}
@@ -0,0 +1,91 @@
+package hudson.slaves;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class PredictiveProvisioningStrategyTest {
+
+    private static final long TICK = 10000;
+
+    @Test
+    public void forecastFollowsRamp() {
+        DemandForecast f = new DemandForecast(0.5, 0.3, 0.8, TICK);
+        for (int i = 0; i < 10; i++) {
+            f.observe(i * TICK, 2 * i);
+        }
+        assertEquals(18f, f.getCurrent(), 0f);
+        assertThat(f.getRate(), greaterThan(0.1f));
+        assertThat(f.getForecast(60000), greaterThan(18f));
+        assertThat(f.getExpectedShortfall(60000, 18), greaterThan(1f));
+    }
+
+    @Test
+    public void forecastDoesNotGoBelowCurrentDemand() {
+        DemandForecast f = new DemandForecast(0.5, 0.3, 0.8, TICK);
+        for (int i = 0; i < 10; i++) {
+            f.observe(i * TICK, 20 - 2 * i);
+        }
+        assertThat(f.getRate(), lessThan(0f));
+        assertEquals(2f, f.getExpectedDemand(600000), 0f);
+    }
+
+    @Test
+    public void unevenObservations() {
+        DemandForecast a = new DemandForecast(0.5, 0.3, 0.8, TICK);
+        DemandForecast b = new DemandForecast(0.5, 0.3, 0.8, TICK);
+        for (int i = 0; i <= 10; i++) {
+            a.observe(i * TICK, 5);
+        }
+        for (int i = 0; i <= 100; i++) {
+            b.observe(i * TICK / 10, 5);
+        }
+        assertEquals(a.getForecast(60000), b.getForecast(60000), 0.001f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSmoothing() {
+        new DemandForecast(0, 0.3, 0.8, TICK);
+    }
+
+    /**
+     * Replays bursts of work against both policies: one minute to bring an agent online, five minutes of idle
+     * retention, and two permanent executors.
+     */
+    @Test
+    public void burstsWaitLessWithoutWastingMore() {
+        int[] trace = bursts();
+        ProvisioningSimulator sim = new ProvisioningSimulator(TICK, 6, 30, 2);
+
+        ProvisioningSimulator.Report reactive = sim.run(trace, ProvisioningSimulator.reactive(0.9f));
+        ProvisioningSimulator.Report predictive = sim.run(trace,
+                ProvisioningSimulator.predictive(new DemandForecast(0.5, 0.3, 0.8, TICK), 6 * TICK));
+
+        String reports = "reactive: " + reactive + ", predictive: " + predictive;
+        assertThat(reports, predictive.waitExecutorMinutes, lessThan(reactive.waitExecutorMinutes));
+        assertThat(reports, predictive.wastedExecutorMinutes, lessThan(reactive.wastedExecutorMinutes));
+    }
+
+    /**
+     * Three bursts ramping up to 20 executors within a minute, held for five minutes, then released.
+     */
+    private static int[] bursts() {
+        int[] trace = new int[3 * 80];
+        Arrays.fill(trace, 1);
+        for (int b = 0; b < 3; b++) {
+            int start = b * 80 + 20;
+            for (int i = 0; i < 6; i++) {
+                trace[start + i] = 1 + (i + 1) * 19 / 6;
+            }
+            for (int i = 6; i < 36; i++) {
+                trace[start + i] = 20;
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,156 @@
+package hudson.slaves;
+
+import hudson.model.LoadStatistics;
+
+import java.util.List;
+
+/**
+ * Offline harness replaying an executor demand trace against a provisioning policy.
+ *
+ * <p>
+ * The demand at each tick (busy executors plus queued items, see {@link DemandForecast#demandOf}) is treated as
+ * given, e.g. taken from recorded {@link LoadStatistics.LoadStatisticsSnapshot}s. Capacity requested by the policy
+ * comes online after a fixed lead time, and cloud executors are terminated once they have been idle for
+ * the retention time. The harness reports how long work waited for an executor against how long
+ * provisioned executors sat idle or booting, both in executor-minutes.
+ */
+final class ProvisioningSimulator {
+
+    /**
+     * Decides how many executors to request at each tick.
+     */
+    interface Policy {
+        /**
+         * @param time
+         *      Simulated time in milliseconds.
+         * @param demand
+         *      Executors wanted right now.
+         * @param online
+         *      Executors online.
+         * @param planned
+         *      Executors requested but not online yet.
+         * @return number of executors to request now.
+         */
+        int provision(long time, int demand, int online, int planned);
+    }
+
+    static final class Report {
+        double waitExecutorMinutes;
+        double wastedExecutorMinutes;
+        int provisionedExecutors;
+
+        @Override
+        public String toString() {
+            return String.format("wait=%.1f executor-minutes, wasted=%.1f executor-minutes, provisioned=%d executors",
+                    waitExecutorMinutes, wastedExecutorMinutes, provisionedExecutors);
+        }
+    }
+
+    private final long tickMillis;
+    private final int leadTicks;
+    private final int retentionTicks;
+    private final int staticExecutors;
+
+    /**
+     * @param tickMillis
+     *      Time between two samples of the trace.
+     * @param leadTicks
+     *      Ticks between a request and the capacity coming online.
+     * @param retentionTicks
+     *      Ticks a cloud executor stays idle before it is terminated.
+     * @param staticExecutors
+     *      Permanent executors that are always online.
+     */
+    ProvisioningSimulator(long tickMillis, int leadTicks, int retentionTicks, int staticExecutors) {
+        this.tickMillis = tickMillis;
+        this.leadTicks = leadTicks;
+        this.retentionTicks = retentionTicks;
+        this.staticExecutors = staticExecutors;
+    }
+
+    static int[] demandOf(List<LoadStatistics.LoadStatisticsSnapshot> trace) {
+        int[] demand = new int[trace.size()];
+        for (int i = 0; i < demand.length; i++) {
+            demand[i] = DemandForecast.demandOf(trace.get(i));
+        }
+        return demand;
+    }
+
+    Report run(int[] demand, Policy policy) {
+        Report r = new Report();
+        int[] arriving = new int[demand.length + leadTicks + 1];
+        int cloud = 0;
+        int planned = 0;
+        int idleTicks = 0;
+        double minutesPerTick = tickMillis / 60000.0;
+
+        for (int t = 0; t < demand.length; t++) {
+            cloud += arriving[t];
+            planned -= arriving[t];
+
+            int online = staticExecutors + cloud;
+            int idleCloud = Math.min(cloud, Math.max(0, online - demand[t]));
+            if (idleCloud > 0) {
+                if (++idleTicks >= retentionTicks) {
+                    cloud -= idleCloud;
+                    online -= idleCloud;
+                    idleCloud = 0;
+                    idleTicks = 0;
+                }
+            } else {
+                idleTicks = 0;
+            }
+
+            r.waitExecutorMinutes += Math.max(0, demand[t] - online) * minutesPerTick;
+            r.wastedExecutorMinutes += (idleCloud + planned) * minutesPerTick;
+
+            int request = Math.max(0, policy.provision(t * tickMillis, demand[t], online, planned));
+            if (request > 0) {
+                arriving[t + leadTicks] += request;
+                planned += request;
+                r.provisionedExecutors += request;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Approximation of {@link NodeProvisioner.StandardStrategyImpl}: exponential moving averages of the queue
+     * length and planned capacity, conservative min/max against the snapshot values, and the threshold margin.
+     */
+    static Policy reactive(final float decay) {
+        return new Policy() {
+            private float queueEma;
+            private float plannedEma;
+
+            @Override
+            public int provision(long time, int demand, int online, int planned) {
+                int queue = Math.max(0, demand - online);
+                queueEma = decay * queueEma + (1 - decay) * queue;
+                plannedEma = decay * plannedEma + (1 - decay) * planned;
+                int available = Math.max(0, online - demand);
+                if (available > 0) {
+                    return 0;
+                }
+                float qlen = Math.min(queueEma, queue);
+                float excess = qlen - Math.max(plannedEma, planned);
+                float m = (float) (0.1 + (0.5 - 0.1) * Math.pow(0.5, online));
+                return excess > 1 - m ? (int) Math.floor(excess + m) : 0;
+            }
+        };
+    }
+
+    /**
+     * Same decisions as {@link PredictiveProvisioningStrategy}.
+     */
+    static Policy predictive(final DemandForecast forecast, final long leadMillis) {
+        return new Policy() {
+            @Override
+            public int provision(long time, int demand, int online, int planned) {
+                forecast.observe(time, demand);
+                float shortfall = forecast.getExpectedShortfall(leadMillis, online + planned);
+                return shortfall >= 1 ? (int) Math.floor(shortfall) : 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package hudson.slaves;
+
+import hudson.FilePath;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class WorkspaceListTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void allocateAddsSuffixes() throws Exception {
+        WorkspaceList l = new WorkspaceList();
+        FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        WorkspaceList.Lease a = l.allocate(ws);
+        WorkspaceList.Lease b = l.allocate(ws);
+        WorkspaceList.Lease c = l.allocate(ws);
+        assertEquals(ws.getRemote(), a.path.getRemote());
+        assertEquals(ws.getRemote() + "@2", b.path.getRemote());
+        assertEquals(ws.getRemote() + "@3", c.path.getRemote());
+        b.release();
+        assertEquals(ws.getRemote() + "@2", l.allocate(ws).path.getRemote());
+        a.release();
+        assertEquals(ws.getRemote(), l.allocate(ws).path.getRemote());
+    }
+
+    @Test
+    public void sameContextShares() throws Exception {
+        WorkspaceList l = new WorkspaceList();
+        FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        Object context = new Object();
+        WorkspaceList.Lease a = l.allocate(ws, context);
+        WorkspaceList.Lease b = l.allocate(ws, context);
+        assertEquals(a.path.getRemote(), b.path.getRemote());
+        a.release();
+        // still held through b
+        assertEquals(ws.getRemote() + "@2", l.allocate(ws).path.getRemote());
+        b.release();
+        assertEquals(ws.getRemote(), l.allocate(ws).path.getRemote());
+    }
+
+    @Test
+    public void acquireWaitsForRelease() throws Exception {
+        final WorkspaceList l = new WorkspaceList();
+        final FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        WorkspaceList.Lease a = l.acquire(ws);
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            Future<WorkspaceList.Lease> b = es.submit(() -> l.acquire(ws));
+            try {
+                b.get(200, TimeUnit.MILLISECONDS);
+                fail("should have waited");
+            } catch (TimeoutException expected) {
+                // fine
+            }
+            // unrelated paths are not held up
+            l.acquire(ws.sibling("other")).release();
+            a.release();
+            assertEquals(ws.getRemote(), b.get(10, TimeUnit.SECONDS).path.getRemote());
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
+    @Test
+    public void allocateWaitsForQuickLease() throws Exception {
+        final WorkspaceList l = new WorkspaceList();
+        final FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        WorkspaceList.Lease quick = l.acquire(ws, true);
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        try {
+            Future<WorkspaceList.Lease> b = es.submit(() -> l.allocate(ws));
+            Thread.sleep(100);
+            assertFalse(b.isDone());
+            quick.release();
+            assertEquals(ws.getRemote(), b.get(10, TimeUnit.SECONDS).path.getRemote());
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void recordTwice() {
+        WorkspaceList l = new WorkspaceList();
+        FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        l.record(ws);
+        l.record(ws);
+    }
+
+    @Test
+    public void allocationPointIsNotCapturedByDefault() throws Exception {
+        WorkspaceList l = new WorkspaceList();
+        FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        l.record(ws);
+        try {
+            l.record(ws);
+            fail();
+        } catch (AssertionError e) {
+            assertFalse(e.getMessage().contains("Allocation Point"));
+        }
+    }
+
+    @Test
+    public void concurrentAllocationsAreExclusive() throws Exception {
+        final WorkspaceList l = new WorkspaceList();
+        final FilePath ws = new FilePath(tmp.getRoot()).child("ws");
+        final int threads = 8;
+        final int[] holders = new int[threads + 1];
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService es = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                es.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        try (WorkspaceList.Lease lease = l.allocate(ws)) {
+                            String remote = lease.path.getRemote();
+                            int slot = remote.equals(ws.getRemote()) ? 0 : Integer.parseInt(remote.substring(remote.lastIndexOf('@') + 1)) - 1;
+                            synchronized (holders) {
+                                if (slot >= holders.length || holders[slot]++ != 0) {
+                                    failures.incrementAndGet();
+                                }
+                            }
+                            synchronized (holders) {
+                                holders[slot]--;
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            es.shutdown();
+            es.awaitTermination(1, TimeUnit.MINUTES);
+        } finally {
+            es.shutdownNow();
+        }
+        assertEquals(0, failures.get());
+    }
+}
@@ -6,6 +6,9 @@ import hudson.util.ProcessTree.OSProcess;
 import hudson.util.ProcessTree.ProcessCallable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import jenkins.security.MasterToSlaveCallable;
 import static org.junit.Assert.*;
 
@@ -44,6 +47,56 @@ public class ProcessTreeTest {
         t.p.act(new ProcessCallableImpl());
     }
 
+    @Test public void linuxEnvironmentEntries() {
+        byte[] environ = "PATH=/bin\0BUILD_ID=12\0JENKINS_NODE_COOKIE=abc\0".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(ProcessTree.Linux.hasEntries(environ, entries("JENKINS_NODE_COOKIE=abc")));
+        assertTrue(ProcessTree.Linux.hasEntries(environ, entries("JENKINS_NODE_COOKIE=abc", "BUILD_ID=12")));
+        assertFalse(ProcessTree.Linux.hasEntries(environ, entries("JENKINS_NODE_COOKIE=ab")));
+        assertFalse(ProcessTree.Linux.hasEntries(environ, entries("BUILD_ID=1")));
+        assertFalse(ProcessTree.Linux.hasEntries(environ, entries("JENKINS_NODE_COOKIE=abc", "BUILD_ID=13")));
+        // no trailing NUL
+        assertTrue(ProcessTree.Linux.hasEntries("A=1\0B=2".getBytes(StandardCharsets.US_ASCII), entries("B=2")));
+        assertFalse(ProcessTree.Linux.hasEntries(new byte[0], entries("B=2")));
+    }
+
+    private static byte[][] entries(String... entries) {
+        byte[][] r = new byte[entries.length][];
+        for (int i = 0; i < entries.length; i++) {
+            r[i] = entries[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return r;
+    }
+
+    @Test public void linuxKillAll() throws Exception {
+        Assume.assumeTrue(ProcessTree.get() instanceof ProcessTree.Linux);
+        ProcessBuilder pb = new ProcessBuilder("sh", "-c", "sleep 1000 & sleep 1000 & wait");
+        String cookie = "linuxKillAll-" + System.nanoTime();
+        pb.environment().put("TEST_COOKIE", cookie);
+        Process proc = pb.start();
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (countMatching(cookie) < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(3, countMatching(cookie));
+            ProcessTree.get().killAll(Collections.singletonMap("TEST_COOKIE", cookie));
+            assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+            assertEquals(0, countMatching(cookie));
+        } finally {
+            proc.destroyForcibly();
+        }
+    }
+
+    private static int countMatching(String cookie) {
+        int count = 0;
+        for (OSProcess p : ProcessTree.get()) {
+            if (cookie.equals(p.getEnvironmentVariables().get("TEST_COOKIE"))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private static class MyCallable extends MasterToSlaveCallable<Tag, IOException> implements Serializable {
         public Tag call() throws IOException {
             Tag t = new Tag();
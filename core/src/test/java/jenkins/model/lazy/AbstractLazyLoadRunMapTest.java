@@ -228,6 +228,43 @@ public class AbstractLazyLoadRunMapTest {
     /**
      * If load fails, search needs to gracefully handle it
      */
+    @Test
+    public void walkFrom() throws IOException {
+        FakeMap m = localBuilder.add(1).add(2).addUnloadable(3).add(5).add(6).make();
+        assertEquals("[5, 2, 1]", numbers(m.descendingFrom(5)));
+        assertEquals("[2, 1]", numbers(m.descendingFrom(4)));
+        assertEquals("[]", numbers(m.descendingFrom(0)));
+        assertEquals("[5, 6]", numbers(m.ascendingFrom(3)));
+        assertEquals("[1, 2, 5, 6]", numbers(m.ascendingFrom(Integer.MIN_VALUE)));
+        // only the builds iterated over are loaded
+        m = localBuilder.make();
+        Iterator<Build> itr = m.descendingFrom(Integer.MAX_VALUE).iterator();
+        itr.next().asserts(6);
+        assertEquals("[6]", m.getLoadedBuilds().keySet().toString());
+    }
+
+    @Test
+    public void searchNewest() throws IOException {
+        FakeMap m = localBuilder.add(1).add(2).addUnloadable(3).addUnloadable(4).add(5).add(7).make();
+        m.searchNewest(r -> r.n < 6).asserts(5);
+        m.searchNewest(r -> r.n < 5).asserts(2);
+        m.searchNewest(r -> true).asserts(7);
+        assertFalse(m.getLoadedBuilds().containsKey(1));
+        assertNull(m.searchNewest(r -> false));
+        assertNull(b.searchNewest(r -> true));
+    }
+
+    private static String numbers(Iterable<Build> builds) {
+        StringBuilder sb = new StringBuilder("[");
+        for (Build b : builds) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(b.n);
+        }
+        return sb.append(']').toString();
+    }
+
     @Test
     public void unloadableData() throws IOException {
         FakeMap m = localBuilder.add(1).addUnloadable(3).add(5).make();
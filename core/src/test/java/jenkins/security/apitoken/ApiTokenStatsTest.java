@@ -25,6 +25,7 @@ package jenkins.security.apitoken;
 
 import hudson.XmlFile;
 import org.apache.commons.io.FileUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -72,6 +73,46 @@ public class ApiTokenStatsTest {
         
         PowerMockito.mockStatic(ApiTokenPropertyConfiguration.class);
         PowerMockito.when(ApiTokenPropertyConfiguration.class, "get").thenReturn(mockConfig);
+        
+        // most tests check what is saved on each use
+        flushInterval = ApiTokenStats.FLUSH_INTERVAL_SECONDS;
+        ApiTokenStats.FLUSH_INTERVAL_SECONDS = 0;
+    }
+    
+    private int flushInterval;
+    
+    @After
+    public void restoreFlushInterval() {
+        ApiTokenStats.FLUSH_INTERVAL_SECONDS = flushInterval;
+    }
+    
+    @Test
+    public void bufferedUsage() throws Exception {
+        ApiTokenStats.FLUSH_INTERVAL_SECONDS = 60;
+        final String ID = UUID.randomUUID().toString();
+        
+        ApiTokenStats tokenStats = createFromFile(tmp.getRoot());
+        for (int i = 0; i < 3; i++) {
+            tokenStats.updateUsageForId(ID);
+        }
+        // counted, but not saved yet
+        assertEquals(3, tokenStats.findTokenStatsById(ID).getUseCounter());
+        assertNotNull(tokenStats.findTokenStatsById(ID).getLastUseDate());
+        assertEquals(0, createFromFile(tmp.getRoot()).findTokenStatsById(ID).getUseCounter());
+        
+        ApiTokenStats.flushAll();
+        assertEquals(3, createFromFile(tmp.getRoot()).findTokenStatsById(ID).getUseCounter());
+        
+        tokenStats.updateUsageForId(ID);
+        assertEquals(4, tokenStats.findTokenStatsById(ID).getUseCounter());
+        tokenStats.flush();
+        ApiTokenStats reloaded = createFromFile(tmp.getRoot());
+        assertEquals(4, reloaded.findTokenStatsById(ID).getUseCounter());
+        assertEquals(tokenStats.findTokenStatsById(ID).getLastUseDate(), reloaded.findTokenStatsById(ID).getLastUseDate());
+        
+        // the returned statistics include both the saved and the pending uses
+        assertEquals(5, tokenStats.updateUsageForId(ID).getUseCounter());
+        assertEquals(5, reloaded.updateUsageForId(ID).getUseCounter());
     }
     
     @Test
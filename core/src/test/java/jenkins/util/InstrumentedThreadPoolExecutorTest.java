@@ -0,0 +1,78 @@
+package jenkins.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InstrumentedThreadPoolExecutorTest {
+
+    @Test
+    public void boundedWithQueue() throws Exception {
+        InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor("test", 2, 1, false);
+        try {
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                pool.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(2, pool.getActiveCount());
+            assertEquals(1, pool.getQueuedCount());
+            try {
+                pool.execute(() -> {});
+                fail("queue is full");
+            } catch (RejectedExecutionException x) {
+                // expected
+            }
+            assertEquals(1, pool.getRejectedCount());
+            release.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(3, pool.getCompletedTaskCount());
+        assertEquals(0, pool.getQueuedCount());
+    }
+
+    @Test
+    public void unboundedWithoutQueue() throws Exception {
+        InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor("test", Integer.MAX_VALUE, 0, false);
+        try {
+            int tasks = 20;
+            CountDownLatch started = new CountDownLatch(tasks);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < tasks; i++) {
+                pool.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            // like a cached thread pool, every task gets a thread right away
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(tasks, pool.getActiveCount());
+            assertEquals(0, pool.getQueuedCount());
+            release.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0, pool.getRejectedCount());
+    }
+}
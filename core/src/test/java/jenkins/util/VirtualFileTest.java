@@ -46,7 +46,9 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
@@ -83,6 +85,35 @@ public class VirtualFileTest {
         }
     }
 
+    @Test public void listWithAttributes() throws Exception {
+        assumeFalse("Symlinks don't work well on Windows", Functions.isWindows());
+        File ws = tmp.newFolder("ws");
+        FileUtils.write(new File(ws, "safe"), "safe");
+        new File(ws, "sub").mkdir();
+        File other = tmp.newFolder("other");
+        FileUtils.write(new File(other, "secret"), "s3cr3t");
+        Util.createSymlink(ws, "../other/secret", "hack", TaskListener.NULL);
+        for (VirtualFile root : new VirtualFile[] {VirtualFile.forFile(ws), VirtualFile.forFilePath(new FilePath(ws))}) {
+            Map<String, VirtualFile.FileAttributes> attributes = new TreeMap<>();
+            for (VirtualFile.FileAttributes a : root.listWithAttributes()) {
+                attributes.put(a.getName(), a);
+            }
+            assertEquals("[hack, safe, sub]", attributes.keySet().toString());
+            VirtualFile.FileAttributes safe = attributes.get("safe");
+            assertTrue(safe.isFile());
+            assertFalse(safe.isDirectory());
+            assertEquals(4, safe.getLength());
+            assertEquals(new File(ws, "safe").lastModified(), safe.getLastModified());
+            assertTrue(safe.isReadable());
+            assertTrue(safe.isDescendant());
+            VirtualFile.FileAttributes sub = attributes.get("sub");
+            assertTrue(sub.isDirectory());
+            assertTrue(sub.isDescendant());
+            assertFalse(attributes.get("hack").isDescendant());
+        }
+        assertThat(VirtualFile.forFile(new File(ws, "safe")).listWithAttributes(), empty());
+    }
+
     @Issue("JENKINS-26810")
     @Test public void mode() throws Exception {
         File f = tmp.newFile();
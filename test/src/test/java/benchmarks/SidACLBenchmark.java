@@ -0,0 +1,76 @@
+package benchmarks;
+
+import hudson.model.Item;
+import hudson.security.AuthorizationCache;
+import hudson.security.Permission;
+import hudson.security.SidACL;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.acegisecurity.Authentication;
+import org.acegisecurity.GrantedAuthority;
+import org.acegisecurity.GrantedAuthorityImpl;
+import org.acegisecurity.acls.sid.GrantedAuthoritySid;
+import org.acegisecurity.acls.sid.Sid;
+import org.acegisecurity.providers.UsernamePasswordAuthenticationToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures checking a permission with a matrix-like {@link SidACL}, for a user in many groups,
+ * when the decision is remembered and when it has to be evaluated.
+ */
+@JmhBenchmark
+public class SidACLBenchmark {
+
+    public static class ACLState extends JmhBenchmarkState {
+        @Param({"10", "100"})
+        public int groups;
+
+        SidACL acl;
+        Authentication user;
+
+        @Override
+        public void setup() throws Exception {
+            Map<String, Set<Permission>> grants = new HashMap<>();
+            GrantedAuthority[] authorities = new GrantedAuthority[groups];
+            for (int i = 0; i < groups; i++) {
+                grants.put("group" + i, new HashSet<>());
+                authorities[i] = new GrantedAuthorityImpl("group" + i);
+            }
+            // only the last group may build
+            grants.get("group" + (groups - 1)).add(Item.BUILD);
+            acl = new SidACL() {
+                @Override
+                protected Boolean hasPermission(Sid p, Permission permission) {
+                    if (p instanceof GrantedAuthoritySid) {
+                        Set<Permission> permissions = grants.get(((GrantedAuthoritySid) p).getGrantedAuthority());
+                        for (; permissions != null && permission != null; permission = permission.impliedBy) {
+                            if (permissions.contains(permission)) {
+                                return true;
+                            }
+                        }
+                    }
+                    return null;
+                }
+            };
+            user = new UsernamePasswordAuthenticationToken("alice", "", authorities);
+        }
+    }
+
+    @Benchmark
+    public void cached(ACLState state, Blackhole blackhole) {
+        blackhole.consume(state.acl.hasPermission(state.user, Item.BUILD));
+    }
+
+    @Benchmark
+    public void evaluated(ACLState state, Blackhole blackhole) {
+        AuthorizationCache.invalidate();
+        blackhole.consume(state.acl.hasPermission(state.user, Item.BUILD));
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import hudson.model.User;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures resolving changelog authors to {@link User}s on an instance with many users, as done for every
+ * entry when parsing a changelog: authors are given by full name, or by a name no user has.
+ */
+@JmhBenchmark
+public class UserResolutionBenchmark {
+
+    public static class UsersState extends JmhBenchmarkState {
+        @Param({"1000", "30000"})
+        public int users;
+
+        @Override
+        public void setup() throws Exception {
+            for (int i = 0; i < users; i++) {
+                User.getById("user" + i, true).setFullName("User Number " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void resolveFullName(UsersState state, Blackhole blackhole) {
+        String fullName = "User Number " + ThreadLocalRandom.current().nextInt(state.users);
+        blackhole.consume(User.get(fullName, false, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public void resolveUnknownName(UsersState state, Blackhole blackhole) {
+        String name = "Committer " + ThreadLocalRandom.current().nextInt(state.users);
+        blackhole.consume(User.get(name, false, Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import hudson.FilePath;
+import hudson.slaves.WorkspaceList;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures {@link WorkspaceList} allocation under contention, as seen on an agent with many executors
+ * running short builds: each thread repeatedly allocates a workspace for one of a number of jobs and releases it.
+ */
+@JmhBenchmark
+public class WorkspaceListBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ListState {
+        /**
+         * Number of distinct jobs the executors build. 1 means every executor builds the same job and
+         * ends up in an {@code @N} variant of its workspace.
+         */
+        @Param({"1", "40"})
+        public int jobs;
+
+        final WorkspaceList list = new WorkspaceList();
+        FilePath[] workspaces;
+
+        @Setup
+        public void setup() {
+            FilePath root = new FilePath(new File(System.getProperty("java.io.tmpdir"), "workspace"));
+            workspaces = new FilePath[jobs];
+            for (int i = 0; i < jobs; i++) {
+                workspaces[i] = root.child("job" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(40)
+    public void allocateAndRelease(ListState state, Blackhole blackhole) throws InterruptedException {
+        FilePath ws = state.workspaces[ThreadLocalRandom.current().nextInt(state.workspaces.length)];
+        try (WorkspaceList.Lease lease = state.list.allocate(ws)) {
+            blackhole.consume(lease.path);
+        }
+    }
+}
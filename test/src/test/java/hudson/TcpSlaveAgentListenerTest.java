@@ -3,8 +3,15 @@ package hudson;
 import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.TextPage;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 import jenkins.model.Jenkins;
 import org.junit.Rule;
@@ -15,6 +22,7 @@ import org.jvnet.hudson.test.JenkinsRule.WebClient;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class TcpSlaveAgentListenerTest {
 
@@ -49,4 +57,34 @@ public class TcpSlaveAgentListenerTest {
         Page page = wc.getPage(new URL("http://localhost:" + p + "/xxx"));
         assertEquals(HttpURLConnection.HTTP_NOT_FOUND, page.getWebResponse().getStatusCode());
     }
+
+    @Test
+    public void handshakes() throws Exception {
+        r.getInstance().setSlaveAgentPort(0);
+        TcpSlaveAgentListener listener = r.jenkins.getTcpSlaveAgentListener();
+        try (Socket s = new Socket("localhost", listener.getPort())) {
+            assertTrue(new TcpSlaveAgentListener.PingAgentProtocol().connect(s));
+        }
+        try (Socket s = new Socket("localhost", listener.getPort())) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            new DataOutputStream(header).writeUTF("Protocol:Nonexistent");
+            byte[] b = header.toByteArray();
+            // sent in pieces, as a slow client would
+            OutputStream out = s.getOutputStream();
+            out.write(b, 0, 3);
+            out.flush();
+            Thread.sleep(100);
+            out.write(b, 3, b.length - 3);
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(in.readLine(), containsString("Unknown protocol"));
+        }
+        TcpSlaveAgentListener.HandshakeStatistics statistics = listener.getHandshakeStatistics();
+        while (statistics.getCompleted() < 1) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, statistics.getAccepted());
+        assertEquals(1, statistics.getRejected());
+        assertEquals(0, statistics.getTimedOut());
+    }
 }
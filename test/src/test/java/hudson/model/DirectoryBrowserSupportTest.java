@@ -25,6 +25,7 @@ package hudson.model;
 
 import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.UnexpectedPage;
+import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import hudson.*;
 import hudson.tasks.ArtifactArchiver;
@@ -176,6 +177,109 @@ public class DirectoryBrowserSupportTest {
         zipfile.delete();
     }
 
+    @Test
+    public void cachedZipDownload() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.getBuildersList().add(new TestBuilder() {
+            @Override public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                build.getWorkspace().child("lib.jar").write("not really a jar", "UTF-8");
+                build.getWorkspace().child("notes.txt").write("some notes", "UTF-8");
+                return true;
+            }
+        });
+        p.getPublishersList().add(new ArtifactArchiver("*"));
+        FreeStyleBuild b = j.buildAndAssertSuccess(p);
+
+        DirectoryBrowserSupport.CACHE_ZIPS = true;
+        long maxSize = ZipBundleCache.MAX_SIZE;
+        try {
+            JenkinsRule.WebClient wc = j.createWebClient();
+            // the first download is streamed while the bundle is cached
+            File zipfile = download((UnexpectedPage) wc.goTo(b.getUrl() + "artifact/*zip*/archive.zip", null));
+            long length = zipfile.length();
+            try (ZipFile readzip = new ZipFile(zipfile)) {
+                assertNotNull(readzip.getEntry("archive/lib.jar"));
+                assertNotNull(readzip.getEntry("archive/notes.txt"));
+            }
+            File cacheDir = new File(j.jenkins.getRootDir(), "zipCache");
+            assertEquals(1, cacheDir.list().length);
+
+            Page download = wc.goTo(b.getUrl() + "artifact/*zip*/archive.zip", null);
+            assertEquals(String.valueOf(length), download.getWebResponse().getResponseHeaderValue("Content-Length"));
+            File again = download((UnexpectedPage) download);
+            assertArrayEquals(Files.readAllBytes(zipfile.toPath()), Files.readAllBytes(again.toPath()));
+            again.delete();
+
+            WebRequest request = new WebRequest(new URL(j.getURL(), b.getUrl() + "artifact/*zip*/archive.zip"));
+            request.setAdditionalHeader("Range", "bytes=10-");
+            Page part = wc.getPage(request);
+            assertEquals(HttpURLConnection.HTTP_PARTIAL, part.getWebResponse().getStatusCode());
+            assertEquals("bytes 10-" + (length - 1) + "/" + length, part.getWebResponse().getResponseHeaderValue("Content-Range"));
+            byte[] tail;
+            try (InputStream is = part.getWebResponse().getContentAsStream()) {
+                tail = IOUtils.toByteArray(is);
+            }
+            assertArrayEquals(Arrays.copyOfRange(Files.readAllBytes(zipfile.toPath()), 10, (int) length), tail);
+            zipfile.delete();
+
+            // bundles of matching files are not cached
+            download((UnexpectedPage) wc.goTo(b.getUrl() + "artifact/*.txt/*zip*/archive.zip", null)).delete();
+            assertEquals(1, cacheDir.list().length);
+
+            // the least recently downloaded bundle goes first
+            ZipBundleCache.MAX_SIZE = length;
+            FreeStyleBuild b2 = j.buildAndAssertSuccess(p);
+            download((UnexpectedPage) wc.goTo(b2.getUrl() + "artifact/*zip*/archive.zip", null)).delete();
+            assertEquals(1, cacheDir.list().length);
+            ZipBundleCache.MAX_SIZE = maxSize;
+            download((UnexpectedPage) wc.goTo(b.getUrl() + "artifact/*zip*/archive.zip", null)).delete();
+            assertEquals(2, cacheDir.list().length);
+
+            b.deleteArtifacts();
+            assertEquals(1, cacheDir.list().length);
+
+            // a job deleted or renamed takes its bundles with it
+            p.delete();
+            assertEquals(0, cacheDir.list().length);
+        } finally {
+            DirectoryBrowserSupport.CACHE_ZIPS = false;
+            ZipBundleCache.MAX_SIZE = maxSize;
+        }
+    }
+
+    @Test
+    public void rangeRequest() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.setScm(new SingleFileSCM("data.bin", "0123456789"));
+        p.getPublishersList().add(new ArtifactArchiver("*", "", true));
+        FreeStyleBuild b = j.buildAndAssertSuccess(p);
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        wc.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        URL url = new URL(j.getURL(), b.getUrl() + "artifact/data.bin");
+
+        WebRequest request = new WebRequest(url);
+        request.setAdditionalHeader("Range", "bytes=2-5");
+        Page page = wc.getPage(request);
+        assertEquals(HttpURLConnection.HTTP_PARTIAL, page.getWebResponse().getStatusCode());
+        assertEquals("bytes 2-5/10", page.getWebResponse().getResponseHeaderValue("Content-Range"));
+        assertEquals("2345", page.getWebResponse().getContentAsString());
+
+        request = new WebRequest(url);
+        request.setAdditionalHeader("Range", "bytes=10-");
+        page = wc.getPage(request);
+        assertEquals(416, page.getWebResponse().getStatusCode());
+        assertEquals("bytes */10", page.getWebResponse().getResponseHeaderValue("Content-Range"));
+
+        // a range for an outdated copy gets the whole file
+        request = new WebRequest(url);
+        request.setAdditionalHeader("Range", "bytes=2-5");
+        request.setAdditionalHeader("If-Range", "Thu, 01 Jan 1970 00:00:00 GMT");
+        page = wc.getPage(request);
+        assertEquals(HttpURLConnection.HTTP_OK, page.getWebResponse().getStatusCode());
+        assertEquals("0123456789", page.getWebResponse().getContentAsString());
+    }
+
     @Issue("SECURITY-95")
     @Test
     public void contentSecurityPolicy() throws Exception {
@@ -159,6 +159,33 @@ public class ListViewTest {
         assertEquals(new HashSet<TopLevelItem>(Arrays.asList(p1, p2)), new HashSet<TopLevelItem>(v.getItems()));
     }
 
+    @Test public void includeRegexFollowsItemChanges() throws Exception {
+        FreeStyleProject a1 = j.createFreeStyleProject("a1");
+        j.createFreeStyleProject("b1");
+        ListView v = new ListView("v", j.jenkins);
+        v.setIncludeRegex("a.*");
+        j.jenkins.addView(v);
+        assertEquals(Collections.singletonList(a1), v.getItems());
+
+        FreeStyleProject a2 = j.createFreeStyleProject("a2");
+        FreeStyleProject a3 = j.jenkins.copy(a1, "a3");
+        j.createFreeStyleProject("b2");
+        assertEquals(Arrays.asList(a1, a2, a3), v.getItems());
+
+        a1.renameTo("b3");
+        a2.delete();
+        assertEquals(Collections.singletonList(a3), v.getItems());
+
+        MockFolder sub = j.createFolder("sub");
+        FreeStyleProject nested = sub.createProject(FreeStyleProject.class, "a4");
+        assertEquals(Collections.singletonList(a3), v.getItems());
+        v.setRecurse(true);
+        v.setIncludeRegex("(sub/)?a.*");
+        assertEquals(Arrays.asList(a3, nested), v.getItems());
+        FreeStyleProject nested2 = sub.createProject(FreeStyleProject.class, "a5");
+        assertEquals(Arrays.asList(a3, nested, nested2), v.getItems());
+    }
+
     @Issue("JENKINS-23893")
     @Test public void renameJobContainedInTopLevelView() throws Exception {
         ListView view = new ListView("view", j.jenkins);
@@ -0,0 +1,50 @@
+package hudson.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.FakeChangeLogSCM;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PeopleIndexTest {
+
+    @Rule public JenkinsRule j = new JenkinsRule();
+
+    @Test public void updatedByBuilds() throws Exception {
+        while (PeopleIndex.getIfReady() == null) {
+            Thread.sleep(100);
+        }
+        PeopleIndex index = PeopleIndex.getIfReady();
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        FakeChangeLogSCM scm = new FakeChangeLogSCM();
+        scm.addChange().withAuthor("alice");
+        p.setScm(scm);
+        FreeStyleBuild b = j.buildAndAssertSuccess(p);
+        assertEquals(Collections.singletonMap("alice", b.getTimeInMillis()), index.getLastChanges(p));
+
+        View.People people = new View.People(j.jenkins);
+        View.UserInfo alice = null;
+        for (View.UserInfo info : people.users) {
+            if (info.getUser().getId().equals("alice")) {
+                alice = info;
+            }
+        }
+        assertNotNull(alice);
+        assertEquals(p, alice.getJob());
+        assertEquals(b.getTimeInMillis(), alice.getLastChange().getTimeInMillis());
+        assertTrue(View.People.isApplicable(Collections.singleton(p)));
+
+        p.renameTo("q");
+        assertEquals("alice", index.getLastChanges(p).keySet().iterator().next());
+        p.delete();
+        assertTrue(index.getLastChanges(p).isEmpty());
+        assertNull(j.jenkins.getItem("q"));
+    }
+
+}
@@ -588,6 +588,18 @@ public class UserTest {
         assertEquals("'user2' should resolve to u2", u2.getId(), u.getId());
     }
 
+    @Test
+    public void resolveByFullNameAfterRenameAndDelete() throws Exception {
+        User u = User.getById("jsmith", true);
+        u.setFullName("Jane Smith");
+        assertEquals("jsmith", User.get("Jane Smith", false, Collections.emptyMap()).getId());
+        u.setFullName("Jane Doe");
+        assertNull("the old full name is forgotten", User.get("Jane Smith", false, Collections.emptyMap()));
+        assertEquals("jsmith", User.get("Jane Doe", false, Collections.emptyMap()).getId());
+        u.delete();
+        assertNull("deleted users are forgotten", User.get("Jane Doe", false, Collections.emptyMap()));
+    }
+
     @Issue("SECURITY-243")
     @Test
     public void resolveByUnloadedIdThenName() throws Exception {
@@ -0,0 +1,144 @@
+package hudson.node_monitors;
+
+import hudson.model.Computer;
+import hudson.remoting.Callable;
+import hudson.slaves.DumbSlave;
+import jenkins.security.MasterToSlaveCallable;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractAsyncNodeMonitorDescriptorTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private final int maxConcurrentProbes = AbstractAsyncNodeMonitorDescriptor.MAX_CONCURRENT_PROBES;
+    private final int maxBackoffRounds = AbstractAsyncNodeMonitorDescriptor.MAX_BACKOFF_ROUNDS;
+
+    @After
+    public void restore() {
+        AbstractAsyncNodeMonitorDescriptor.MAX_CONCURRENT_PROBES = maxConcurrentProbes;
+        AbstractAsyncNodeMonitorDescriptor.MAX_BACKOFF_ROUNDS = maxBackoffRounds;
+    }
+
+    @Test
+    public void concurrentProbesAreCapped() throws Exception {
+        DumbSlave a = j.createOnlineSlave();
+        DumbSlave b = j.createOnlineSlave();
+        DumbSlave c = j.createOnlineSlave();
+        AbstractAsyncNodeMonitorDescriptor.MAX_CONCURRENT_PROBES = 1;
+        SleepingMonitorDescriptor d = new SleepingMonitorDescriptor();
+        d.sleep.put(a.getNodeName(), 1000L);
+        d.sleep.put(b.getNodeName(), 1000L);
+        d.sleep.put(c.getNodeName(), 1000L);
+
+        long start = System.nanoTime();
+        Map<Computer, String> data = d.monitorDetailed().getMonitoringData();
+        assertTrue("probes ran one at a time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 3000);
+        assertEquals("ok", data.get(a.toComputer()));
+        assertEquals("ok", data.get(b.toComputer()));
+        assertEquals("ok", data.get(c.toComputer()));
+        assertEquals(3, d.getProbeLatency().getCount());
+    }
+
+    @Test
+    public void hungProbeDoesNotHoldBackOthers() throws Exception {
+        DumbSlave hung = j.createOnlineSlave();
+        DumbSlave a = j.createOnlineSlave();
+        DumbSlave b = j.createOnlineSlave();
+        AbstractAsyncNodeMonitorDescriptor.MAX_CONCURRENT_PROBES = 2;
+        SleepingMonitorDescriptor d = new SleepingMonitorDescriptor();
+        d.sleep.put(hung.getNodeName(), TimeUnit.HOURS.toMillis(1));
+        d.sleep.put(a.getNodeName(), 0L);
+        d.sleep.put(b.getNodeName(), 0L);
+
+        long start = System.nanoTime();
+        Map<Computer, String> data = d.monitorDetailed().getMonitoringData();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("gave up on the hung probe after the time out: " + elapsed, elapsed < d.getMonitoringTimeOut() + 5000);
+        assertNull(data.get(hung.toComputer()));
+        assertEquals("ok", data.get(a.toComputer()));
+        assertEquals("ok", data.get(b.toComputer()));
+    }
+
+    @Test
+    public void stableComputersAreProbedLessOften() throws Exception {
+        DumbSlave s = j.createOnlineSlave();
+        AbstractAsyncNodeMonitorDescriptor.MAX_BACKOFF_ROUNDS = 3;
+        SleepingMonitorDescriptor d = new SleepingMonitorDescriptor();
+        d.sleep.put(s.getNodeName(), 0L);
+        d.stable = true;
+
+        for (int round = 0; round < 8; round++) {
+            assertEquals("ok", d.monitorDetailed().getMonitoringData().get(s.toComputer()));
+        }
+        // probed in rounds 1, 2, 4 and 8, skipping 0, 1 and then 3 rounds
+        assertEquals(4, d.probes.get());
+
+        // a reconnected computer is probed again
+        s.toComputer().disconnect(null).get();
+        s.toComputer().connect(false).get();
+        d.monitorDetailed();
+        assertEquals(5, d.probes.get());
+    }
+
+    private static final class SleepingMonitorDescriptor extends AbstractAsyncNodeMonitorDescriptor<String> {
+        private final Map<String, Long> sleep = new ConcurrentHashMap<>();
+        private final AtomicInteger probes = new AtomicInteger();
+        private boolean stable;
+
+        SleepingMonitorDescriptor() {
+            super(NodeMonitor.class, TimeUnit.DAYS.toMillis(1));
+        }
+
+        @Override
+        protected Callable<String, IOException> createCallable(Computer c) {
+            Long millis = sleep.get(c.getName());
+            if (millis == null) {
+                return null;
+            }
+            probes.incrementAndGet();
+            return new Sleep(millis);
+        }
+
+        @Override
+        protected boolean isStable(String previous, String current) {
+            return stable;
+        }
+
+        @Override
+        protected long getMonitoringTimeOut() {
+            return TimeUnit.SECONDS.toMillis(10);
+        }
+    }
+
+    private static final class Sleep extends MasterToSlaveCallable<String, IOException> {
+        private final long millis;
+
+        Sleep(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public String call() throws IOException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException x) {
+                throw new IOException(x);
+            }
+            return "ok";
+        }
+    }
+}
@@ -484,4 +484,33 @@ public class SearchTest {
         URL resultUrl = searchResult.getUrl();
         assertTrue(resultUrl.toString().equals(j.getInstance().getRootUrl() + freeStyleProject.getUrl()));
     }
+
+    @Test
+    public void suggestionsFollowItemAndUserChanges() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("alpha-one");
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject child = folder.createProject(FreeStyleProject.class, "alpha-two");
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "pha-o").contains(p));
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "alpha").contains(child));
+
+        p.renameTo("beta-one");
+        assertFalse(suggest(j.jenkins.getSearchIndex(), "pha-o").contains(p));
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "eta-o").contains(p));
+
+        p.setDisplayName("Gamma One");
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "mma").contains(p));
+        assertFalse(suggest(j.jenkins.getSearchIndex(), "eta-o").contains(p));
+
+        folder.delete();
+        assertFalse(suggest(j.jenkins.getSearchIndex(), "alpha").contains(child));
+        p.delete();
+        assertFalse(suggest(j.jenkins.getSearchIndex(), "mma").contains(p));
+
+        User user = User.getById("jdoe", true);
+        user.setFullName("John Doe");
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "n Do").contains(user));
+        user.setFullName("Jane Roe");
+        assertFalse(suggest(j.jenkins.getSearchIndex(), "n Do").contains(user));
+        assertTrue(suggest(j.jenkins.getSearchIndex(), "ne R").contains(user));
+    }
 }
@@ -732,6 +732,27 @@ public class HudsonPrivateSecurityRealmTest {
         }
     }
 
+    @Test
+    public void passwordCheckReusedUntilPasswordChanges() throws Exception {
+        User alice = prepareRealmAndAlice();
+        HudsonPrivateSecurityRealm.PasswordVerifier verifier = HudsonPrivateSecurityRealm.PasswordVerifier.get();
+        long hits = verifier.getCacheHits();
+
+        assertUserConnected(j.createWebClient().withBasicCredentials("alice", "alice"), "alice");
+        assertUserConnected(j.createWebClient().withBasicCredentials("alice", "alice"), "alice");
+        assertEquals(hits + 1, verifier.getCacheHits());
+        AbstractPasswordBasedSecurityRealm.AuthenticationStatistics statistics =
+                ((AbstractPasswordBasedSecurityRealm) j.jenkins.getSecurityRealm()).getAuthenticationStatistics();
+        assertEquals(2, statistics.getSucceeded());
+
+        alice.addProperty(HudsonPrivateSecurityRealm.Details.fromPlainPassword("alice2"));
+        JenkinsRule.WebClient wc = j.createWebClient().withBasicCredentials("alice", "alice");
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        assertEquals(401, wc.goTo("whoAmI/api/xml", null).getWebResponse().getStatusCode());
+        assertEquals(1, statistics.getFailed());
+        assertUserConnected(j.createWebClient().withBasicCredentials("alice", "alice2"), "alice");
+    }
+
     private User prepareRealmAndAlice() throws Exception {
         j.jenkins.setDisableRememberMe(false);
         HudsonPrivateSecurityRealm securityRealm = new HudsonPrivateSecurityRealm(false, false, null);
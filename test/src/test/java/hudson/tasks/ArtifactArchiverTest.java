@@ -39,16 +39,22 @@ import static hudson.tasks.LogRotatorTest.build;
 import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import hudson.model.Run;
 import hudson.remoting.VirtualChannel;
 import hudson.slaves.DumbSlave;
 import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.ArtifactManagerConfiguration;
+import jenkins.model.DeduplicatingArtifactManagerFactory;
 import jenkins.model.StandardArtifactManager;
 import jenkins.util.VirtualFile;
+import org.apache.commons.lang.StringUtils;
 import org.hamcrest.Matchers;
 import org.jenkinsci.plugins.structs.describable.DescribableModel;
 
@@ -386,6 +392,79 @@ public class ArtifactArchiverTest {
         assertEquals("8", artifact.getLength());
     }
 
+    @Test
+    public void archiveOverSeveralStreams() throws Exception {
+        DumbSlave slave = j.createOnlineSlave();
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.getBuildersList().add(new TestBuilder() {
+            @Override public boolean perform(AbstractBuild<?,?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                FilePath ws = build.getWorkspace();
+                for (int i = 0; i < 10; i++) {
+                    ws.child("dir/f" + i).write(StringUtils.repeat("x", i * 100), null);
+                }
+                return true;
+            }
+        });
+        p.getPublishersList().add(new ArtifactArchiver("dir/*"));
+        p.setAssignedNode(slave);
+        int streams = StandardArtifactManager.ARCHIVE_STREAMS;
+        long threshold = StandardArtifactManager.PARALLEL_ARCHIVE_THRESHOLD;
+        StandardArtifactManager.ARCHIVE_STREAMS = 3;
+        StandardArtifactManager.PARALLEL_ARCHIVE_THRESHOLD = 0;
+        try {
+            FreeStyleBuild b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("over 3 streams", b);
+            j.assertLogContains("Archived 10 files", b);
+            List<FreeStyleBuild.Artifact> artifacts = b.getArtifacts();
+            assertEquals(10, artifacts.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i * 100, b.getArtifactManager().root().child("dir/f" + i).length());
+            }
+        } finally {
+            StandardArtifactManager.ARCHIVE_STREAMS = streams;
+            StandardArtifactManager.PARALLEL_ARCHIVE_THRESHOLD = threshold;
+        }
+    }
+
+    @Test
+    public void deduplicatedArtifacts() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ArtifactManagerConfiguration.get().getArtifactManagerFactories().add(new DeduplicatingArtifactManagerFactory());
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.getBuildersList().add(new TestBuilder() {
+            @Override public boolean perform(AbstractBuild<?,?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                FilePath ws = build.getWorkspace();
+                ws.child("dir/same").write("same content", null);
+                ws.child("dir/changing").write("build " + build.getNumber(), null);
+                return true;
+            }
+        });
+        ArtifactArchiver aa = new ArtifactArchiver("dir/*");
+        aa.setFingerprint(true);
+        p.getPublishersList().add(aa);
+        FreeStyleBuild b1 = j.buildAndAssertSuccess(p);
+        FreeStyleBuild b2 = j.buildAndAssertSuccess(p);
+        j.assertLogContains("Reused 1 of 2 artifacts", b2);
+        assertTrue(Files.isSameFile(new File(b1.getArtifactsDir(), "dir/same").toPath(), new File(b2.getArtifactsDir(), "dir/same").toPath()));
+        assertFalse(Files.isSameFile(new File(b1.getArtifactsDir(), "dir/changing").toPath(), new File(b2.getArtifactsDir(), "dir/changing").toPath()));
+        assertEquals("build 2", Util.loadFile(new File(b2.getArtifactsDir(), "dir/changing")));
+        assertEquals(Util.getDigestOf("same content"), b2.getAction(Fingerprinter.FingerprintAction.class).getRecords().get("dir/same"));
+
+        File store = new File(j.jenkins.getRootDir(), "artifactStore");
+        assertEquals(3, countFiles(store));
+        b1.delete();
+        assertEquals(2, countFiles(store));
+        assertEquals("same content", Util.loadFile(new File(b2.getArtifactsDir(), "dir/same")));
+        b2.delete();
+        assertEquals(0, countFiles(store));
+    }
+
+    private static int countFiles(File dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            return (int) files.filter(Files::isRegularFile).count();
+        }
+    }
+
     private static class RemoveReadPermission extends MasterToSlaveFileCallable<Object> {
         @Override
         public Object invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
@@ -1,11 +1,16 @@
 package hudson.widgets;
 
 import hudson.model.FreeStyleProject;
+import java.util.Arrays;
+import java.util.Set;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class HistoryWidgetTest {
 
     @Rule
@@ -24,4 +29,20 @@ public class HistoryWidgetTest {
         wc.goTo("job/" + p.getName() + "/buildHistory/all");
     }
 
+    @Test
+    public void olderPageLoadsOnlyItsRuns() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject();
+        for (int x = 0; x < 6; x++) {
+            j.assertBuildStatusSuccess(p.scheduleBuild2(0));
+        }
+        p._getRuns().purgeCache();
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        wc.setJavaScriptEnabled(false);
+        wc.goTo("job/" + p.getName() + "/buildHistory/ajax?older-than=" + (Long.MIN_VALUE + 5), null);
+        Set<Integer> loaded = p._getRuns().getLoadedBuilds().keySet();
+        assertTrue(loaded.toString(), loaded.containsAll(Arrays.asList(1, 2, 3, 4)));
+        assertFalse(loaded.toString(), loaded.contains(5));
+    }
+
 }
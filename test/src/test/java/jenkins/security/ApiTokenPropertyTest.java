@@ -175,6 +175,24 @@ public class ApiTokenPropertyTest {
         assertEquals("foo", triggeredBy.getUserId());
     }
 
+    @Test
+    public void recentAuthenticationReusedUntilTokenRevoked() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        User u = User.getById("foo", true);
+        ApiTokenStore.TokenUuidAndPlainValue token = u.getProperty(ApiTokenProperty.class).getTokenStore().generateNewToken("test");
+
+        WebClient wc = j.createWebClient().withBasicCredentials("foo", token.plainValue);
+        long hits = BasicHeaderApiTokenAuthenticator.getStatistics().getCacheHits();
+        assertEquals("foo", wc.executeOnServer(() -> User.current().getId()));
+        assertEquals("foo", wc.executeOnServer(() -> User.current().getId()));
+        assertEquals(hits + 1, BasicHeaderApiTokenAuthenticator.getStatistics().getCacheHits());
+
+        u.getProperty(ApiTokenProperty.class).getTokenStore().revokeToken(token.tokenUuid);
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        Page p = wc.goTo("whoAmI/api/xml", null);
+        assertEquals(HttpURLConnection.HTTP_UNAUTHORIZED, p.getWebResponse().getStatusCode());
+    }
+
     @Nonnull
     private WebClient createClientForUser(final String id) throws Exception {
         User u = User.getById(id, true);
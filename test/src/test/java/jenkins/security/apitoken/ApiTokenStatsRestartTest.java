@@ -121,6 +121,8 @@ public class ApiTokenStatsRestartTest {
                    HtmlSpan useCounterSpan = configWithStats.getDocumentElement().getOneHtmlElementByAttribute("span", "class", "token-use-counter");
                    assertThat(useCounterSpan.getTextContent(), containsString("" + NUM_CALL_WITH_TOKEN));
 
+                   // uses are saved periodically
+                   t.getTokenStats().flush();
                    File apiTokenStatsFile = new File(u.getUserFolder(), "apiTokenStats.xml");
                    assertTrue("apiTokenStats.xml file should exist", apiTokenStatsFile.exists());
                }
@@ -39,6 +39,7 @@ import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.JenkinsRule.WebClient;
 
+import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
 
@@ -47,6 +48,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.xml.HasXPath.hasXPath;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -117,6 +119,34 @@ public class ApiTokenStatsTest {
         assertThat(configWithoutToken.getWebResponse().getContentAsString(), not(containsString(tokenName)));
     }
     
+    @Test
+    public void pendingUsesOfDeletedOrReloadedUserAreDropped() throws Exception {
+        int flushInterval = ApiTokenStats.FLUSH_INTERVAL_SECONDS;
+        ApiTokenStats.FLUSH_INTERVAL_SECONDS = 60;
+        try {
+            User u = User.getById("foo", true);
+            ApiTokenProperty t = u.getProperty(ApiTokenProperty.class);
+            String uuid = t.getTokenStore().generateNewToken("token").tokenUuid;
+            u.save();
+            File userFolder = u.getUserFolder();
+            
+            // the reloaded statistics are the ones to keep
+            t.getTokenStats().updateUsageForId(uuid);
+            User.reload();
+            ApiTokenStats.flushAll();
+            assertEquals(0, ApiTokenStats.load(u).findTokenStatsById(uuid).getUseCounter());
+            
+            // a deleted user stays deleted
+            u = User.getById("foo", false);
+            u.getProperty(ApiTokenProperty.class).getTokenStats().updateUsageForId(uuid);
+            u.delete();
+            ApiTokenStats.flushAll();
+            assertFalse(userFolder.exists());
+        } finally {
+            ApiTokenStats.FLUSH_INTERVAL_SECONDS = flushInterval;
+        }
+    }
+    
     private void checkUserIsConnected(WebClient wc, String username) throws Exception {
         XmlPage xmlPage = wc.goToXml("whoAmI/api/xml");
         assertThat(xmlPage, hasXPath("//name", is(username)));